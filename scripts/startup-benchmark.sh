@@ -0,0 +1,130 @@
+#!/bin/bash
+
+# AI-MessageCraft Startup Benchmark
+# Builds the service in each packaging mode and reports, per mode, the median time from process launch
+# to the first successfully served request and the resident set size right after it.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+#   MODES       modes to measure (default: "jar aot cds", plus "native" when native-image is on the PATH)
+#   ENDPOINT    path polled until it answers 200 (default: /actuator/health)
+#   PORT        port the service listens on (default: 18080)
+#   SKIP_BUILD  set to reuse the artifacts of a previous run
+#
+# No OpenAI calls are made; the service starts with a placeholder API key.
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+ENDPOINT=${ENDPOINT:-/actuator/health}
+OUT=${OUT:-${TMPDIR:-/tmp}/ai-messagecraft-startup}
+JAR=ai-messagecraft-1.0.0.jar
+
+cd "$(dirname "$0")/.."
+
+if [ -z "${MODES:-}" ]; then
+    MODES="jar aot cds"
+    if command -v native-image &> /dev/null; then
+        MODES="$MODES native"
+    fi
+fi
+
+build() {
+    local mode=$1
+    rm -rf "${OUT:?}/$mode"
+    mkdir -p "$OUT/$mode"
+    case $mode in
+        jar)
+            mvn -B -q clean package -DskipTests
+            cp "target/$JAR" "$OUT/$mode/app.jar"
+            ;;
+        aot)
+            mvn -B -q -Paot clean package -DskipTests
+            cp "target/$JAR" "$OUT/$mode/app.jar"
+            ;;
+        cds)
+            # Trained after copying: the archive is only valid for the jar paths it was created with
+            mvn -B -q -Paot,cds clean package -DskipTests -Dexec.skip=true
+            cp "target/$JAR" "$OUT/$mode/app.jar"
+            cp -r target/lib "$OUT/$mode/lib"
+            (cd "$OUT/$mode" && OPENAI_API_KEY=benchmark java -XX:ArchiveClassesAtExit=app.jsa -Xlog:cds=error \
+                -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh -jar app.jar > /dev/null)
+            ;;
+        native)
+            mvn -B -q -Pnative clean native:compile -DskipTests
+            cp target/ai-messagecraft "$OUT/$mode/ai-messagecraft"
+            ;;
+        *)
+            echo "❌ Unknown mode: $mode"
+            exit 1
+            ;;
+    esac
+}
+
+launch() {
+    local mode=$1
+    cd "$OUT/$mode"
+    case $mode in
+        jar) exec java -jar app.jar --server.port="$PORT" ;;
+        aot) exec java -Dspring.aot.enabled=true -jar app.jar --server.port="$PORT" ;;
+        cds) exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar app.jar --server.port="$PORT" ;;
+        native) exec ./ai-messagecraft --server.port="$PORT" ;;
+    esac
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+# Prints "<milliseconds to first served request> <RSS in KB>" for one cold start; fails if the service exits first
+measure() {
+    local mode=$1 start pid elapsed rss
+    start=$(now_ms)
+    OPENAI_API_KEY=benchmark launch "$mode" > "$OUT/$mode/run.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT$ENDPOINT"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "❌ $mode exited before serving a request, see $OUT/$mode/run.log" >&2
+            return 1
+        fi
+        sleep 0.01
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed $rss"
+}
+
+if curl -s -o /dev/null "http://localhost:$PORT"; then
+    echo "❌ Port $PORT is already in use, set PORT to a free one"
+    exit 1
+fi
+
+echo "⏱️  AI-MessageCraft startup benchmark: $RUNS runs per mode, first request to $ENDPOINT"
+echo "================================="
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+    mkdir -p "$OUT"
+    for mode in $MODES; do
+        echo "🔨 Building $mode (log: $OUT/build-$mode.log)..."
+        build "$mode" > "$OUT/build-$mode.log" 2>&1
+    done
+fi
+
+printf "%-8s %22s %16s\n" "mode" "first request (ms)" "RSS (MB)"
+for mode in $MODES; do
+    results=()
+    for ((i = 0; i < RUNS; i++)); do
+        # Runs in a subshell, so a failed start has to be checked here
+        result=$(measure "$mode") || exit 1
+        results+=("$result")
+    done
+    elapsed=$(printf "%s\n" "${results[@]}" | cut -d' ' -f1 | median)
+    rss=$(printf "%s\n" "${results[@]}" | cut -d' ' -f2 | median)
+    printf "%-8s %22d %16d\n" "$mode" "$elapsed" "$(( rss / 1024 ))"
+done
@@ -0,0 +1,81 @@
+package com.portfolio.summarize.benchmark;
+
+import com.portfolio.summarize.config.CompressionProperties;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.config.TokenProperties;
+import com.portfolio.summarize.service.compression.CompressedText;
+import com.portfolio.summarize.service.compression.InputCompressor;
+import com.portfolio.summarize.service.tokens.TokenCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to compress a 100k character email thread in which every reply quotes the messages before it,
+ * as pasted into the summarize endpoints. {@code cleanDocument} is what long documents get ahead of
+ * chunking; {@code cleanAndExtractText} adds the TextRank pass that cuts the result to 2000 tokens.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputCompressionBenchmark {
+
+    private static final int THREAD_LENGTH = 100_000;
+
+    private InputCompressor compressor;
+    private String thread;
+
+    @Setup
+    public void setUp() {
+        OpenAiProperties openAiProperties = new OpenAiProperties("benchmark", null, "gpt-4", null, null, null);
+        compressor = new InputCompressor(new CompressionProperties(true, List.of(),
+                new CompressionProperties.Extractive(true, 2000)),
+                new TokenCounter(new TokenProperties(null, null, null, null), openAiProperties), openAiProperties,
+                new SimpleMeterRegistry());
+
+        String[] subjects = {"blender", "invoice", "delivery", "warranty", "refund", "subscription", "password", "router"};
+        StringBuilder quoted = new StringBuilder();
+        StringBuilder text = new StringBuilder(THREAD_LENGTH + 4096);
+        for (int message = 0; text.length() < THREAD_LENGTH; message++) {
+            String subject = subjects[message % subjects.length];
+            StringBuilder body = new StringBuilder();
+            for (int sentence = 0; sentence < 6; sentence++) {
+                body.append("Message ").append(message).append(" says the ").append(subject)
+                        .append(" issue from ticket ").append(1000 + message * 7 + sentence)
+                        .append(" still needs a follow-up from the ").append(subjects[sentence]).append(" team. ");
+            }
+            String reply = "Hi,\n\n" + body.toString().strip() + "\n\nThanks,\nSam\n-- \nSam Doe | Customer Care\n\n"
+                    + "CONFIDENTIAL: intended solely for the addressee.\n\n";
+            text.append(reply).append("On Mon, Jan 8, 2024 at 9:14 AM Sam Doe wrote:\n").append(quoted).append('\n');
+            quoted.append("> ").append(reply.replace("\n", "\n> ")).append('\n');
+            if (quoted.length() > THREAD_LENGTH / 4) {
+                quoted.setLength(0);
+            }
+        }
+        thread = text.substring(0, THREAD_LENGTH);
+    }
+
+    @Benchmark
+    public CompressedText cleanDocument() {
+        return compressor.compress(thread, InputCompressor.DOCUMENT);
+    }
+
+    @Benchmark
+    public CompressedText cleanAndExtractText() {
+        return compressor.compress(thread, InputCompressor.TEXT);
+    }
+}
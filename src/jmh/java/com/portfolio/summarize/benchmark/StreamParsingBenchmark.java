@@ -0,0 +1,121 @@
+package com.portfolio.summarize.benchmark;
+
+import com.portfolio.summarize.service.stream.StreamChunkDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEventHttpMessageReader;
+import org.springframework.mock.http.client.reactive.MockClientHttpResponse;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per streamed token of turning upstream SSE bytes into content strings.
+ * Run with {@code -prof gc} and read {@code gc.alloc.rate.norm} for bytes allocated per token.
+ * <p>
+ * {@code legacyStringSurgery} reproduces the pre-decoder pipeline: {@code bodyToFlux(String.class)} through
+ * Spring's SSE reader, the {@code filter}/{@code replace} passes and the {@code indexOf}/{@code substring}
+ * content extraction. {@code streamChunkDecoder} is the current {@code DataBuffer} based path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamParsingBenchmark {
+
+    static final int TOKENS = 256;
+    private static final int NETWORK_BUFFER_SIZE = 1024;
+
+    private final ServerSentEventHttpMessageReader sseReader = new ServerSentEventHttpMessageReader();
+    private List<byte[]> slices;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sse = new StringBuilder();
+        sse.append("data: {\"id\":\"chatcmpl-8abcDEFghiJKLmnoPQRstuVWX\",\"object\":\"chat.completion.chunk\",")
+                .append("\"created\":1700000000,\"model\":\"gpt-4-0613\",\"choices\":[{\"index\":0,")
+                .append("\"delta\":{\"role\":\"assistant\",\"content\":\"\"},\"finish_reason\":null}]}\n\n");
+        String[] words = {" We", " apologise", " for", " the", " delay", ".", "\\n", " \\\"Order\\\"", " #123", " caf\\u00e9"};
+        for (int i = 0; i < TOKENS; i++) {
+            sse.append("data: {\"id\":\"chatcmpl-8abcDEFghiJKLmnoPQRstuVWX\",\"object\":\"chat.completion.chunk\",")
+                    .append("\"created\":1700000000,\"model\":\"gpt-4-0613\",\"choices\":[{\"index\":0,")
+                    .append("\"delta\":{\"content\":\"").append(words[i % words.length])
+                    .append("\"},\"finish_reason\":null}]}\n\n");
+        }
+        sse.append("data: [DONE]\n\n");
+        byte[] body = sse.toString().getBytes(StandardCharsets.UTF_8);
+
+        slices = new ArrayList<>();
+        for (int i = 0; i < body.length; i += NETWORK_BUFFER_SIZE) {
+            int length = Math.min(NETWORK_BUFFER_SIZE, body.length - i);
+            byte[] slice = new byte[length];
+            System.arraycopy(body, i, slice, 0, length);
+            slices.add(slice);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void legacyStringSurgery(Blackhole blackhole) {
+        MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        response.setBody(buffers());
+
+        sseReader.read(ResolvableType.forClass(String.class), response, Map.of())
+                .cast(String.class)
+                .filter(chunk -> !chunk.trim().isEmpty() && !chunk.equals("data: [DONE]"))
+                .map(chunk -> chunk.replace("data: ", ""))
+                .filter(chunk -> !chunk.trim().isEmpty())
+                .flatMap(chunk -> {
+                    if (chunk.contains("\"content\":")) {
+                        int startIndex = chunk.indexOf("\"content\":\"") + 11;
+                        int endIndex = chunk.indexOf("\"", startIndex);
+                        if (startIndex > 10 && endIndex > startIndex) {
+                            return Flux.just(chunk.substring(startIndex, endIndex)
+                                    .replace("\\n", "\n")
+                                    .replace("\\\"", "\""));
+                        }
+                    }
+                    return Flux.empty();
+                })
+                .subscribe(blackhole::consume);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void streamChunkDecoder(Blackhole blackhole) {
+        StreamChunkDecoder.decode(buffers())
+                .<String>handle((chunk, sink) -> {
+                    String content = StreamChunkDecoder.contentOf(chunk);
+                    if (content != null && !content.isEmpty()) {
+                        sink.next(content);
+                    }
+                })
+                .subscribe(blackhole::consume);
+    }
+
+    private Flux<DataBuffer> buffers() {
+        return Flux.fromIterable(slices).map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+}
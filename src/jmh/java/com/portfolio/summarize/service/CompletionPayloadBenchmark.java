@@ -0,0 +1,120 @@
+package com.portfolio.summarize.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.config.TemplateProperties;
+import com.portfolio.summarize.config.TokenProperties;
+import com.portfolio.summarize.dto.ApiResponse;
+import com.portfolio.summarize.model.OpenAiRequest;
+import com.portfolio.summarize.model.OpenAiResponse;
+import com.portfolio.summarize.service.templates.PromptTemplates;
+import com.portfolio.summarize.service.tokens.TokenCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and allocation cost of the per-request payload work outside the network: building and serializing
+ * the upstream request, deserializing its response, rendering the summary template for a 10k character
+ * input and serializing the {@link ApiResponse} returned to the caller.
+ * <p>
+ * Lives in the service package to reach the package-private prompt and request builders. The service is
+ * constructed with only a {@link TokenCounter} and the built-in {@link PromptTemplates}; these code paths
+ * do not touch the other collaborators. Building a request from a fresh prompt includes a full BPE pass
+ * over it, while recounting the same text, as quota admission does, is a cache hit. Streaming chunk parsing is covered by
+ * {@code StreamParsingBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompletionPayloadBenchmark {
+
+    private static final int LONG_TEXT_LENGTH = 10_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private OpenAiService openAiService;
+    private TokenCounter tokenCounter;
+    private String model;
+    private String prompt;
+    private String longText;
+    private String summary;
+    private byte[] responseBody;
+
+    @Setup
+    public void setUp() throws IOException {
+        OpenAiProperties properties = new OpenAiProperties("benchmark-key", null, null, null, null, null);
+        tokenCounter = new TokenCounter(new TokenProperties(null, null, null, null), properties);
+        model = properties.model();
+        openAiService = new OpenAiService(null, properties, tokenCounter,
+                new PromptTemplates(new TemplateProperties(null, null)), null, null, null, null, null, null, null, null, null, null);
+
+        prompt = "Generate a professional apology message for a customer whose order was delayed by 3 days "
+                + "due to shipping issues";
+
+        String sentence = "The quarterly report shows revenue up 23% with software sales leading at 35% growth, "
+                + "while retention dropped 8% under competitive pricing pressure. ";
+        StringBuilder text = new StringBuilder(LONG_TEXT_LENGTH + sentence.length());
+        while (text.length() < LONG_TEXT_LENGTH) {
+            text.append(sentence);
+        }
+        longText = text.substring(0, LONG_TEXT_LENGTH);
+
+        summary = "• Revenue up 23%, led by software (+35%)\n• New customers up 40% after the Q2 campaign\n"
+                + "• Retention down 8% due to competitive pricing\n• Support resolution time improved by 20%";
+        responseBody = ("{\"id\":\"chatcmpl-8abcDEFghiJKLmnoPQRstuVWX\",\"object\":\"chat.completion\","
+                + "\"created\":1700000000,\"model\":\"gpt-4-0613\",\"choices\":[{\"index\":0,\"message\":"
+                + "{\"role\":\"assistant\",\"content\":" + objectMapper.writeValueAsString(summary) + "},"
+                + "\"finish_reason\":\"stop\"}],\"usage\":{\"prompt_tokens\":2514,\"completion_tokens\":61,"
+                + "\"total_tokens\":2575}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] createAndSerializeRequest() throws IOException {
+        OpenAiRequest request = openAiService.createRequest(prompt, 300, 0.7, false);
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public OpenAiResponse deserializeResponse() throws IOException {
+        return objectMapper.readValue(responseBody, OpenAiResponse.class);
+    }
+
+    @Benchmark
+    public List<OpenAiRequest.Message> renderSummaryTemplateFor10kText() {
+        return openAiService.summaryMessages(longText, "bullet_points");
+    }
+
+    @Benchmark
+    public byte[] summarizeRequestEndToEnd() throws IOException {
+        OpenAiRequest request = openAiService.createRequest(
+                openAiService.summaryMessages(longText, "bullet_points"), 150, 0.3, false);
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public int recountTokensOf10kText() {
+        return tokenCounter.count(model, longText);
+    }
+
+    @Benchmark
+    public byte[] serializeApiResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(summary, "Text summarized successfully"));
+    }
+}
@@ -0,0 +1,287 @@
+package com.portfolio.summarize.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-model load driver for the message and summarize endpoints.
+ * <p>
+ * Requests are started at a fixed rate and mixed across scenarios by weight. At most {@code concurrency}
+ * requests are outstanding; arrivals beyond that are dropped and counted, so an overloaded service shows up
+ * as drops and latency rather than as a silently lower request rate. While running, the service's upstream
+ * connection pool gauges are sampled from the actuator.
+ * <p>
+ * Options: {@code --rps=20 --duration=30s --concurrency=200 --max-tokens=100
+ * --mix=generate=1,generate-stream=1,summarize=1,summarize-stream=1}
+ */
+public class LoadDriver {
+
+    private static final String ACTIVE_CONNECTIONS = "reactor.netty.connection.provider.active.connections";
+    private static final String PENDING_CONNECTIONS = "reactor.netty.connection.provider.pending.connections";
+
+    enum Scenario {
+        GENERATE("generate", "/api/v1/messages/generate", false),
+        GENERATE_STREAM("generate-stream", "/api/v1/messages/generate/stream", true),
+        SUMMARIZE("summarize", "/api/v1/summarize", false),
+        SUMMARIZE_STREAM("summarize-stream", "/api/v1/summarize/stream", true);
+
+        private final String id;
+        private final String path;
+        private final boolean streaming;
+
+        Scenario(String id, String path, boolean streaming) {
+            this.id = id;
+            this.path = path;
+            this.streaming = streaming;
+        }
+
+        static Scenario of(String id) {
+            for (Scenario scenario : values()) {
+                if (scenario.id.equals(id)) {
+                    return scenario;
+                }
+            }
+            throw new IllegalArgumentException("Unknown scenario: " + id);
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String target;
+    private final double rps;
+    private final Duration duration;
+    private final int concurrency;
+    private final int maxTokens;
+    private final List<Scenario> schedule = new ArrayList<>();
+
+    LoadDriver(LoadTestArgs args, String target) {
+        this.target = target;
+        this.rps = args.decimal("rps", 20);
+        this.duration = args.duration("duration", Duration.ofSeconds(30));
+        this.concurrency = args.integer("concurrency", 200);
+        this.maxTokens = args.integer("max-tokens", 100);
+        for (String entry : args.string("mix", "generate=1,generate-stream=1,summarize=1,summarize-stream=1").split(",")) {
+            String[] parts = entry.split("=");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                schedule.add(Scenario.of(parts[0].trim()));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        LoadTestArgs options = new LoadTestArgs(args);
+        new LoadDriver(options, options.string("target", "http://localhost:8080")).run().print(System.out);
+    }
+
+    Report run() {
+        ConnectionProvider provider = ConnectionProvider.builder("loadtest")
+                .maxConnections(concurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(provider).baseUrl(target);
+        Report report = new Report(rps, duration, concurrency);
+
+        long total = Math.max(1, (long) (rps * duration.toMillis() / 1000));
+        Duration period = Duration.ofNanos((long) (1e9 / rps));
+        PoolSampler pool = new PoolSampler(client);
+        var sampling = Flux.interval(Duration.ofMillis(500)).concatMap(tick -> pool.sample()).subscribe();
+
+        long start = System.nanoTime();
+        try {
+            Flux.interval(period)
+                    .take(total)
+                    .onBackpressureDrop(tick -> report.dropped.increment())
+                    .flatMap(i -> execute(client, schedule.get((int) (i % schedule.size())), i, report), concurrency)
+                    .blockLast();
+        } finally {
+            sampling.dispose();
+            report.elapsedNanos = System.nanoTime() - start;
+            report.activeConnections = pool.active;
+            report.pendingConnections = pool.pending;
+            provider.disposeLater().block();
+        }
+        return report;
+    }
+
+    private Mono<Void> execute(HttpClient client, Scenario scenario, long sequence, Report report) {
+        ScenarioStats stats = report.stats(scenario);
+        String body = body(scenario, sequence);
+        long start = System.nanoTime();
+        HttpClient.ResponseReceiver<?> request = client
+                .headers(headers -> headers.set("Content-Type", "application/json")
+                        .set("Accept", scenario.streaming ? "text/event-stream" : "application/json"))
+                .post()
+                .uri(scenario.path)
+                .send(ByteBufFlux.fromString(Mono.just(body)));
+
+        Mono<Integer> status;
+        if (scenario.streaming) {
+            status = request.response((response, content) -> {
+                AtomicLong firstData = new AtomicLong();
+                return content.asString()
+                        .doOnNext(chunk -> {
+                            if (firstData.get() == 0 && chunk.contains("data:")) {
+                                firstData.compareAndSet(0, System.nanoTime());
+                            }
+                        })
+                        .then(Mono.fromCallable(() -> {
+                            if (firstData.get() != 0) {
+                                stats.ttft.recordValue(TimeUnit.NANOSECONDS.toMicros(firstData.get() - start));
+                            }
+                            return response.status().code();
+                        }));
+            }).single();
+        } else {
+            status = request.responseSingle((response, content) -> content.asString()
+                    .defaultIfEmpty("")
+                    .map(ignored -> response.status().code()));
+        }
+
+        return status
+                .doOnNext(code -> stats.record(String.valueOf(code), System.nanoTime() - start))
+                .onErrorResume(error -> {
+                    stats.record(error.getClass().getSimpleName(), System.nanoTime() - start);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private String body(Scenario scenario, long sequence) {
+        ObjectNode body = objectMapper.createObjectNode().put("maxTokens", maxTokens);
+        // A distinct suffix keeps requests out of the completion cache and the request coalescer
+        switch (scenario) {
+            case GENERATE, GENERATE_STREAM -> body
+                    .put("prompt", "Write a short apology to a customer whose order #" + sequence + " was delayed")
+                    .put("temperature", 0.7);
+            case SUMMARIZE, SUMMARIZE_STREAM -> body
+                    .put("text", "Ticket " + sequence + ": The customer reports that the mobile app crashes when "
+                            + "uploading files and that desktop and mobile sync is unreliable. Support answered "
+                            + "within 24 hours and the customer would still recommend the service.")
+                    .put("summaryType", "brief");
+        }
+        return body.toString();
+    }
+
+    /**
+     * Samples the service's upstream connection pool gauges from the actuator
+     */
+    private final class PoolSampler {
+
+        private final HttpClient client;
+        private final Histogram active = new Histogram(3);
+        private final Histogram pending = new Histogram(3);
+
+        private PoolSampler(HttpClient client) {
+            this.client = client;
+        }
+
+        private Mono<Void> sample() {
+            return Mono.zip(gauge(ACTIVE_CONNECTIONS), gauge(PENDING_CONNECTIONS))
+                    .doOnNext(values -> {
+                        active.recordValue(values.getT1());
+                        pending.recordValue(values.getT2());
+                    })
+                    .onErrorResume(error -> Mono.empty())
+                    .then();
+        }
+
+        private Mono<Long> gauge(String name) {
+            return client.get()
+                    .uri("/actuator/metrics/" + name + "?tag=name:openai")
+                    .responseSingle((response, content) -> content.asString())
+                    .map(json -> {
+                        try {
+                            JsonNode measurements = objectMapper.readTree(json).path("measurements");
+                            return (long) measurements.path(0).path("value").asDouble();
+                        } catch (Exception e) {
+                            return 0L;
+                        }
+                    });
+        }
+    }
+
+    static final class ScenarioStats {
+
+        private final ConcurrentHistogram latency = new ConcurrentHistogram(3);
+        private final ConcurrentHistogram ttft = new ConcurrentHistogram(3);
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+        private void record(String outcome, long nanos) {
+            latency.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+            outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        }
+    }
+
+    static final class Report {
+
+        private final double rps;
+        private final Duration duration;
+        private final int concurrency;
+        private final Map<Scenario, ScenarioStats> stats = new ConcurrentHashMap<>();
+        private final LongAdder dropped = new LongAdder();
+        private long elapsedNanos;
+        private Histogram activeConnections;
+        private Histogram pendingConnections;
+
+        private Report(double rps, Duration duration, int concurrency) {
+            this.rps = rps;
+            this.duration = duration;
+            this.concurrency = concurrency;
+        }
+
+        private ScenarioStats stats(Scenario scenario) {
+            return stats.computeIfAbsent(scenario, key -> new ScenarioStats());
+        }
+
+        void print(PrintStream out) {
+            double seconds = elapsedNanos / 1e9;
+            out.printf("%nLoad test: %.1f rps target for %ds, concurrency %d, %.1fs elapsed, %d arrivals dropped%n",
+                    rps, duration.toSeconds(), concurrency, seconds, dropped.sum());
+            out.printf("%-18s %8s %9s %9s %9s %9s %9s %9s  %s%n",
+                    "scenario", "count", "req/s", "p50 ms", "p99 ms", "max ms", "ttft p50", "ttft p99", "outcomes");
+            for (Scenario scenario : Scenario.values()) {
+                ScenarioStats s = stats.get(scenario);
+                if (s == null) {
+                    continue;
+                }
+                long count = s.latency.getTotalCount();
+                out.printf("%-18s %8d %9.1f %9.1f %9.1f %9.1f %9s %9s  %s%n",
+                        scenario.id, count, count / seconds,
+                        millis(s.latency, 50), millis(s.latency, 99), s.latency.getMaxValue() / 1000.0,
+                        scenario.streaming ? String.format("%.1f", millis(s.ttft, 50)) : "-",
+                        scenario.streaming ? String.format("%.1f", millis(s.ttft, 99)) : "-",
+                        new TreeMap<>(s.outcomes));
+            }
+            if (activeConnections != null && activeConnections.getTotalCount() > 0) {
+                out.printf("Upstream connections: active mean %.1f max %d, pending acquires mean %.1f max %d%n",
+                        activeConnections.getMean(), activeConnections.getMaxValue(),
+                        pendingConnections.getMean(), pendingConnections.getMaxValue());
+            } else {
+                out.println("Upstream connections: not available (actuator metrics unreachable)");
+            }
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
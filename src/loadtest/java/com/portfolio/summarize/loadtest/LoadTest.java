@@ -0,0 +1,53 @@
+package com.portfolio.summarize.loadtest;
+
+import com.portfolio.summarize.SummarizeServiceApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the stub upstream, the service pointed at it and the load driver in one process, then prints the
+ * report. With {@code --target=http://host:port} only the driver runs, against an already started service.
+ * <p>
+ * Stub options are described on {@link StubOpenAiServer}, driver options on {@link LoadDriver}. Options
+ * prefixed with {@code app.} are passed to the service, e.g. {@code --app.openai.http.max-connections=50}.
+ * The service's client-side rate limit is off unless re-enabled that way.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) {
+        LoadTestArgs options = new LoadTestArgs(args);
+        if (options.has("target")) {
+            new LoadDriver(options, options.string("target", null)).run().print(System.out);
+            return;
+        }
+
+        StubOpenAiServer stub = new StubOpenAiServer(options);
+        stub.start(0);
+
+        List<String> appArgs = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--openai.base-url=" + stub.baseUrl(),
+            "--openai.rate-limit.enabled=false",
+            "--spring.main.banner-mode=off",
+            "--logging.level.com.portfolio.summarize=WARN"
+        ));
+        options.withPrefix("app.").forEach((key, value) -> appArgs.add("--" + key + "=" + value));
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext app = SpringApplication.run(SummarizeServiceApplication.class, appArgs.toArray(String[]::new));
+        try {
+            String target = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            System.out.println("Service at " + target + ", stub upstream at " + stub.baseUrl());
+            LoadDriver.Report report = new LoadDriver(options, target).run();
+            report.print(System.out);
+            System.out.println("Upstream requests served by stub: " + stub.requestCount());
+        } finally {
+            app.close();
+            stub.stop();
+        }
+        System.exit(0);
+    }
+}
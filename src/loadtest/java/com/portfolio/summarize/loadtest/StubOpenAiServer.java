@@ -0,0 +1,174 @@
+package com.portfolio.summarize.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OpenAI-compatible stub of {@code POST /v1/chat/completions} for load tests without network or quota.
+ * <p>
+ * Time to first token is drawn from a log-normal distribution given by its median and p99. Completions are
+ * {@code completion-tokens} long and produced at {@code tokens-per-second}: streaming requests receive one
+ * SSE chunk per token, non-streaming requests receive the whole body once generation would have finished.
+ * A fraction of requests can be failed with 500 or throttled with 429 and {@code Retry-After}.
+ * <p>
+ * Options: {@code --port=8089 --ttft-median=300ms --ttft-p99=2s --tokens-per-second=50
+ * --completion-tokens=100 --error-rate=0.0 --rate-limit-rate=0.0 --retry-after=1}
+ */
+public class StubOpenAiServer {
+
+    private static final double Z_99 = 2.326;
+    private static final String[] WORDS = {" Thank", " you", " for", " your", " patience", ",", " we", " have",
+            " updated", " your", " order", " and", " will", " follow", " up", " shortly", "."};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final double logMedianMillis;
+    private final double sigma;
+    private final double tokensPerSecond;
+    private final int completionTokens;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final int retryAfterSeconds;
+    private final AtomicLong requests = new AtomicLong();
+
+    private DisposableServer server;
+
+    StubOpenAiServer(LoadTestArgs args) {
+        Duration median = args.duration("ttft-median", Duration.ofMillis(300));
+        Duration p99 = args.duration("ttft-p99", Duration.ofSeconds(2));
+        this.logMedianMillis = Math.log(Math.max(1, median.toMillis()));
+        this.sigma = Math.max(0, Math.log((double) p99.toMillis() / Math.max(1, median.toMillis())) / Z_99);
+        this.tokensPerSecond = args.decimal("tokens-per-second", 50);
+        this.completionTokens = args.integer("completion-tokens", 100);
+        this.errorRate = args.decimal("error-rate", 0.0);
+        this.rateLimitRate = args.decimal("rate-limit-rate", 0.0);
+        this.retryAfterSeconds = args.integer("retry-after", 1);
+    }
+
+    public static void main(String[] args) {
+        LoadTestArgs options = new LoadTestArgs(args);
+        StubOpenAiServer stub = new StubOpenAiServer(options);
+        stub.start(options.integer("port", 8089));
+        System.out.println("Stub OpenAI server listening on " + stub.baseUrl());
+        stub.server.onDispose().block();
+    }
+
+    DisposableServer start(int port) {
+        server = HttpServer.create()
+                .port(port)
+                .route(routes -> routes
+                        .post("/v1/chat/completions", this::handle)
+                        .post("/chat/completions", this::handle))
+                .bindNow();
+        return server;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.port() + "/v1";
+    }
+
+    long requestCount() {
+        return requests.get();
+    }
+
+    void stop() {
+        server.disposeNow();
+    }
+
+    private Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        return request.receive().aggregate().asString().flatMap(body -> {
+            requests.incrementAndGet();
+            JsonNode json = readTree(body);
+            String model = json.path("model").asText("gpt-4");
+            boolean stream = json.path("stream").asBoolean(false);
+            int tokens = Math.min(completionTokens, json.path("max_tokens").asInt(completionTokens));
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < rateLimitRate) {
+                return response.status(HttpResponseStatus.TOO_MANY_REQUESTS)
+                        .header("Retry-After", String.valueOf(retryAfterSeconds))
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.just("{\"error\":{\"message\":\"Rate limit reached\",\"type\":\"requests\"}}"))
+                        .then();
+            }
+            Duration ttft = sampleTimeToFirstToken();
+            if (roll < rateLimitRate + errorRate) {
+                return Mono.delay(ttft).then(response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR)
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.just("{\"error\":{\"message\":\"Injected failure\",\"type\":\"server_error\"}}"))
+                        .then());
+            }
+            return stream ? streamCompletion(response, model, tokens, ttft) : completion(response, model, tokens, ttft);
+        });
+    }
+
+    private Mono<Void> completion(HttpServerResponse response, String model, int tokens, Duration ttft) {
+        Duration generation = Duration.ofNanos((long) (tokens / tokensPerSecond * 1e9));
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("id", "chatcmpl-stub")
+                .put("object", "chat.completion")
+                .put("created", System.currentTimeMillis() / 1000)
+                .put("model", model);
+        ObjectNode choice = body.putArray("choices").addObject().put("index", 0).put("finish_reason", "stop");
+        choice.putObject("message").put("role", "assistant").put("content", text(tokens));
+        body.putObject("usage").put("prompt_tokens", 50).put("completion_tokens", tokens).put("total_tokens", 50 + tokens);
+
+        return Mono.delay(ttft.plus(generation)).then(response
+                .header("Content-Type", "application/json")
+                .sendString(Mono.just(body.toString()))
+                .then());
+    }
+
+    private Mono<Void> streamCompletion(HttpServerResponse response, String model, int tokens, Duration ttft) {
+        Duration interval = Duration.ofNanos((long) (1e9 / tokensPerSecond));
+        Flux<String> events = Flux.concat(
+                Mono.just(chunk(model, "{\"role\":\"assistant\",\"content\":\"\"}", null)),
+                Flux.interval(interval).take(tokens)
+                        .map(i -> chunk(model, "{\"content\":\"" + WORDS[(int) (i % WORDS.length)] + "\"}", null)),
+                Flux.just(chunk(model, "{}", "stop"), "data: [DONE]\n\n"));
+
+        return Mono.delay(ttft).then(response
+                .header("Content-Type", "text/event-stream")
+                .sendString(events)
+                .then());
+    }
+
+    private static String chunk(String model, String delta, String finishReason) {
+        return "data: {\"id\":\"chatcmpl-stub\",\"object\":\"chat.completion.chunk\",\"created\":"
+                + System.currentTimeMillis() / 1000 + ",\"model\":\"" + model + "\",\"choices\":[{\"index\":0,\"delta\":"
+                + delta + ",\"finish_reason\":" + (finishReason != null ? "\"" + finishReason + "\"" : "null") + "}]}\n\n";
+    }
+
+    private static String text(int tokens) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            text.append(WORDS[i % WORDS.length]);
+        }
+        return text.toString().trim();
+    }
+
+    private Duration sampleTimeToFirstToken() {
+        double millis = Math.exp(logMedianMillis + sigma * ThreadLocalRandom.current().nextGaussian());
+        return Duration.ofNanos((long) (millis * 1_000_000));
+    }
+
+    private JsonNode readTree(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (Exception e) {
+            return objectMapper.createObjectNode();
+        }
+    }
+}
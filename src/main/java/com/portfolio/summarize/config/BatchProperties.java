@@ -0,0 +1,21 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "openai.batch")
+public record BatchProperties(
+    Integer concurrency,
+    Integer maxItems
+) {
+    public BatchProperties {
+        if (concurrency == null) {
+            concurrency = 8;
+        }
+        if (maxItems == null) {
+            maxItems = 50_000;
+        }
+        if (concurrency < 1 || maxItems < 1) {
+            throw new IllegalArgumentException("Invalid openai.batch settings");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.portfolio.summarize.config;
+
+import com.portfolio.summarize.service.cache.CompletionCache;
+import com.portfolio.summarize.service.cache.DiskCompletionCache;
+import com.portfolio.summarize.service.cache.InMemoryCompletionCache;
+import com.portfolio.summarize.service.cache.TieredCompletionCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class CompletionCacheConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CompletionCache completionCache(CompletionCacheProperties properties, MeterRegistry meterRegistry) {
+        if (!properties.enabled()) {
+            return CompletionCache.NONE;
+        }
+
+        CompletionCache memory = new InMemoryCompletionCache(properties.maxEntries(), properties.ttl(), meterRegistry);
+        CompletionCacheProperties.Disk disk = properties.disk();
+        if (!disk.enabled()) {
+            return memory;
+        }
+        return new TieredCompletionCache(memory,
+                new DiskCompletionCache(Path.of(disk.directory()), disk.maxEntries(), disk.ttl(), meterRegistry));
+    }
+}
@@ -0,0 +1,124 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "openai.cache")
+public record CompletionCacheProperties(
+    Boolean enabled,
+    Long maxEntries,
+    Duration ttl,
+    Double maxTemperature,
+    Map<String, Boolean> endpoints,
+    Disk disk,
+    Semantic semantic
+) {
+    public CompletionCacheProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (maxEntries == null) {
+            maxEntries = 10_000L;
+        }
+        if (ttl == null) {
+            ttl = Duration.ofHours(1);
+        }
+        if (maxTemperature == null) {
+            maxTemperature = 0.3;
+        }
+        if (endpoints == null) {
+            endpoints = Map.of();
+        }
+        if (disk == null) {
+            disk = new Disk(null, null, null, null);
+        }
+        if (semantic == null) {
+            semantic = new Semantic(null, null, null, null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Returns whether caching is switched on for the given endpoint; endpoints are opted in unless listed as false
+     */
+    public boolean isEnabledFor(String endpoint) {
+        return enabled && endpoints.getOrDefault(endpoint, true);
+    }
+
+    public record Disk(
+        Boolean enabled,
+        String directory,
+        Integer maxEntries,
+        Duration ttl
+    ) {
+        public Disk {
+            if (enabled == null) {
+                enabled = false;
+            }
+            if (directory == null) {
+                directory = System.getProperty("java.io.tmpdir") + "/ai-messagecraft/completions";
+            }
+            if (maxEntries == null) {
+                maxEntries = 100_000;
+            }
+            if (ttl == null) {
+                ttl = Duration.ofDays(1);
+            }
+        }
+    }
+
+    /**
+     * Near-duplicate reuse of summaries and generated messages; see {@code SemanticCompletionCache}
+     */
+    public record Semantic(
+        Boolean enabled,
+        Integer maxEntries,
+        DataSize maxMemory,
+        Duration ttl,
+        Integer shingleWords,
+        Double threshold,
+        Map<String, Double> thresholds,
+        Double auditRate,
+        Double auditSimilarity
+    ) {
+        public Semantic {
+            if (enabled == null) {
+                enabled = false;
+            }
+            if (maxEntries == null) {
+                maxEntries = 10_000;
+            }
+            if (maxMemory == null) {
+                maxMemory = DataSize.ofMegabytes(64);
+            }
+            if (ttl == null) {
+                ttl = Duration.ofHours(1);
+            }
+            if (shingleWords == null) {
+                shingleWords = 3;
+            }
+            if (threshold == null) {
+                threshold = 0.9;
+            }
+            if (thresholds == null) {
+                thresholds = Map.of();
+            }
+            if (auditRate == null) {
+                auditRate = 0.01;
+            }
+            if (auditSimilarity == null) {
+                auditSimilarity = 0.5;
+            }
+        }
+
+        /**
+         * Minimum similarity for a hit; keyed by summary type, or by endpoint for generated messages
+         */
+        public double thresholdFor(String key) {
+            return key != null ? thresholds.getOrDefault(key, threshold) : threshold;
+        }
+    }
+}
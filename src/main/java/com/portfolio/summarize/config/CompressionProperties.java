@@ -0,0 +1,44 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "openai.compression")
+public record CompressionProperties(
+    Boolean enabled,
+    List<String> boilerplate,
+    Extractive extractive
+) {
+    public CompressionProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (boilerplate == null) {
+            boilerplate = List.of();
+        }
+        if (extractive == null) {
+            extractive = new Extractive(null, null);
+        }
+    }
+
+    /**
+     * Ranking of the cleaned text's sentences, keeping the most central ones within {@code maxTokens}
+     */
+    public record Extractive(
+        Boolean enabled,
+        Integer maxTokens
+    ) {
+        public Extractive {
+            if (enabled == null) {
+                enabled = false;
+            }
+            if (maxTokens == null) {
+                maxTokens = 2000;
+            }
+            if (maxTokens < 1) {
+                throw new IllegalArgumentException("openai.compression.extractive.max-tokens must be positive");
+            }
+        }
+    }
+}
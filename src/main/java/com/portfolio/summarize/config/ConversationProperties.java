@@ -0,0 +1,36 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "openai.conversations")
+public record ConversationProperties(
+    DataSize maxMemory,
+    Duration idleTimeout,
+    Integer historyTokens,
+    Boolean summarizeHistory,
+    Integer summaryMaxTokens
+) {
+    public ConversationProperties {
+        if (maxMemory == null) {
+            maxMemory = DataSize.ofMegabytes(64);
+        }
+        if (idleTimeout == null) {
+            idleTimeout = Duration.ofMinutes(30);
+        }
+        if (historyTokens == null) {
+            historyTokens = 2000;
+        }
+        if (summarizeHistory == null) {
+            summarizeHistory = true;
+        }
+        if (summaryMaxTokens == null) {
+            summaryMaxTokens = 300;
+        }
+        if (historyTokens < 1 || summaryMaxTokens < 1 || summaryMaxTokens >= historyTokens) {
+            throw new IllegalArgumentException("openai.conversations.summary-max-tokens must be below history-tokens");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "openai.jobs")
+public record JobProperties(
+    String directory,
+    Integer workers,
+    Integer maxPending,
+    Integer maxAttempts,
+    Duration retryDelay,
+    Duration retention,
+    Boolean fsync,
+    List<String> webhookHosts
+) {
+    public JobProperties {
+        if (directory == null || directory.isBlank()) {
+            directory = Path.of(System.getProperty("java.io.tmpdir"), "ai-messagecraft", "jobs").toString();
+        }
+        if (workers == null) {
+            workers = 4;
+        }
+        if (maxPending == null) {
+            maxPending = 10_000;
+        }
+        if (maxAttempts == null) {
+            maxAttempts = 3;
+        }
+        if (retryDelay == null) {
+            retryDelay = Duration.ofSeconds(30);
+        }
+        if (retention == null) {
+            retention = Duration.ofHours(24);
+        }
+        if (fsync == null) {
+            fsync = true;
+        }
+        if (webhookHosts == null) {
+            webhookHosts = List.of("localhost", "127.0.0.1", "::1");
+        }
+        if (workers < 1 || maxPending < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("openai.jobs requires workers, max-pending and max-attempts >= 1");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "openai.long-document")
+public record LongDocumentProperties(
+    Integer chunkTokens,
+    Integer parallelism,
+    Integer maxFanIn,
+    Integer sectionMaxTokens
+) {
+    public LongDocumentProperties {
+        if (chunkTokens == null) {
+            chunkTokens = 3000;
+        }
+        if (parallelism == null) {
+            parallelism = 4;
+        }
+        if (maxFanIn == null) {
+            maxFanIn = 8;
+        }
+        if (sectionMaxTokens == null) {
+            sectionMaxTokens = 400;
+        }
+        if (chunkTokens < 1 || parallelism < 1 || maxFanIn < 2 || sectionMaxTokens < 1) {
+            throw new IllegalArgumentException("Invalid openai.long-document settings");
+        }
+    }
+}
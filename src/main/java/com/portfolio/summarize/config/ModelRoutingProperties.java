@@ -0,0 +1,82 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "openai.models")
+public record ModelRoutingProperties(
+    List<Rule> rules,
+    Validation validation
+) {
+    public ModelRoutingProperties {
+        if (rules == null) {
+            rules = List.of();
+        }
+        if (validation == null) {
+            validation = new Validation(null, null, null);
+        }
+        for (Rule rule : rules) {
+            if (rule.model() == null || rule.model().isBlank()) {
+                throw new IllegalArgumentException("openai.models.rules entries require a model");
+            }
+        }
+    }
+
+    /**
+     * Requests matching every condition that is set go to {@code model}; the first matching rule wins.
+     * A cascading rule checks the answer and escalates to openai.model when it fails validation.
+     */
+    public record Rule(
+        String name,
+        String model,
+        List<String> endpoints,
+        List<String> summaryTypes,
+        List<String> messageTypes,
+        Integer maxInputTokens,
+        Duration maxTimeout,
+        Boolean cascade
+    ) {
+        public Rule {
+            if (endpoints == null) {
+                endpoints = List.of();
+            }
+            if (summaryTypes == null) {
+                summaryTypes = List.of();
+            }
+            if (messageTypes == null) {
+                messageTypes = List.of();
+            }
+            if (cascade == null) {
+                cascade = false;
+            }
+        }
+    }
+
+    /**
+     * Checks a cascaded answer must pass: a minimum length, no refusal, and for summary types listed in
+     * {@code formats}, most non-blank lines matching the type's pattern
+     */
+    public record Validation(
+        Integer minLength,
+        List<String> refusals,
+        Map<String, String> formats
+    ) {
+        public Validation {
+            if (minLength == null) {
+                minLength = 20;
+            }
+            if (refusals == null) {
+                refusals = List.of(
+                    "(?i)^(I'?m|I am) (sorry|afraid),? (but )?I (can(no|')t|am unable to|'m unable to|won'?t)",
+                    "(?i)\\bas an AI( language model)?\\b",
+                    "(?i)^I (can(no|')t|am unable to|'m unable to) (help|assist|comply|provide|summari[sz]e)");
+            }
+            if (formats == null) {
+                formats = Map.of("bullet_points", "^\\s*([-*•]|\\d{1,3}[.)])\\s");
+            }
+        }
+    }
+}
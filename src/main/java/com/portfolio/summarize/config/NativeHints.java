@@ -0,0 +1,61 @@
+package com.portfolio.summarize.config;
+
+import com.portfolio.summarize.dto.JobResponse;
+import com.portfolio.summarize.dto.StreamDone;
+import com.portfolio.summarize.model.OpenAiRequest;
+import com.portfolio.summarize.model.OpenAiResponse;
+import com.portfolio.summarize.model.StreamResponse;
+import com.portfolio.summarize.service.jobs.Job;
+import com.portfolio.summarize.service.usage.UsageBucket;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.BindableRuntimeHintsRegistrar;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reachability metadata for AOT-processed and native builds, covering what cannot be inferred from
+ * controller signatures: the upstream payloads, stream and webhook bodies, the job and usage journals,
+ * the properties records and the prompt templates and tokenizer encodings read from the classpath.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHints.Registrar.class)
+@RegisterReflectionForBinding({
+    OpenAiRequest.class,
+    OpenAiResponse.class,
+    StreamResponse.class,
+    StreamDone.class,
+    Job.class,
+    JobResponse.class,
+    UsageBucket.class
+})
+public class NativeHints {
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources()
+                    .registerPattern("prompts/*/*.yml")
+                    .registerPattern("com/knuddels/jtokkit/*.tiktoken");
+            BindableRuntimeHintsRegistrar.forTypes(propertiesTypes(classLoader)).registerHints(hints, classLoader);
+        }
+
+        /**
+         * Every {@code @ConfigurationProperties} record in this package, including nested groups such as
+         * {@code openai.http}, which are bound through their canonical constructors
+         */
+        private static Class<?>[] propertiesTypes(ClassLoader classLoader) {
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.addIncludeFilter(new AnnotationTypeFilter(ConfigurationProperties.class));
+            return scanner.findCandidateComponents(NativeHints.class.getPackageName()).stream()
+                    .map(candidate -> ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader))
+                    .toArray(Class<?>[]::new);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.validation.annotation.Validated;
 
 import jakarta.validation.constraints.NotBlank;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "openai")
 @Validated
 public record OpenAiProperties(
@@ -12,7 +14,8 @@ public record OpenAiProperties(
     @NotBlank String baseUrl,
     @NotBlank String model,
     Integer maxTokens,
-    Double temperature
+    Double temperature,
+    Http http
 ) {
     public OpenAiProperties {
         if (baseUrl == null) {
@@ -27,5 +30,73 @@ public record OpenAiProperties(
         if (temperature == null) {
             temperature = 0.7;
         }
+        if (http == null) {
+            http = new Http(null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Upstream HTTP client settings: connection pool, timeouts and protocol options
+     */
+    public record Http(
+        Integer maxConnections,
+        Integer pendingAcquireMaxCount,
+        Duration pendingAcquireTimeout,
+        Duration maxIdleTime,
+        Duration maxLifeTime,
+        Duration evictInBackground,
+        Duration connectTimeout,
+        Duration responseTimeout,
+        Duration readTimeout,
+        Duration writeTimeout,
+        Boolean http2,
+        Boolean compression,
+        Integer tlsSessionCacheSize,
+        Duration tlsSessionTimeout
+    ) {
+        public Http {
+            if (maxConnections == null) {
+                maxConnections = 100;
+            }
+            if (pendingAcquireMaxCount == null) {
+                pendingAcquireMaxCount = 1000;
+            }
+            if (pendingAcquireTimeout == null) {
+                pendingAcquireTimeout = Duration.ofSeconds(10);
+            }
+            if (maxIdleTime == null) {
+                maxIdleTime = Duration.ofSeconds(30);
+            }
+            if (maxLifeTime == null) {
+                maxLifeTime = Duration.ofMinutes(5);
+            }
+            if (evictInBackground == null) {
+                evictInBackground = Duration.ofSeconds(30);
+            }
+            if (connectTimeout == null) {
+                connectTimeout = Duration.ofSeconds(5);
+            }
+            if (responseTimeout == null) {
+                responseTimeout = Duration.ofSeconds(120);
+            }
+            if (readTimeout == null) {
+                readTimeout = Duration.ofSeconds(60);
+            }
+            if (writeTimeout == null) {
+                writeTimeout = Duration.ofSeconds(10);
+            }
+            if (http2 == null) {
+                http2 = false;
+            }
+            if (compression == null) {
+                compression = true;
+            }
+            if (tlsSessionCacheSize == null) {
+                tlsSessionCacheSize = 0; // JDK default
+            }
+            if (tlsSessionTimeout == null) {
+                tlsSessionTimeout = Duration.ofHours(24);
+            }
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "openai.rate-limit")
+public record RateLimitProperties(
+    Boolean enabled,
+    Integer requestsPerMinute,
+    Integer tokensPerMinute,
+    Duration maxWait,
+    Boolean adaptive
+) {
+    public RateLimitProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (requestsPerMinute == null) {
+            requestsPerMinute = 500;
+        }
+        if (tokensPerMinute == null) {
+            tokensPerMinute = 40_000;
+        }
+        if (maxWait == null) {
+            maxWait = Duration.ofSeconds(30);
+        }
+        if (adaptive == null) {
+            adaptive = true;
+        }
+        if (requestsPerMinute < 1 || tokensPerMinute < 1) {
+            throw new IllegalArgumentException("openai.rate-limit budgets must be positive");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "openai.resilience")
+public record ResilienceProperties(
+    Retry retry,
+    Breaker circuitBreaker,
+    Hedging hedging
+) {
+    public ResilienceProperties {
+        if (retry == null) {
+            retry = new Retry(null, null, null, null);
+        }
+        if (circuitBreaker == null) {
+            circuitBreaker = new Breaker(null, null, null, null, null, null);
+        }
+        if (hedging == null) {
+            hedging = new Hedging(null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Retries of transient upstream failures: 429, 5xx and connection errors
+     */
+    public record Retry(
+        Integer maxAttempts,
+        Duration initialBackoff,
+        Duration maxBackoff,
+        Double jitter
+    ) {
+        public Retry {
+            if (maxAttempts == null) {
+                maxAttempts = 3;
+            }
+            if (initialBackoff == null) {
+                initialBackoff = Duration.ofMillis(500);
+            }
+            if (maxBackoff == null) {
+                maxBackoff = Duration.ofSeconds(10);
+            }
+            if (jitter == null) {
+                jitter = 0.5;
+            }
+            if (maxAttempts < 1 || jitter < 0 || jitter > 1) {
+                throw new IllegalArgumentException("openai.resilience.retry requires max-attempts >= 1 and jitter in [0, 1]");
+            }
+        }
+    }
+
+    /**
+     * Count-based circuit breaker over the most recent upstream calls
+     */
+    public record Breaker(
+        Boolean enabled,
+        Integer slidingWindowSize,
+        Integer minimumCalls,
+        Integer failureRateThreshold,
+        Duration openDuration,
+        Integer halfOpenCalls
+    ) {
+        public Breaker {
+            if (enabled == null) {
+                enabled = true;
+            }
+            if (slidingWindowSize == null) {
+                slidingWindowSize = 50;
+            }
+            if (minimumCalls == null) {
+                minimumCalls = 20;
+            }
+            if (failureRateThreshold == null) {
+                failureRateThreshold = 50;
+            }
+            if (openDuration == null) {
+                openDuration = Duration.ofSeconds(30);
+            }
+            if (halfOpenCalls == null) {
+                halfOpenCalls = 3;
+            }
+            minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        }
+    }
+
+    /**
+     * Hedged non-streaming calls: a second request is sent once the first has been outstanding
+     * longer than the given latency percentile
+     */
+    public record Hedging(
+        Boolean enabled,
+        Double percentile,
+        Integer minSamples,
+        Duration minDelay,
+        Duration maxDelay
+    ) {
+        public Hedging {
+            if (enabled == null) {
+                enabled = false;
+            }
+            if (percentile == null) {
+                percentile = 0.95;
+            }
+            if (minSamples == null) {
+                minSamples = 50;
+            }
+            if (minDelay == null) {
+                minDelay = Duration.ofMillis(100);
+            }
+            if (maxDelay == null) {
+                maxDelay = Duration.ofSeconds(30);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.portfolio.summarize.config;
+
+import com.portfolio.summarize.service.ratelimit.UpstreamRateLimiter;
+import com.portfolio.summarize.service.resilience.CircuitBreaker;
+import com.portfolio.summarize.service.routing.UpstreamRouter;
+import com.portfolio.summarize.service.routing.UpstreamTarget;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class RoutingConfig {
+
+    /**
+     * Upstream targets from openai.routing.targets, or the single openai.base-url / openai.api-key target
+     */
+    @Bean
+    public UpstreamRouter upstreamRouter(OpenAiProperties openAiProperties, RoutingProperties routingProperties,
+                                         RateLimitProperties rateLimitProperties, ResilienceProperties resilienceProperties,
+                                         MeterRegistry meterRegistry) {
+        List<RoutingProperties.Target> configured = routingProperties.targets();
+        if (configured.isEmpty()) {
+            configured = List.of(new RoutingProperties.Target("default", null, null, null, null, null));
+        }
+
+        List<UpstreamTarget> targets = new ArrayList<>();
+        for (int i = 0; i < configured.size(); i++) {
+            RoutingProperties.Target target = configured.get(i);
+            String name = target.name() != null ? target.name() : "target-" + (i + 1);
+            RateLimitProperties quota = new RateLimitProperties(
+                rateLimitProperties.enabled(),
+                target.requestsPerMinute() != null ? target.requestsPerMinute() : rateLimitProperties.requestsPerMinute(),
+                target.tokensPerMinute() != null ? target.tokensPerMinute() : rateLimitProperties.tokensPerMinute(),
+                rateLimitProperties.maxWait(),
+                rateLimitProperties.adaptive()
+            );
+            targets.add(new UpstreamTarget(
+                name,
+                target.baseUrl() != null ? target.baseUrl() : openAiProperties.baseUrl(),
+                target.apiKey() != null ? target.apiKey() : openAiProperties.apiKey(),
+                target.model(),
+                new UpstreamRateLimiter(name, quota, meterRegistry),
+                new CircuitBreaker(name, resilienceProperties.circuitBreaker(), meterRegistry),
+                routingProperties.ewmaDecay().toNanos()
+            ));
+        }
+        return new UpstreamRouter(targets, routingProperties.strategy(), meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "openai.routing")
+public record RoutingProperties(
+    Strategy strategy,
+    Duration ewmaDecay,
+    List<Target> targets
+) {
+    public RoutingProperties {
+        if (strategy == null) {
+            strategy = Strategy.EWMA_LATENCY;
+        }
+        if (ewmaDecay == null) {
+            ewmaDecay = Duration.ofSeconds(10);
+        }
+        if (targets == null) {
+            targets = List.of();
+        }
+    }
+
+    public enum Strategy {
+        /** Fewest requests in flight */
+        LEAST_OUTSTANDING,
+        /** Lowest decayed average latency, weighted by requests in flight */
+        EWMA_LATENCY
+    }
+
+    /**
+     * One OpenAI-compatible endpoint and key. Unset values fall back to the top-level openai.* and
+     * openai.rate-limit.* settings; an empty api key sends no Authorization header.
+     */
+    public record Target(
+        String name,
+        String baseUrl,
+        String apiKey,
+        String model,
+        Integer requestsPerMinute,
+        Integer tokensPerMinute
+    ) {}
+}
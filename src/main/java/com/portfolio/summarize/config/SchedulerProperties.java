@@ -0,0 +1,75 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "openai.scheduler")
+public record SchedulerProperties(
+    Boolean enabled,
+    Integer maxConcurrent,
+    Integer maxQueued,
+    Integer maxQueuedPerTenant,
+    Duration maxQueueWait,
+    String tenantHeader,
+    PriorityWeights priorityWeights,
+    Map<String, Integer> tenantWeights
+) {
+    public SchedulerProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (maxConcurrent == null) {
+            maxConcurrent = 64;
+        }
+        if (maxQueued == null) {
+            maxQueued = 1000;
+        }
+        if (maxQueuedPerTenant == null) {
+            maxQueuedPerTenant = 200;
+        }
+        if (maxQueueWait == null) {
+            maxQueueWait = Duration.ofSeconds(30);
+        }
+        if (tenantHeader == null || tenantHeader.isBlank()) {
+            tenantHeader = "X-Tenant-Id";
+        }
+        if (priorityWeights == null) {
+            priorityWeights = new PriorityWeights(null, null, null);
+        }
+        if (tenantWeights == null) {
+            tenantWeights = Map.of();
+        }
+        if (maxConcurrent < 1 || maxQueued < 0 || maxQueuedPerTenant < 0) {
+            throw new IllegalArgumentException("openai.scheduler requires max-concurrent >= 1 and non-negative queue sizes");
+        }
+        if (tenantWeights.values().stream().anyMatch(weight -> weight == null || weight < 1)) {
+            throw new IllegalArgumentException("openai.scheduler.tenant-weights must be positive");
+        }
+    }
+
+    /**
+     * Share of upstream capacity each priority class receives while all of them are backlogged
+     */
+    public record PriorityWeights(
+        Integer interactive,
+        Integer standard,
+        Integer batch
+    ) {
+        public PriorityWeights {
+            if (interactive == null) {
+                interactive = 16;
+            }
+            if (standard == null) {
+                standard = 4;
+            }
+            if (batch == null) {
+                batch = 1;
+            }
+            if (interactive < 1 || standard < 1 || batch < 1) {
+                throw new IllegalArgumentException("openai.scheduler.priority-weights must be positive");
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "openai.streaming")
+public record StreamingProperties(
+    Duration flushInterval,
+    DataSize flushSize
+) {
+    public StreamingProperties {
+        if (flushInterval == null) {
+            flushInterval = Duration.ofMillis(30);
+        }
+        if (flushSize == null) {
+            flushSize = DataSize.ofKilobytes(1);
+        }
+    }
+}
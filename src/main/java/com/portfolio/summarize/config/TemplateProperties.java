@@ -0,0 +1,17 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "openai.templates")
+public record TemplateProperties(
+    String directory,
+    Duration reloadInterval
+) {
+    public TemplateProperties {
+        if (reloadInterval == null) {
+            reloadInterval = Duration.ofSeconds(5);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "openai.tokens")
+public record TokenProperties(
+    Map<String, Integer> contextWindows,
+    Integer defaultContextWindow,
+    Integer minCompletionTokens,
+    Integer cacheSize
+) {
+    /**
+     * Context windows of common models, matched by longest model-name prefix; configured entries take precedence
+     */
+    private static final Map<String, Integer> KNOWN_CONTEXT_WINDOWS = Map.of(
+        "gpt-4", 8_192,
+        "gpt-4-32k", 32_768,
+        "gpt-4-turbo", 128_000,
+        "gpt-4-1106", 128_000,
+        "gpt-4-0125", 128_000,
+        "gpt-4o", 128_000,
+        "gpt-4.1", 1_047_576,
+        "gpt-3.5-turbo", 16_385
+    );
+
+    public TokenProperties {
+        Map<String, Integer> windows = new HashMap<>(KNOWN_CONTEXT_WINDOWS);
+        if (contextWindows != null) {
+            windows.putAll(contextWindows);
+        }
+        contextWindows = Map.copyOf(windows);
+        if (defaultContextWindow == null) {
+            defaultContextWindow = 8_192;
+        }
+        if (minCompletionTokens == null) {
+            minCompletionTokens = 16;
+        }
+        if (cacheSize == null) {
+            cacheSize = 10_000;
+        }
+        if (contextWindows.values().stream().anyMatch(window -> window == null || window < 1)
+                || defaultContextWindow < 1 || minCompletionTokens < 1 || cacheSize < 0) {
+            throw new IllegalArgumentException("openai.tokens context windows and min-completion-tokens must be positive");
+        }
+    }
+}
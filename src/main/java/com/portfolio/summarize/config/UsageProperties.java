@@ -0,0 +1,70 @@
+package com.portfolio.summarize.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "openai.usage")
+public record UsageProperties(
+    String directory,
+    Duration rollupInterval,
+    Duration bucket,
+    Duration retention,
+    Duration budgetPeriod,
+    Budget budget,
+    Map<String, Budget> tenantBudgets
+) {
+    public UsageProperties {
+        if (directory == null || directory.isBlank()) {
+            directory = Path.of(System.getProperty("java.io.tmpdir"), "ai-messagecraft", "usage").toString();
+        }
+        if (rollupInterval == null) {
+            rollupInterval = Duration.ofMinutes(1);
+        }
+        if (bucket == null) {
+            bucket = Duration.ofHours(1);
+        }
+        if (retention == null) {
+            retention = Duration.ofDays(31);
+        }
+        if (budgetPeriod == null) {
+            budgetPeriod = Duration.ofDays(1);
+        }
+        if (budget == null) {
+            budget = new Budget(null, null);
+        }
+        if (tenantBudgets == null) {
+            tenantBudgets = Map.of();
+        }
+        if (rollupInterval.toMillis() < 1 || bucket.toMillis() < 1 || rollupInterval.compareTo(bucket) > 0) {
+            throw new IllegalArgumentException("openai.usage requires a positive rollup-interval no longer than bucket");
+        }
+        if (budgetPeriod.toMillis() % bucket.toMillis() != 0 || budgetPeriod.compareTo(retention) > 0) {
+            throw new IllegalArgumentException("openai.usage.budget-period must be a multiple of bucket and within retention");
+        }
+    }
+
+    /**
+     * The budget of {@code tenant}, or the default one
+     */
+    public Budget budgetOf(String tenant) {
+        return tenantBudgets.getOrDefault(tenant, budget);
+    }
+
+    /**
+     * Tokens a tenant may use per budget period; null means unlimited. Calls past {@code softTokens} are
+     * logged and counted, calls past {@code hardTokens} are refused until the period ends.
+     */
+    public record Budget(
+        Long softTokens,
+        Long hardTokens
+    ) {
+        public Budget {
+            if ((softTokens != null && softTokens < 0) || (hardTokens != null && hardTokens < 0)) {
+                throw new IllegalArgumentException("openai.usage budgets must not be negative");
+            }
+        }
+    }
+}
@@ -1,19 +1,84 @@
 package com.portfolio.summarize.config;
 
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.http.HttpHeaders;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Configuration
 public class WebClientConfig {
 
+    /**
+     * Dedicated connection pool for the upstream; pool gauges are published as reactor.netty.connection.provider.*
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openAiConnectionProvider(OpenAiProperties openAiProperties) {
+        OpenAiProperties.Http http = openAiProperties.http();
+        return ConnectionProvider.builder("openai")
+                .maxConnections(http.maxConnections())
+                .pendingAcquireMaxCount(http.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(http.pendingAcquireTimeout())
+                .maxIdleTime(http.maxIdleTime())
+                .maxLifeTime(http.maxLifeTime())
+                .evictInBackground(http.evictInBackground())
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Shared client for all upstream targets; each request carries its target's absolute URI and credentials
+     */
     @Bean
-    public WebClient openAiWebClient(OpenAiProperties openAiProperties) {
+    public WebClient openAiWebClient(OpenAiProperties openAiProperties, ConnectionProvider openAiConnectionProvider) {
         return WebClient.builder()
-                .baseUrl(openAiProperties.baseUrl())
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + openAiProperties.apiKey())
+                .clientConnector(new ReactorClientHttpConnector(
+                        openAiHttpClient(openAiProperties, openAiConnectionProvider)))
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, "application/json")
                 .build();
     }
-} 
\ No newline at end of file
+
+    static HttpClient openAiHttpClient(OpenAiProperties openAiProperties, ConnectionProvider connectionProvider) {
+        OpenAiProperties.Http http = openAiProperties.http();
+        long readTimeoutMillis = http.readTimeout().toMillis();
+        long writeTimeoutMillis = http.writeTimeout().toMillis();
+
+        HttpClient client = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.connectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(http.responseTimeout())
+                // Per request, so that pooled connections are not torn down while idle. The read timeout starts
+                // once headers arrive, as a non-streaming completion sends none until it is generated and the
+                // wait for them is bounded by the response timeout instead.
+                .doOnRequest((request, connection) -> connection
+                        .addHandlerFirst(new WriteTimeoutHandler(writeTimeoutMillis, TimeUnit.MILLISECONDS)))
+                .doOnResponse((response, connection) -> connection
+                        .addHandlerFirst(new ReadTimeoutHandler(readTimeoutMillis, TimeUnit.MILLISECONDS)))
+                .compress(http.compression())
+                .metrics(true, Function.identity());
+
+        // One SslContext for the client, so TLS sessions are resumed across pooled connections.
+        // Plain http targets (local inference servers) are unaffected by the TLS settings.
+        int sessionCacheSize = http.tlsSessionCacheSize();
+        long sessionTimeoutSeconds = http.tlsSessionTimeout().toSeconds();
+        if (http.http2()) {
+            return client
+                    .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                    .secure(spec -> spec.sslContext(Http2SslContextSpec.forClient()
+                            .configure(builder -> builder.sessionCacheSize(sessionCacheSize).sessionTimeout(sessionTimeoutSeconds))));
+        }
+        return client.secure(spec -> spec.sslContext(Http11SslContextSpec.forClient()
+                .configure(builder -> builder.sessionCacheSize(sessionCacheSize).sessionTimeout(sessionTimeoutSeconds))));
+    }
+}
@@ -0,0 +1,60 @@
+package com.portfolio.summarize.controller;
+
+import com.portfolio.summarize.config.SchedulerProperties;
+import com.portfolio.summarize.service.ratelimit.UpstreamRateLimiter;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import com.portfolio.summarize.service.scheduling.RequestPriority;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Derives the {@link ClientContext} of each request for the upstream scheduler.
+ * <p>
+ * The tenant comes from the configured tenant header. Priority follows the endpoint: token streams are
+ * interactive, batch and long-document work is bulk. {@code X-Request-Priority} may lower it but never
+ * raise it. {@code X-Request-Timeout} ({@code 5}, {@code 1500ms}, {@code 2s}) sets how long the caller
+ * is prepared to wait.
+ */
+@Component
+public class ClientContextFilter implements WebFilter {
+
+    public static final String PRIORITY_HEADER = "X-Request-Priority";
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final SchedulerProperties properties;
+
+    public ClientContextFilter(SchedulerProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        RequestPriority priority = defaultPriority(exchange.getRequest().getPath().pathWithinApplication().value());
+        RequestPriority requested = RequestPriority.parse(headers.getFirst(PRIORITY_HEADER));
+        if (requested != null && requested.compareTo(priority) > 0) {
+            priority = requested;
+        }
+        Duration timeout = UpstreamRateLimiter.parseDuration(headers.getFirst(TIMEOUT_HEADER));
+        Long deadlineNanos = timeout != null ? System.nanoTime() + timeout.toNanos() : null;
+
+        ClientContext client = new ClientContext(headers.getFirst(properties.tenantHeader()), priority, deadlineNanos);
+        return chain.filter(exchange).contextWrite(client::addTo);
+    }
+
+    static RequestPriority defaultPriority(String path) {
+        if (path.contains("/batch") || path.contains("/long")) {
+            return RequestPriority.BATCH;
+        }
+        if (path.endsWith("/stream")) {
+            return RequestPriority.INTERACTIVE;
+        }
+        return RequestPriority.STANDARD;
+    }
+}
@@ -0,0 +1,98 @@
+package com.portfolio.summarize.controller;
+
+import com.portfolio.summarize.dto.ApiResponse;
+import com.portfolio.summarize.dto.ConversationMessageRequest;
+import com.portfolio.summarize.dto.ConversationRequest;
+import com.portfolio.summarize.dto.ConversationResponse;
+import com.portfolio.summarize.exception.GlobalExceptionHandler;
+import com.portfolio.summarize.service.conversations.ConversationService;
+import com.portfolio.summarize.service.stream.SseStreamEncoder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/v1/conversations")
+@Tag(name = "Conversations", description = "Multi-turn message generation with server-side history")
+@CrossOrigin(origins = "*") // For demo purposes - restrict in production
+public class ConversationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationController.class);
+
+    private final ConversationService conversationService;
+    private final SseStreamEncoder sseStreamEncoder;
+
+    public ConversationController(ConversationService conversationService, SseStreamEncoder sseStreamEncoder) {
+        this.conversationService = conversationService;
+        this.sseStreamEncoder = sseStreamEncoder;
+    }
+
+    @PostMapping("")
+    @Operation(summary = "Start a conversation", description = "Create a conversation session using a message template")
+    public Mono<ResponseEntity<ApiResponse<ConversationResponse>>> startConversation(
+            @RequestBody(required = false) ConversationRequest request) {
+
+        String messageType = request != null ? request.messageType() : null;
+        logger.info("Starting conversation for type: {}", messageType);
+
+        return conversationService.start(messageType)
+                .map(conversation -> ResponseEntity.created(URI.create("/api/v1/conversations/" + conversation.id()))
+                        .body(ApiResponse.success(ConversationResponse.from(conversation), "Conversation started")));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a conversation", description = "Get the conversation's rolling summary and retained turns")
+    public Mono<ResponseEntity<ApiResponse<ConversationResponse>>> getConversation(@PathVariable String id) {
+        return conversationService.find(id)
+                .map(conversation -> ResponseEntity.ok(ApiResponse.success(ConversationResponse.from(conversation))))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Conversation not found")));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "End a conversation", description = "Discard the conversation and its history")
+    public Mono<ResponseEntity<Void>> endConversation(@PathVariable String id) {
+        return conversationService.end(id)
+                .map(removed -> removed ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/messages")
+    @Operation(summary = "Send a follow-up", description = "Generate the next message from the new prompt and the conversation's history")
+    public Mono<ResponseEntity<ApiResponse<String>>> sendMessage(
+            @PathVariable String id, @Valid @RequestBody ConversationMessageRequest request) {
+
+        logger.info("Received follow-up for conversation {}", id);
+
+        return conversationService.find(id)
+                .flatMap(conversation -> conversationService.reply(conversation, request.prompt(), request.maxTokens(), request.temperature())
+                        .map(content -> ResponseEntity.ok(ApiResponse.success(content, "Message generated successfully")))
+                        .onErrorReturn(error -> !GlobalExceptionHandler.isHandled(error), ResponseEntity.status(500).body(
+                                ApiResponse.error("Failed to generate message"))))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Conversation not found")));
+    }
+
+    @PostMapping(value = "/{id}/messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Send a follow-up with streaming", description = "Stream the next message; the exchange is added to the history once it completes")
+    public Flux<ServerSentEvent<Object>> sendMessageStream(
+            @PathVariable String id, @Valid @RequestBody ConversationMessageRequest request) {
+
+        logger.info("Received streaming follow-up for conversation {}", id);
+
+        return conversationService.find(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found")))
+                .flatMapMany(conversation -> sseStreamEncoder.encode(
+                        conversationService.replyStream(conversation, request.prompt(), request.maxTokens(), request.temperature()),
+                        "Error occurred during generation"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.portfolio.summarize.controller;
+
+import com.portfolio.summarize.dto.ApiResponse;
+import com.portfolio.summarize.dto.JobRequest;
+import com.portfolio.summarize.dto.JobResponse;
+import com.portfolio.summarize.service.jobs.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@Tag(name = "Summarization Jobs", description = "Asynchronous summarization with durable queuing")
+@CrossOrigin(origins = "*") // For demo purposes - restrict in production
+public class JobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobController.class);
+
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping("")
+    @Operation(summary = "Submit a summarization job", description = "Queue text for summarization and return a job id immediately")
+    public Mono<ResponseEntity<ApiResponse<JobResponse>>> submitJob(@Valid @RequestBody JobRequest request) {
+
+        logger.info("Received summarization job for text length: {} characters", request.text().length());
+
+        return jobService.submit(request)
+                .map(job -> ResponseEntity.accepted()
+                        .location(URI.create("/api/v1/jobs/" + job.id()))
+                        .body(ApiResponse.success(JobResponse.from(job), "Job accepted")));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a job", description = "Poll the status of a job and its summary once finished")
+    public Mono<ResponseEntity<ApiResponse<JobResponse>>> getJob(@PathVariable String id) {
+        return jobService.find(id)
+                .map(job -> ResponseEntity.ok(ApiResponse.success(JobResponse.from(job))))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error("Job not found")));
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to a job", description = "Stream the job's status changes as server-sent events until it finishes")
+    public Flux<ServerSentEvent<JobResponse>> watchJob(@PathVariable String id) {
+        return jobService.find(id)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found")))
+                .flatMapMany(job -> jobService.watch(id))
+                .map(JobResponse::from)
+                .map(job -> ServerSentEvent.builder(job).event(job.status()).build());
+    }
+}
@@ -2,7 +2,11 @@ package com.portfolio.summarize.controller;
 
 import com.portfolio.summarize.dto.ApiResponse;
 import com.portfolio.summarize.dto.MessageRequest;
+import com.portfolio.summarize.exception.GlobalExceptionHandler;
 import com.portfolio.summarize.service.OpenAiService;
+import com.portfolio.summarize.service.stream.SseStreamEncoder;
+import com.portfolio.summarize.service.templates.PromptTemplate;
+import com.portfolio.summarize.service.templates.PromptTemplates;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -10,10 +14,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/messages")
 @Tag(name = "Message Generation", description = "AI-powered customer message generation")
@@ -23,9 +31,13 @@ public class MessageController {
     private static final Logger logger = LoggerFactory.getLogger(MessageController.class);
     
     private final OpenAiService openAiService;
+    private final PromptTemplates templates;
+    private final SseStreamEncoder sseStreamEncoder;
     
-    public MessageController(OpenAiService openAiService) {
+    public MessageController(OpenAiService openAiService, PromptTemplates templates, SseStreamEncoder sseStreamEncoder) {
         this.openAiService = openAiService;
+        this.templates = templates;
+        this.sseStreamEncoder = sseStreamEncoder;
     }
     
     @PostMapping("/generate")
@@ -37,43 +49,43 @@ public class MessageController {
         
         return openAiService.generateMessage(
                 request.prompt(), 
+                request.messageType(), 
                 request.maxTokens(), 
                 request.temperature()
         )
         .map(content -> ResponseEntity.ok(
             ApiResponse.success(content, "Message generated successfully")
         ))
-        .onErrorReturn(ResponseEntity.status(500).body(
+        .onErrorReturn(error -> !GlobalExceptionHandler.isHandled(error), ResponseEntity.status(500).body(
             ApiResponse.error("Failed to generate message")
         ));
     }
     
     @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @Operation(summary = "Generate a customer message with streaming", description = "Generate a professional customer message using AI with real-time streaming")
-    public Flux<String> generateMessageStream(
+    public Flux<ServerSentEvent<Object>> generateMessageStream(
             @Valid @RequestBody MessageRequest request) {
         
         logger.info("Received streaming message generation request for type: {}", request.messageType());
         
-        return openAiService.generateMessageStream(
+        return sseStreamEncoder.encode(openAiService.generateMessageStream(
                 request.prompt(), 
+                request.messageType(), 
                 request.maxTokens(), 
                 request.temperature()
-        )
-        .map(content -> "data: " + content + "\n\n")
-        .onErrorReturn("data: Error occurred during generation\n\n");
+        ), "Error occurred during generation");
     }
     
     @GetMapping("/templates")
-    @Operation(summary = "Get message templates", description = "Get predefined message templates for different scenarios")
+    @Operation(summary = "Get message templates", description = "Get the message templates usable as messageType, with an example opening for each")
     public ResponseEntity<ApiResponse<Object>> getMessageTemplates() {
-        var templates = java.util.Map.of(
-            "apology", "I sincerely apologize for the inconvenience you've experienced. We take all customer concerns seriously and want to make this right.",
-            "follow_up", "Thank you for reaching out to us. We wanted to follow up on your recent inquiry and ensure you received the assistance you needed.",
-            "welcome", "Welcome to our service! We're excited to have you as a customer and look forward to providing you with excellent service.",
-            "resolution", "We're pleased to inform you that your issue has been resolved. Please let us know if you need any further assistance."
-        );
+        Map<String, String> examples = new LinkedHashMap<>();
+        for (PromptTemplate template : templates.all(PromptTemplates.MESSAGES).values()) {
+            if (!PromptTemplates.DEFAULT.equals(template.name())) {
+                examples.put(template.name(), template.example() != null ? template.example() : template.description());
+            }
+        }
         
-        return ResponseEntity.ok(ApiResponse.success(templates, "Message templates retrieved successfully"));
+        return ResponseEntity.ok(ApiResponse.success(examples, "Message templates retrieved successfully"));
     }
 } 
\ No newline at end of file
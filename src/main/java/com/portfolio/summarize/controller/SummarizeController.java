@@ -1,8 +1,18 @@
 package com.portfolio.summarize.controller;
 
 import com.portfolio.summarize.dto.ApiResponse;
+import com.portfolio.summarize.dto.BatchSummarizeItem;
+import com.portfolio.summarize.dto.BatchSummarizeResult;
+import com.portfolio.summarize.dto.LongSummarizeRequest;
 import com.portfolio.summarize.dto.SummarizeRequest;
+import com.portfolio.summarize.dto.SummaryEvent;
+import com.portfolio.summarize.exception.GlobalExceptionHandler;
 import com.portfolio.summarize.service.OpenAiService;
+import com.portfolio.summarize.service.batch.BatchSummarizer;
+import com.portfolio.summarize.service.longdoc.LongDocumentSummarizer;
+import com.portfolio.summarize.service.stream.SseStreamEncoder;
+import com.portfolio.summarize.service.templates.PromptTemplate;
+import com.portfolio.summarize.service.templates.PromptTemplates;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -10,10 +20,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/summarize")
 @Tag(name = "Text Summarization", description = "AI-powered text summarization")
@@ -23,9 +37,19 @@ public class SummarizeController {
     private static final Logger logger = LoggerFactory.getLogger(SummarizeController.class);
     
     private final OpenAiService openAiService;
+    private final LongDocumentSummarizer longDocumentSummarizer;
+    private final BatchSummarizer batchSummarizer;
+    private final PromptTemplates templates;
+    private final SseStreamEncoder sseStreamEncoder;
     
-    public SummarizeController(OpenAiService openAiService) {
+    public SummarizeController(OpenAiService openAiService, LongDocumentSummarizer longDocumentSummarizer,
+                               BatchSummarizer batchSummarizer, PromptTemplates templates,
+                               SseStreamEncoder sseStreamEncoder) {
         this.openAiService = openAiService;
+        this.longDocumentSummarizer = longDocumentSummarizer;
+        this.batchSummarizer = batchSummarizer;
+        this.templates = templates;
+        this.sseStreamEncoder = sseStreamEncoder;
     }
     
     @PostMapping("")
@@ -43,36 +67,83 @@ public class SummarizeController {
         .map(summary -> ResponseEntity.ok(
             ApiResponse.success(summary, "Text summarized successfully")
         ))
-        .onErrorReturn(ResponseEntity.status(500).body(
+        .onErrorReturn(error -> !GlobalExceptionHandler.isHandled(error), ResponseEntity.status(500).body(
             ApiResponse.error("Failed to summarize text")
         ));
     }
     
     @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @Operation(summary = "Summarize text with streaming", description = "Summarize customer messages or feedback using AI with real-time streaming")
-    public Flux<String> summarizeTextStream(
+    public Flux<ServerSentEvent<Object>> summarizeTextStream(
             @Valid @RequestBody SummarizeRequest request) {
         
         logger.info("Received streaming summarization request for text length: {} characters", request.text().length());
         
-        return openAiService.summarizeTextStream(
+        return sseStreamEncoder.encode(openAiService.summarizeTextStream(
+                request.text(), 
+                request.maxTokens(), 
+                request.summaryType()
+        ), "Error occurred during summarization");
+    }
+    
+    @PostMapping("/long")
+    @Operation(summary = "Summarize a long document", description = "Summarize transcripts or threads beyond the single-prompt limit by summarizing chunks in parallel and merging the results")
+    public Mono<ResponseEntity<ApiResponse<String>>> summarizeLongText(
+            @Valid @RequestBody LongSummarizeRequest request) {
+        
+        logger.info("Received long-document summarization request for text length: {} characters", request.text().length());
+        
+        return longDocumentSummarizer.summarize(
                 request.text(), 
                 request.maxTokens(), 
                 request.summaryType()
         )
-        .map(content -> "data: " + content + "\n\n")
-        .onErrorReturn("data: Error occurred during summarization\n\n");
+        .map(summary -> ResponseEntity.ok(
+            ApiResponse.success(summary, "Text summarized successfully")
+        ))
+        .onErrorReturn(error -> !GlobalExceptionHandler.isHandled(error), ResponseEntity.status(500).body(
+            ApiResponse.error("Failed to summarize text")
+        ));
+    }
+    
+    @PostMapping(value = "/long/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Summarize a long document with streaming", description = "Emit each chunk summary as it completes, then stream the final merged summary")
+    public Flux<ServerSentEvent<SummaryEvent>> summarizeLongTextStream(
+            @Valid @RequestBody LongSummarizeRequest request) {
+        
+        logger.info("Received streaming long-document summarization request for text length: {} characters", request.text().length());
+        
+        return longDocumentSummarizer.summarizeStream(
+                request.text(), 
+                request.maxTokens(), 
+                request.summaryType()
+        )
+        .map(event -> ServerSentEvent.builder(event).event(event.type()).build())
+        .onErrorReturn(error -> !GlobalExceptionHandler.isHandled(error), ServerSentEvent.builder(SummaryEvent.error("Error occurred during summarization"))
+            .event(SummaryEvent.ERROR)
+            .build());
+    }
+    
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Summarize texts in bulk", description = "Accept an NDJSON stream or JSON array of items and stream one NDJSON result per item as soon as it completes")
+    public Flux<BatchSummarizeResult> summarizeBatch(@RequestBody Flux<BatchSummarizeItem> items) {
+        
+        logger.info("Received batch summarization request");
+        
+        return batchSummarizer.summarize(items);
     }
     
     @GetMapping("/types")
     @Operation(summary = "Get summary types", description = "Get available summary types and their descriptions")
     public ResponseEntity<ApiResponse<Object>> getSummaryTypes() {
-        var summaryTypes = java.util.Map.of(
-            "brief", "A concise paragraph summary",
-            "bullet_points", "Key points in bullet format",
-            "detailed", "Comprehensive analysis with details",
-            "key_points", "Main highlights and takeaways"
-        );
+        Map<String, String> summaryTypes = new LinkedHashMap<>();
+        for (PromptTemplate template : templates.all(PromptTemplates.SUMMARIES).values()) {
+            if (!PromptTemplates.DEFAULT.equals(template.name())) {
+                summaryTypes.put(template.name(), template.description());
+            }
+        }
         
         return ResponseEntity.ok(ApiResponse.success(summaryTypes, "Summary types retrieved successfully"));
     }
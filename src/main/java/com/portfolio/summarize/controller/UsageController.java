@@ -0,0 +1,41 @@
+package com.portfolio.summarize.controller;
+
+import com.portfolio.summarize.dto.ApiResponse;
+import com.portfolio.summarize.dto.UsageResponse;
+import com.portfolio.summarize.service.usage.UsageLedger;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/v1/usage")
+@Tag(name = "Usage", description = "Token usage and budgets of the calling tenant")
+@CrossOrigin(origins = "*") // For demo purposes - restrict in production
+public class UsageController {
+
+    private final UsageLedger usageLedger;
+
+    public UsageController(UsageLedger usageLedger) {
+        this.usageLedger = usageLedger;
+    }
+
+    @GetMapping("")
+    @Operation(summary = "Get token usage", description = "Prompt and completion tokens per time bucket, endpoint and model, with the budget standing")
+    public Mono<ResponseEntity<ApiResponse<UsageResponse>>> getUsage(
+            @Parameter(description = "Start of the window (ISO-8601); defaults to the start of the current budget period")
+            @RequestParam(required = false) Instant from,
+            @Parameter(description = "End of the window (ISO-8601); defaults to now")
+            @RequestParam(required = false) Instant to,
+            @Parameter(description = "Bucket length (ISO-8601 duration), a multiple of openai.usage.bucket", example = "PT1H")
+            @RequestParam(required = false) Duration step) {
+
+        return usageLedger.report(from, to, step)
+                .map(report -> ResponseEntity.ok(ApiResponse.success(UsageResponse.from(report))));
+    }
+}
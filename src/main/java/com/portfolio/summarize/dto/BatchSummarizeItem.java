@@ -0,0 +1,24 @@
+package com.portfolio.summarize.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "One item of a bulk summarization request, sent as an NDJSON line or JSON array element")
+public record BatchSummarizeItem(
+    @NotBlank(message = "Item id cannot be blank")
+    @Size(max = 200, message = "Item id cannot exceed 200 characters")
+    @Schema(description = "Caller-supplied id echoed back on the result", example = "ticket-48213")
+    String id,
+    
+    @NotBlank(message = "Text to summarize cannot be blank")
+    @Size(max = 10000, message = "Text cannot exceed 10000 characters")
+    @Schema(description = "The text to be summarized", example = "Customer reports the replacement part arrived without the mounting screws...")
+    String text,
+    
+    @Schema(description = "Maximum length of summary in tokens", example = "150")
+    Integer maxTokens,
+    
+    @Schema(description = "Type of summary needed", example = "brief")
+    String summaryType
+) {}
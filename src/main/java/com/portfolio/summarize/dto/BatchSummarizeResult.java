@@ -0,0 +1,28 @@
+package com.portfolio.summarize.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result for one item of a bulk summarization request")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchSummarizeResult(
+    @Schema(description = "Id of the item this result belongs to", example = "ticket-48213")
+    String id,
+    
+    @Schema(description = "Item status", example = "success")
+    String status,
+    
+    @Schema(description = "Summary text when successful")
+    String summary,
+    
+    @Schema(description = "Error details if the item failed")
+    String error
+) {
+    public static BatchSummarizeResult success(String id, String summary) {
+        return new BatchSummarizeResult(id, "success", summary, null);
+    }
+    
+    public static BatchSummarizeResult error(String id, String error) {
+        return new BatchSummarizeResult(id, "error", null, error);
+    }
+}
@@ -0,0 +1,19 @@
+package com.portfolio.summarize.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Follow-up prompt in a conversation; earlier turns are supplied by the server")
+public record ConversationMessageRequest(
+    @NotBlank(message = "Prompt cannot be blank")
+    @Size(max = 2000, message = "Prompt cannot exceed 2000 characters")
+    @Schema(description = "The new prompt only", example = "Make it shorter and mention the refund")
+    String prompt,
+
+    @Schema(description = "Maximum number of tokens in response", example = "500")
+    Integer maxTokens,
+
+    @Schema(description = "Temperature for randomness (0.0 to 1.0)", example = "0.7")
+    Double temperature
+) {}
@@ -0,0 +1,9 @@
+package com.portfolio.summarize.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Request for starting a conversation")
+public record ConversationRequest(
+    @Schema(description = "Message template the conversation uses, as listed by GET /api/v1/messages/templates; the default template when omitted or unknown", example = "apology")
+    String messageType
+) {}
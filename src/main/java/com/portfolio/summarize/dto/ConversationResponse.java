@@ -0,0 +1,45 @@
+package com.portfolio.summarize.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.portfolio.summarize.service.conversations.Conversation;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+@Schema(description = "State of a conversation")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ConversationResponse(
+    @Schema(description = "Conversation id", example = "0b6f6a7e-2f43-4b8e-9d8c-52a1d7e4c0aa")
+    String id,
+
+    @Schema(description = "Message template the conversation uses", example = "apology")
+    String messageType,
+
+    @Schema(description = "Rolling summary of turns that no longer fit the history budget")
+    String summary,
+
+    @Schema(description = "Tokens of the summary and retained turns", example = "412")
+    Integer historyTokens,
+
+    @Schema(description = "Retained turns, oldest first")
+    List<Turn> turns,
+
+    @Schema(description = "When the conversation was started")
+    Instant createdAt
+) {
+    public record Turn(
+        @Schema(description = "Who produced the turn: user or assistant", example = "user")
+        String role,
+
+        @Schema(description = "Text of the turn")
+        String content
+    ) {}
+
+    public static ConversationResponse from(Conversation conversation) {
+        return new ConversationResponse(conversation.id(), conversation.messageType(), conversation.summary(),
+                conversation.historyTokens(),
+                conversation.turns().stream().map(turn -> new Turn(turn.role(), turn.content())).toList(),
+                conversation.createdAt());
+    }
+}
@@ -0,0 +1,25 @@
+package com.portfolio.summarize.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Request for an asynchronous summarization job")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobRequest(
+    @NotBlank(message = "Text to summarize cannot be blank")
+    @Size(max = 1000000, message = "Text cannot exceed 1000000 characters")
+    @Schema(description = "The text to be summarized; long documents are split into chunks automatically", example = "Agent: Thanks for calling, how can I help today? Customer: I'm calling about order 4411...")
+    String text,
+
+    @Schema(description = "Maximum length of summary in tokens", example = "300")
+    Integer maxTokens,
+
+    @Schema(description = "Type of summary needed", example = "key_points")
+    String summaryType,
+
+    @Size(max = 2000, message = "Webhook URL cannot exceed 2000 characters")
+    @Schema(description = "Optional local URL that receives the finished job as a JSON POST", example = "http://localhost:9000/jobs/done")
+    String webhookUrl
+) {}
@@ -0,0 +1,38 @@
+package com.portfolio.summarize.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.portfolio.summarize.service.jobs.Job;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.Locale;
+
+@Schema(description = "State of an asynchronous summarization job")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobResponse(
+    @Schema(description = "Job id", example = "5f0c1c9e-8a53-4d0e-9a57-0d3f5c1b7e21")
+    String id,
+
+    @Schema(description = "Job status: pending, running, succeeded or failed", example = "succeeded")
+    String status,
+
+    @Schema(description = "Number of upstream attempts made so far", example = "1")
+    Integer attempts,
+
+    @Schema(description = "Summary text once the job succeeded")
+    String summary,
+
+    @Schema(description = "Error details if the job failed, or the last retried error")
+    String error,
+
+    @Schema(description = "When the job was submitted")
+    Instant createdAt,
+
+    @Schema(description = "When the job last changed state")
+    Instant updatedAt
+) {
+    public static JobResponse from(Job job) {
+        return new JobResponse(job.id(), job.state().name().toLowerCase(Locale.ROOT), job.attempts(),
+                job.summary(), job.error(), job.createdAt(), job.updatedAt());
+    }
+}
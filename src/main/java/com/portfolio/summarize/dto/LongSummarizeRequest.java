@@ -0,0 +1,19 @@
+package com.portfolio.summarize.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Request for summarizing a long document such as a call transcript or email thread")
+public record LongSummarizeRequest(
+    @NotBlank(message = "Text to summarize cannot be blank")
+    @Size(max = 1000000, message = "Text cannot exceed 1000000 characters")
+    @Schema(description = "The document to be summarized; split into chunks automatically", example = "Agent: Thanks for calling, how can I help today? Customer: I'm calling about order 4411...")
+    String text,
+    
+    @Schema(description = "Maximum length of the final summary in tokens", example = "400")
+    Integer maxTokens,
+    
+    @Schema(description = "Type of summary needed", example = "key_points")
+    String summaryType
+) {}
@@ -17,6 +17,6 @@ public record MessageRequest(
     @Schema(description = "Temperature for randomness (0.0 to 1.0)", example = "0.7")
     Double temperature,
     
-    @Schema(description = "Type of message to generate", example = "customer_response")
+    @Schema(description = "Message template to use, as listed by GET /api/v1/messages/templates; the default template when omitted or unknown", example = "apology")
     String messageType
 ) {} 
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.portfolio.summarize.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.portfolio.summarize.model.OpenAiResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Data of the final 'done' event of a stream")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StreamDone(
+    @Schema(description = "Prompt tokens, when the upstream reported usage for this stream", example = "412")
+    Integer promptTokens,
+
+    @Schema(description = "Completion tokens, when the upstream reported usage for this stream", example = "96")
+    Integer completionTokens,
+
+    @Schema(description = "Total tokens, when the upstream reported usage for this stream", example = "508")
+    Integer totalTokens
+) {
+    public static StreamDone of(OpenAiResponse.Usage usage) {
+        return usage != null
+                ? new StreamDone(usage.promptTokens(), usage.completionTokens(), usage.totalTokens())
+                : new StreamDone(null, null, null);
+    }
+}
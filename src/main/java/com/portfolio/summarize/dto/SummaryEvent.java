@@ -0,0 +1,36 @@
+package com.portfolio.summarize.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Progress event emitted while summarizing a long document")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SummaryEvent(
+    @Schema(description = "Event type: 'partial' for a finished chunk, 'summary' for final summary tokens, 'error' on failure", example = "partial")
+    String type,
+
+    @Schema(description = "1-based chunk number for partial events", example = "3")
+    Integer part,
+
+    @Schema(description = "Total number of chunks for partial events", example = "12")
+    Integer totalParts,
+
+    @Schema(description = "Partial summary text or a token of the final summary")
+    String content
+) {
+    public static final String PARTIAL = "partial";
+    public static final String SUMMARY = "summary";
+    public static final String ERROR = "error";
+
+    public static SummaryEvent partial(int part, int totalParts, String content) {
+        return new SummaryEvent(PARTIAL, part, totalParts, content);
+    }
+
+    public static SummaryEvent summary(String content) {
+        return new SummaryEvent(SUMMARY, null, null, content);
+    }
+
+    public static SummaryEvent error(String content) {
+        return new SummaryEvent(ERROR, null, null, content);
+    }
+}
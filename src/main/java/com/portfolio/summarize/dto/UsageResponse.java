@@ -0,0 +1,95 @@
+package com.portfolio.summarize.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.portfolio.summarize.service.usage.UsageBucket;
+import com.portfolio.summarize.service.usage.UsageReport;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+@Schema(description = "Token usage of the calling tenant over a time window")
+public record UsageResponse(
+    @Schema(description = "Tenant the usage belongs to", example = "acme")
+    String tenant,
+
+    @Schema(description = "Start of the window, inclusive")
+    Instant from,
+
+    @Schema(description = "End of the window, exclusive")
+    Instant to,
+
+    @Schema(description = "Length of each bucket as an ISO-8601 duration", example = "PT1H")
+    String step,
+
+    @Schema(description = "Totals over the window")
+    Totals total,
+
+    @Schema(description = "Usage per bucket, endpoint and model, oldest first")
+    List<Bucket> buckets,
+
+    @Schema(description = "Usage against the tenant's budget in the current period")
+    Budget budget
+) {
+    public record Totals(
+        @Schema(example = "24000") long promptTokens,
+        @Schema(example = "6000") long completionTokens,
+        @Schema(example = "30000") long totalTokens,
+        @Schema(description = "Upstream calls", example = "120") long requests
+    ) {}
+
+    public record Bucket(
+        @Schema(description = "Start of the bucket")
+        Instant start,
+
+        @Schema(description = "Endpoint the calls served: generate, summarize or converse", example = "summarize")
+        String endpoint,
+
+        @Schema(description = "Model that answered", example = "gpt-4")
+        String model,
+
+        long promptTokens,
+        long completionTokens,
+        long totalTokens,
+
+        @Schema(description = "Upstream calls")
+        long requests
+    ) {}
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Budget(
+        @Schema(description = "Start of the current budget period")
+        Instant periodStart,
+
+        @Schema(description = "End of the current budget period, when the budget resets")
+        Instant periodEnd,
+
+        @Schema(description = "Tokens used in the current period", example = "30000")
+        long usedTokens,
+
+        @Schema(description = "Tokens after which use is logged and counted; absent when unlimited", example = "80000")
+        Long softTokens,
+
+        @Schema(description = "Tokens after which calls are refused with 429; absent when unlimited", example = "100000")
+        Long hardTokens
+    ) {}
+
+    public static UsageResponse from(UsageReport report) {
+        long promptTokens = 0;
+        long completionTokens = 0;
+        long requests = 0;
+        for (UsageBucket bucket : report.buckets()) {
+            promptTokens += bucket.promptTokens();
+            completionTokens += bucket.completionTokens();
+            requests += bucket.requests();
+        }
+        UsageReport.Budget budget = report.budget();
+        return new UsageResponse(report.tenant(), report.from(), report.to(), report.step().toString(),
+                new Totals(promptTokens, completionTokens, promptTokens + completionTokens, requests),
+                report.buckets().stream()
+                        .map(bucket -> new Bucket(bucket.start(), bucket.endpoint(), bucket.model(), bucket.promptTokens(),
+                                bucket.completionTokens(), bucket.totalTokens(), bucket.requests()))
+                        .toList(),
+                new Budget(budget.periodStart(), budget.periodEnd(), budget.usedTokens(), budget.softTokens(), budget.hardTokens()));
+    }
+}
@@ -0,0 +1,16 @@
+package com.portfolio.summarize.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * Raised before dispatch when the tenant has used up its hard token budget for the current period.
+ * {@code retryAfter} is the time left until the period ends.
+ */
+public class BudgetExceededException extends ThrottledException {
+
+    public BudgetExceededException(String message, Duration retryAfter) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS, retryAfter);
+    }
+}
@@ -3,13 +3,16 @@ package com.portfolio.summarize.exception;
 import com.portfolio.summarize.dto.ApiResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -19,9 +22,17 @@ public class GlobalExceptionHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     
-    @ExceptionHandler(MethodArgumentNotValidException.class)
+    /**
+     * Whether an error signal has its own response here, such as a 400 for a prompt that does not fit the
+     * context window, so controllers should pass it on rather than answer with a generic 500
+     */
+    public static boolean isHandled(Throwable error) {
+        return error instanceof ThrottledException || error instanceof IllegalArgumentException;
+    }
+    
+    @ExceptionHandler(WebExchangeBindException.class)
     public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationExceptions(
-            MethodArgumentNotValidException ex) {
+            WebExchangeBindException ex) {
         
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach((error) -> {
@@ -36,6 +47,25 @@ public class GlobalExceptionHandler {
         );
     }
     
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ApiResponse<String>> handleServerWebInputException(ServerWebInputException ex) {
+        logger.warn("Unreadable request: {}", ex.getReason());
+        return ResponseEntity.badRequest().body(
+            ApiResponse.error("Malformed request body", "Invalid input parameters")
+        );
+    }
+    
+    /**
+     * Framework errors such as unsupported media types keep their own status instead of becoming a 500
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ApiResponse<String>> handleResponseStatusException(ResponseStatusException ex) {
+        logger.warn("Request rejected: {} - {}", ex.getStatusCode(), ex.getReason());
+        return ResponseEntity.status(ex.getStatusCode())
+            .headers(ex.getHeaders())
+            .body(ApiResponse.error(ex.getReason() != null ? ex.getReason() : "Request could not be processed"));
+    }
+    
     @ExceptionHandler(WebClientResponseException.class)
     public ResponseEntity<ApiResponse<String>> handleWebClientException(WebClientResponseException ex) {
         logger.error("OpenAI API error: {} - {}", ex.getStatusCode(), ex.getResponseBodyAsString());
@@ -47,11 +77,43 @@ public class GlobalExceptionHandler {
             default -> "External service error";
         };
         
+        if (ex.getStatusCode().value() == 429) {
+            String retryAfter = ex.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .headers(headers -> {
+                    if (retryAfter != null) {
+                        headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+                    }
+                })
+                .body(ApiResponse.error(errorMessage));
+        }
+        
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
             ApiResponse.error(errorMessage)
         );
     }
     
+    @ExceptionHandler(ThrottledException.class)
+    public ResponseEntity<ApiResponse<String>> handleThrottledException(ThrottledException ex) {
+        logger.warn("Request throttled: {}", ex.getMessage());
+        
+        if (ex.getStatus() == HttpStatus.GATEWAY_TIMEOUT) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(
+                ApiResponse.error("Request deadline exceeded")
+            );
+        }
+        
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        String errorMessage = ex instanceof BudgetExceededException
+            ? "Token budget for this period is exhausted. Please retry later"
+            : ex.getStatus() == HttpStatus.SERVICE_UNAVAILABLE
+            ? "AI service is temporarily unavailable. Please retry later"
+            : "Service is at capacity. Please retry later";
+        return ResponseEntity.status(ex.getStatus())
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(ApiResponse.error(errorMessage));
+    }
+    
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiResponse<String>> handleIllegalArgumentException(IllegalArgumentException ex) {
         logger.warn("Invalid argument: {}", ex.getMessage());
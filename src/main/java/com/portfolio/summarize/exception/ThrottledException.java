@@ -0,0 +1,41 @@
+package com.portfolio.summarize.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * Raised when a request is refused for capacity reasons, or runs out of the time its caller allowed,
+ * rather than because it is invalid. Carries the status to return and a hint for when the caller may retry.
+ */
+public class ThrottledException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final Duration retryAfter;
+
+    public ThrottledException(String message, HttpStatus status, Duration retryAfter) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public static ThrottledException tooManyRequests(String message, Duration retryAfter) {
+        return new ThrottledException(message, HttpStatus.TOO_MANY_REQUESTS, retryAfter);
+    }
+
+    public static ThrottledException unavailable(String message, Duration retryAfter) {
+        return new ThrottledException(message, HttpStatus.SERVICE_UNAVAILABLE, retryAfter);
+    }
+
+    public static ThrottledException deadlineExceeded(String message) {
+        return new ThrottledException(message, HttpStatus.GATEWAY_TIMEOUT, Duration.ZERO);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
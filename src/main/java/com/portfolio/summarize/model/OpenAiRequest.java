@@ -1,5 +1,7 @@
 package com.portfolio.summarize.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
@@ -9,10 +11,33 @@ public record OpenAiRequest(
     List<Message> messages,
     @JsonProperty("max_tokens") Integer maxTokens,
     Double temperature,
-    Boolean stream
+    Boolean stream,
+    @JsonProperty("stream_options") @JsonInclude(JsonInclude.Include.NON_NULL) StreamOptions streamOptions,
+    // Prompt tokens of the messages with the model's tokenizer, when counted; not sent upstream
+    @JsonIgnore Integer promptTokens
 ) {
+    private static final StreamOptions INCLUDE_USAGE = new StreamOptions(true);
+
+    /**
+     * Streamed requests ask for token usage in a final chunk
+     */
+    public OpenAiRequest(String model, List<Message> messages, Integer maxTokens, Double temperature, Boolean stream) {
+        this(model, messages, maxTokens, temperature, stream, Boolean.TRUE.equals(stream) ? INCLUDE_USAGE : null, null);
+    }
+
+    /**
+     * This request with its prompt already counted, so later steps do not tokenize the messages again
+     */
+    public OpenAiRequest withPromptTokens(int promptTokens) {
+        return new OpenAiRequest(model, messages, maxTokens, temperature, stream, streamOptions, promptTokens);
+    }
+
     public record Message(
         String role,
         String content
     ) {}
+
+    public record StreamOptions(
+        @JsonProperty("include_usage") Boolean includeUsage
+    ) {}
 } 
\ No newline at end of file
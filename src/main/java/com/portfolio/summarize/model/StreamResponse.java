@@ -9,7 +9,8 @@ public record StreamResponse(
     String object,
     Long created,
     String model,
-    List<StreamChoice> choices
+    List<StreamChoice> choices,
+    OpenAiResponse.Usage usage
 ) {
     public record StreamChoice(
         Integer index,
@@ -3,49 +3,102 @@ package com.portfolio.summarize.service;
 import com.portfolio.summarize.config.OpenAiProperties;
 import com.portfolio.summarize.model.OpenAiRequest;
 import com.portfolio.summarize.model.OpenAiResponse;
-import com.portfolio.summarize.model.StreamResponse;
+import com.portfolio.summarize.service.cache.CompletionCacheKeys;
+import com.portfolio.summarize.service.cache.CompletionCacheManager;
+import com.portfolio.summarize.service.cache.SemanticCompletionCache;
+import com.portfolio.summarize.service.coalescing.RequestCoalescer;
+import com.portfolio.summarize.service.compression.CompressedText;
+import com.portfolio.summarize.service.compression.InputCompressor;
+import com.portfolio.summarize.service.metrics.CompletionMetrics;
+import com.portfolio.summarize.service.ratelimit.UpstreamRateLimiter;
+import com.portfolio.summarize.service.resilience.UpstreamResilience;
+import com.portfolio.summarize.service.routing.ModelRoute;
+import com.portfolio.summarize.service.routing.ModelRouter;
+import com.portfolio.summarize.service.routing.UpstreamRouter;
+import com.portfolio.summarize.service.routing.UpstreamTarget;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import com.portfolio.summarize.service.scheduling.Deadlines;
+import com.portfolio.summarize.service.scheduling.RequestScheduler;
+import com.portfolio.summarize.service.stream.StreamChunkDecoder;
+import com.portfolio.summarize.service.stream.StreamUsage;
+import com.portfolio.summarize.service.templates.PromptTemplate;
+import com.portfolio.summarize.service.templates.PromptTemplates;
+import com.portfolio.summarize.service.tokens.TokenCounter;
+import com.portfolio.summarize.service.usage.UsageLedger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 public class OpenAiService {
     
     private static final Logger logger = LoggerFactory.getLogger(OpenAiService.class);
     
+    static final String ENDPOINT_GENERATE = "generate";
+    static final String ENDPOINT_SUMMARIZE = "summarize";
+    static final String ENDPOINT_CONVERSE = "converse";
+    
+    // Metric tags for the steps of long-document summarization
+    private static final String SUMMARY_TYPE_SECTION = "section";
+    private static final String SUMMARY_TYPE_MERGE = "merge";
+    private static final String SUMMARY_TYPE_CONVERSATION = "conversation";
+    
     private final WebClient webClient;
     private final OpenAiProperties properties;
+    private final TokenCounter tokenCounter;
+    private final PromptTemplates templates;
+    private final CompletionCacheManager completionCache;
+    private final SemanticCompletionCache semanticCache;
+    private final RequestCoalescer coalescer;
+    private final RequestScheduler scheduler;
+    private final UpstreamRouter router;
+    private final UpstreamResilience resilience;
+    private final CompletionMetrics metrics;
+    private final UsageLedger usageLedger;
+    private final InputCompressor compressor;
+    private final ModelRouter modelRouter;
     
-    public OpenAiService(WebClient openAiWebClient, OpenAiProperties properties) {
+    public OpenAiService(WebClient openAiWebClient, OpenAiProperties properties, TokenCounter tokenCounter,
+                         PromptTemplates templates, CompletionCacheManager completionCache, SemanticCompletionCache semanticCache,
+                         RequestCoalescer coalescer, RequestScheduler scheduler,
+                         UpstreamRouter router, UpstreamResilience resilience, CompletionMetrics metrics,
+                         UsageLedger usageLedger, InputCompressor compressor, ModelRouter modelRouter) {
         this.webClient = openAiWebClient;
         this.properties = properties;
+        this.tokenCounter = tokenCounter;
+        this.templates = templates;
+        this.completionCache = completionCache;
+        this.semanticCache = semanticCache;
+        this.coalescer = coalescer;
+        this.scheduler = scheduler;
+        this.router = router;
+        this.resilience = resilience;
+        this.metrics = metrics;
+        this.usageLedger = usageLedger;
+        this.compressor = compressor;
+        this.modelRouter = modelRouter;
     }
     
     /**
-     * Generate a message using OpenAI GPT-4 with non-streaming response
+     * Generate a message using OpenAI GPT-4 with non-streaming response; messageType selects the template
      */
-    public Mono<String> generateMessage(String prompt, Integer maxTokens, Double temperature) {
+    public Mono<String> generateMessage(String prompt, String messageType, Integer maxTokens, Double temperature) {
         logger.info("Generating message for prompt: {}", prompt.substring(0, Math.min(prompt.length(), 50)) + "...");
         
-        OpenAiRequest request = createRequest(prompt, maxTokens, temperature, false);
-        
-        return webClient.post()
-                .uri("/chat/completions")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(OpenAiResponse.class)
-                .map(response -> {
-                    if (response.choices() != null && !response.choices().isEmpty()) {
-                        return response.choices().get(0).message().content();
-                    }
-                    throw new RuntimeException("No response content from OpenAI");
-                })
+        return complete(ENDPOINT_GENERATE, null, messageType,
+                () -> createRequest(generationMessages(prompt, messageType), maxTokens, temperature, false), prompt)
                 .doOnSuccess(result -> logger.info("Message generated successfully"))
                 .doOnError(error -> logger.error("Error generating message: {}", error.getMessage()));
     }
@@ -53,105 +106,380 @@ public class OpenAiService {
     /**
      * Generate a message using OpenAI GPT-4 with streaming response
      */
-    public Flux<String> generateMessageStream(String prompt, Integer maxTokens, Double temperature) {
+    public Flux<String> generateMessageStream(String prompt, String messageType, Integer maxTokens, Double temperature) {
         logger.info("Generating streaming message for prompt: {}", prompt.substring(0, Math.min(prompt.length(), 50)) + "...");
         
-        OpenAiRequest request = createRequest(prompt, maxTokens, temperature, true);
-        
-        return webClient.post()
-                .uri("/chat/completions")
-                .bodyValue(request)
-                .accept(MediaType.TEXT_EVENT_STREAM)
-                .retrieve()
-                .bodyToFlux(String.class)
-                .filter(chunk -> !chunk.trim().isEmpty() && !chunk.equals("data: [DONE]"))
-                .map(chunk -> chunk.replace("data: ", ""))
-                .filter(chunk -> !chunk.trim().isEmpty())
-                .flatMap(this::parseStreamChunk)
+        return stream(ENDPOINT_GENERATE, null, messageType,
+                () -> createRequest(generationMessages(prompt, messageType), maxTokens, temperature, true))
                 .doOnComplete(() -> logger.info("Streaming message generation completed"))
                 .doOnError(error -> logger.error("Error in streaming message generation: {}", error.getMessage()));
     }
     
     /**
-     * Summarize text using OpenAI GPT-4
+     * Summarize text using OpenAI GPT-4, after compressing it locally
      */
     public Mono<String> summarizeText(String text, Integer maxTokens, String summaryType) {
-        logger.info("Summarizing text of length: {}", text.length());
+        CompressedText input = compressor.compress(text, InputCompressor.TEXT);
+        logger.info("Summarizing text of length: {}, compressed to {} ({}%)", text.length(), input.text().length(),
+                Math.round(input.ratio() * 100));
         
-        String prompt = createSummaryPrompt(text, summaryType);
-        return generateMessage(prompt, maxTokens, 0.3); // Lower temperature for more consistent summaries
+        // Lower temperature for more consistent summaries
+        return complete(ENDPOINT_SUMMARIZE, summaryType, null,
+                () -> createRequest(summaryMessages(input.text(), summaryType), maxTokens, 0.3, false), input.text())
+                .doOnSuccess(result -> logger.info("Text summarized successfully"))
+                .doOnError(error -> logger.error("Error summarizing text: {}", error.getMessage()));
     }
     
     /**
      * Summarize text using OpenAI GPT-4 with streaming
      */
     public Flux<String> summarizeTextStream(String text, Integer maxTokens, String summaryType) {
-        logger.info("Summarizing text with streaming, length: {}", text.length());
+        CompressedText input = compressor.compress(text, InputCompressor.TEXT);
+        logger.info("Summarizing text with streaming, length: {}, compressed to {} ({}%)", text.length(), input.text().length(),
+                Math.round(input.ratio() * 100));
+        
+        return stream(ENDPOINT_SUMMARIZE, summaryType, null, () -> createRequest(summaryMessages(input.text(), summaryType), maxTokens, 0.3, true))
+                .doOnComplete(() -> logger.info("Streaming summarization completed"))
+                .doOnError(error -> logger.error("Error in streaming summarization: {}", error.getMessage()));
+    }
+    
+    /**
+     * Summarize one part of a document that is too long for a single prompt
+     */
+    public Mono<String> summarizeSection(String section, int part, int totalParts, Integer maxTokens) {
+        logger.debug("Summarizing section {}/{} of length: {}", part, totalParts, section.length());
+        
+        List<OpenAiRequest.Message> messages = templates.getOrDefault(PromptTemplates.DOCUMENTS, SUMMARY_TYPE_SECTION)
+                .render(Map.of("part", String.valueOf(part), "total", String.valueOf(totalParts), "text", section));
+        return complete(ENDPOINT_SUMMARIZE, SUMMARY_TYPE_SECTION, () -> createRequest(messages, maxTokens, 0.3, false));
+    }
+    
+    /**
+     * Merge summaries of consecutive document parts; a null summaryType produces an intermediate merge
+     */
+    public Mono<String> mergeSummaries(List<String> partials, Integer maxTokens, String summaryType) {
+        return complete(ENDPOINT_SUMMARIZE, summaryType != null ? summaryType : SUMMARY_TYPE_MERGE,
+                () -> createRequest(mergeMessages(partials, summaryType), maxTokens, 0.3, false));
+    }
+    
+    /**
+     * Merge summaries of consecutive document parts with streaming
+     */
+    public Flux<String> mergeSummariesStream(List<String> partials, Integer maxTokens, String summaryType) {
+        return stream(ENDPOINT_SUMMARIZE, summaryType != null ? summaryType : SUMMARY_TYPE_MERGE, null,
+                () -> createRequest(mergeMessages(partials, summaryType), maxTokens, 0.3, true));
+    }
+    
+    private Mono<String> complete(String endpoint, String summaryType, Supplier<OpenAiRequest> request) {
+        return complete(endpoint, summaryType, null, request, null);
+    }
+    
+    /**
+     * Continue a conversation; {@code messages} holds the retained history followed by the new user prompt
+     */
+    public Mono<String> continueConversation(List<OpenAiRequest.Message> messages, Integer maxTokens, Double temperature) {
+        logger.info("Continuing conversation with {} messages", messages.size());
         
-        String prompt = createSummaryPrompt(text, summaryType);
-        return generateMessageStream(prompt, maxTokens, 0.3);
+        return complete(ENDPOINT_CONVERSE, null, () -> createRequest(messages, maxTokens, temperature, false))
+                .doOnError(error -> logger.error("Error continuing conversation: {}", error.getMessage()));
+    }
+    
+    /**
+     * Continue a conversation with streaming
+     */
+    public Flux<String> continueConversationStream(List<OpenAiRequest.Message> messages, Integer maxTokens, Double temperature) {
+        logger.info("Continuing conversation with streaming, {} messages", messages.size());
+        
+        return stream(ENDPOINT_CONVERSE, null, null, () -> createRequest(messages, maxTokens, temperature, true))
+                .doOnError(error -> logger.error("Error in streaming conversation: {}", error.getMessage()));
+    }
+    
+    /**
+     * Fold earlier conversation turns into a rolling summary
+     */
+    public Mono<String> summarizeConversation(String transcript, Integer maxTokens) {
+        List<OpenAiRequest.Message> messages = templates.getOrDefault(PromptTemplates.DOCUMENTS, SUMMARY_TYPE_CONVERSATION)
+                .render(Map.of("transcript", transcript));
+        return complete(ENDPOINT_SUMMARIZE, SUMMARY_TYPE_CONVERSATION, () -> createRequest(messages, maxTokens, 0.3, false));
+    }
+    
+    /**
+     * Resolve a non-streaming completion with the model its route selects, escalating to the configured
+     * model when a cascading route's answer fails validation. The request is built on subscription, so a
+     * prompt that does not fit the context window is an error signal rather than a throw.
+     */
+    private Mono<String> complete(String endpoint, String summaryType, String messageType, Supplier<OpenAiRequest> requests,
+                                  String input) {
+        return Mono.deferContextual(context -> {
+            OpenAiRequest request = requests.get();
+            int promptTokens = promptTokens(request);
+            ModelRoute route = modelRouter.route(endpoint, summaryType, messageType, promptTokens, ClientContext.from(context), false);
+            OpenAiRequest routed = forModel(request, route.model());
+            return modelRouter.complete(route.withModel(routed.model()), completeWith(endpoint, summaryType, routed, input),
+                    Mono.defer(() -> completeWith(endpoint, summaryType, request, input)),
+                    summaryType, ENDPOINT_SUMMARIZE.equals(endpoint) ? input : null);
+        });
+    }
+    
+    /**
+     * Resolve a non-streaming completion, consulting the completion cache first, then the semantic
+     * cache for a near-duplicate of {@code input} when one is given and the request may be cached at all, and joining the same tenant's identical
+     * in-flight upstream call if there is one. Only calls that actually go upstream are checked against the
+     * tenant's token budget and wait for a scheduler slot.
+     */
+    private Mono<String> completeWith(String endpoint, String summaryType, OpenAiRequest request, String input) {
+        CompletionMetrics.Operation operation = new CompletionMetrics.Operation(endpoint, summaryTag(summaryType), request.model());
+        String key = CompletionCacheKeys.of(request);
+        Mono<String> upstream = coalescer.coalesce(key, () -> usageLedger.admit().then(scheduler.schedule(
+                () -> resilience.call(() -> callCompletion(operation, request)))));
+        if (input != null && completionCache.isCacheable(endpoint, request)) {
+            upstream = semanticCache.getOrCompute(endpoint, summaryType, request, input, upstream);
+        }
+        return metrics.observe(operation, Deadlines.enforce(completionCache.getOrCompute(endpoint, request, key, upstream)));
+    }
+    
+    /**
+     * Stream a completion with the model its route selects, building the request on subscription
+     */
+    private Flux<String> stream(String endpoint, String summaryType, String messageType, Supplier<OpenAiRequest> requests) {
+        return Flux.deferContextual(context -> {
+            OpenAiRequest request = requests.get();
+            int promptTokens = promptTokens(request);
+            ModelRoute route = modelRouter.route(endpoint, summaryType, messageType, promptTokens, ClientContext.from(context), true);
+            OpenAiRequest routed = forModel(request, route.model());
+            return modelRouter.stream(route.withModel(routed.model()), streamWith(endpoint, summaryType, routed));
+        });
+    }
+    
+    /**
+     * Stream a completion, joining the same tenant's identical in-flight stream if there is one
+     */
+    private Flux<String> streamWith(String endpoint, String summaryType, OpenAiRequest request) {
+        CompletionMetrics.Operation operation = new CompletionMetrics.Operation(endpoint, summaryTag(summaryType), request.model());
+        return metrics.observeStream(operation, Deadlines.enforce(coalescer.coalesceStream(CompletionCacheKeys.of(request),
+                () -> usageLedger.admit().thenMany(scheduler.scheduleStream(
+                        () -> resilience.stream(() -> callCompletionStream(operation, request)))))));
+    }
+    
+    /**
+     * One upstream attempt: target selection, circuit check, quota admission, then the HTTP call
+     */
+    private Mono<String> callCompletion(CompletionMetrics.Operation operation, OpenAiRequest request) {
+        int promptTokens = promptTokens(request);
+        int estimatedTokens = estimateTokens(request);
+        return Mono.deferContextual(context -> {
+            String tenant = ClientContext.from(context).tenant();
+            UpstreamTarget target = router.select(estimatedTokens);
+            UpstreamRateLimiter rateLimiter = target.getRateLimiter();
+            OpenAiRequest adapted = target.adapt(request, properties.model());
+            return target.run(rateLimiter.acquire(estimatedTokens)
+                    .flatMap(permit -> metrics.trackAbandoned(operation, target.getName(), promptTokens,
+                                    metrics.timeUpstream(operation, target.getName(), webClient.post()
+                                            .uri(target.getCompletionsUri())
+                                            .headers(target::authorize)
+                                            .bodyValue(adapted)
+                                            .retrieve()
+                                            .toEntity(OpenAiResponse.class)))
+                            .doOnNext(entity -> {
+                                rateLimiter.updateFromHeaders(entity.getHeaders());
+                                OpenAiResponse.Usage usage = entity.getBody() != null ? entity.getBody().usage() : null;
+                                metrics.recordUsage(operation, usage);
+                                chargeUsage(tenant, operation, adapted.model(), usage, promptTokens,
+                                        usage == null ? completionTokens(adapted.model(), entity.getBody()) : 0);
+                                permit.reconcile(usage != null && usage.totalTokens() != null ? usage.totalTokens() : estimatedTokens);
+                            })
+                            .doOnCancel(() -> chargeUsage(tenant, operation, adapted.model(), null, promptTokens, 0))
+                            .doOnError(WebClientResponseException.TooManyRequests.class,
+                                    error -> rateLimiter.onRateLimited(error.getHeaders()))));
+        }).map(entity -> {
+            OpenAiResponse response = entity.getBody();
+            if (response != null && response.choices() != null && !response.choices().isEmpty()) {
+                return response.choices().get(0).message().content();
+            }
+            throw new RuntimeException("No response content from OpenAI");
+        });
+    }
+    
+    private Flux<String> callCompletionStream(CompletionMetrics.Operation operation, OpenAiRequest request) {
+        int promptTokens = promptTokens(request);
+        int estimatedTokens = estimateTokens(request);
+        return Flux.deferContextual(context -> {
+            String tenant = ClientContext.from(context).tenant();
+            StreamUsage streamUsage = context.getOrDefault(StreamUsage.class, null);
+            UpstreamTarget target = router.select(estimatedTokens);
+            UpstreamRateLimiter rateLimiter = target.getRateLimiter();
+            OpenAiRequest adapted = target.adapt(request, properties.model());
+            // Usage arrives in the last chunk when the upstream supports it; otherwise each content chunk counts as a token,
+            // for the tenant's charge and to return the unused part of the quota reservation
+            boolean[] charged = new boolean[1];
+            int[] contentChunks = new int[1];
+            return target.runStream(rateLimiter.acquire(estimatedTokens)
+                    .flatMapMany(permit -> metrics.trackAbandoned(operation, target.getName(), promptTokens,
+                            metrics.timeUpstream(operation, target.getName(), webClient.post()
+                                            .uri(target.getCompletionsUri())
+                                            .headers(target::authorize)
+                                            .bodyValue(adapted)
+                                            .accept(MediaType.TEXT_EVENT_STREAM)
+                                            .retrieve()
+                                            .toEntityFlux(DataBuffer.class))
+                                    .doOnError(WebClientResponseException.TooManyRequests.class,
+                                            error -> rateLimiter.onRateLimited(error.getHeaders()))
+                                    .flatMapMany(entity -> {
+                                        rateLimiter.updateFromHeaders(entity.getHeaders());
+                                        return entity.getBody();
+                                    })
+                                    .transform(StreamChunkDecoder::decode)
+                                    .<String>handle((chunk, sink) -> {
+                                        if (chunk.usage() != null) {
+                                            metrics.recordUsage(operation, chunk.usage());
+                                            chargeUsage(tenant, operation, adapted.model(), chunk.usage(), promptTokens, contentChunks[0]);
+                                            charged[0] = true;
+                                            if (chunk.usage().totalTokens() != null) {
+                                                permit.reconcile(chunk.usage().totalTokens());
+                                            }
+                                            if (streamUsage != null) {
+                                                streamUsage.set(chunk.usage());
+                                            }
+                                        }
+                                        String content = StreamChunkDecoder.contentOf(chunk);
+                                        if (content != null && !content.isEmpty()) {
+                                            contentChunks[0]++;
+                                            sink.next(content);
+                                        }
+                                    })
+                                    .doFinally(signal -> {
+                                        if (!charged[0] && signal != SignalType.ON_ERROR) {
+                                            chargeUsage(tenant, operation, adapted.model(), null, promptTokens, contentChunks[0]);
+                                        }
+                                        // No-op once reconciled with reported usage
+                                        permit.reconcile(promptTokens + contentChunks[0]);
+                                    }))));
+        });
+    }
+    
+    /**
+     * Charge the tenant for one upstream call with the reported usage, or with the counted prompt and
+     * {@code completionEstimate} for what the upstream did not report. Cancelled calls are charged their
+     * prompt, which the upstream has already been sent.
+     */
+    private void chargeUsage(String tenant, CompletionMetrics.Operation operation, String model, OpenAiResponse.Usage usage,
+                             int promptTokens, int completionEstimate) {
+        usageLedger.record(tenant, operation.endpoint(), model,
+                usage != null && usage.promptTokens() != null ? usage.promptTokens() : promptTokens,
+                usage != null && usage.completionTokens() != null ? usage.completionTokens() : completionEstimate);
+    }
+    
+    private int completionTokens(String model, OpenAiResponse response) {
+        if (response == null || response.choices() == null || response.choices().isEmpty()
+                || response.choices().get(0).message() == null || response.choices().get(0).message().content() == null) {
+            return 0;
+        }
+        return tokenCounter.count(model, response.choices().get(0).message().content());
+    }
+    
+    /**
+     * Upper bound of the quota a request consumes: prompt tokens plus the completion allowance
+     */
+    private int estimateTokens(OpenAiRequest request) {
+        return promptTokens(request) + (request.maxTokens() != null ? request.maxTokens() : 0);
     }
     
-    private OpenAiRequest createRequest(String prompt, Integer maxTokens, Double temperature, boolean stream) {
-        List<OpenAiRequest.Message> messages = List.of(
-                new OpenAiRequest.Message("user", prompt)
-        );
+    private int promptTokens(OpenAiRequest request) {
+        // Counted once when the request was built; each count of an uncounted request hashes every message
+        return request.promptTokens() != null ? request.promptTokens() : tokenCounter.countPrompt(request.model(), request.messages());
+    }
+    
+    OpenAiRequest createRequest(String prompt, Integer maxTokens, Double temperature, boolean stream) {
+        return createRequest(List.of(new OpenAiRequest.Message("user", prompt)), maxTokens, temperature, stream);
+    }
+    
+    /**
+     * Build a request whose completion allowance fits the model's context window.
+     * Rejects prompts that leave less than the minimum completion budget.
+     */
+    OpenAiRequest createRequest(List<OpenAiRequest.Message> messages, Integer maxTokens, Double temperature, boolean stream) {
+        String model = properties.model();
+        int promptTokens = tokenCounter.countPrompt(model, messages);
+        int contextWindow = tokenCounter.contextWindow(model);
+        int available = contextWindow - promptTokens;
+        if (available < tokenCounter.minCompletionTokens()) {
+            throw new IllegalArgumentException("Prompt of " + promptTokens + " tokens does not fit the "
+                    + contextWindow + " token context window of " + model);
+        }
+        int requested = maxTokens != null ? maxTokens : properties.maxTokens();
+        if (requested > available) {
+            logger.debug("Clamping max_tokens from {} to {} for a prompt of {} tokens", requested, available, promptTokens);
+        }
         
         return new OpenAiRequest(
-                properties.model(),
+                model,
                 messages,
-                maxTokens != null ? maxTokens : properties.maxTokens(),
+                Math.min(requested, available),
                 temperature != null ? temperature : properties.temperature(),
                 stream
-        );
+        ).withPromptTokens(promptTokens);
     }
     
-    private String createSummaryPrompt(String text, String summaryType) {
-        String basePrompt = "Please summarize the following text";
-        
-        if (summaryType != null) {
-            basePrompt += switch (summaryType.toLowerCase()) {
-                case "bullet_points" -> " in bullet points";
-                case "brief" -> " in a brief paragraph";
-                case "detailed" -> " with detailed analysis";
-                case "key_points" -> " highlighting key points";
-                default -> "";
-            };
+    /**
+     * {@code request} for another model, with max_tokens clamped to that model's context window; unchanged
+     * when the prompt does not fit that window, as it was already validated against the configured model
+     */
+    OpenAiRequest forModel(OpenAiRequest request, String model) {
+        if (model.equals(request.model())) {
+            return request;
         }
-        
-        return basePrompt + ":\n\n" + text;
-    }
-    
-    private Flux<String> parseStreamChunk(String chunk) {
-        try {
-            // Parse the streaming response chunk
-            // This is a simplified parser - in production, you'd want more robust JSON parsing
-            if (chunk.contains("\"content\":")) {
-                String content = extractContentFromChunk(chunk);
-                if (content != null && !content.isEmpty()) {
-                    return Flux.just(content);
-                }
-            }
-            return Flux.empty();
-        } catch (Exception e) {
-            logger.warn("Error parsing stream chunk: {}", e.getMessage());
-            return Flux.empty();
+        int promptTokens = tokenCounter.countPrompt(model, request.messages());
+        int available = tokenCounter.contextWindow(model) - promptTokens;
+        if (available < tokenCounter.minCompletionTokens()) {
+            logger.debug("Prompt does not fit the context window of {}, keeping {}", model, request.model());
+            return request;
         }
+        return new OpenAiRequest(model, request.messages(), Math.min(request.maxTokens(), available), request.temperature(),
+                request.stream()).withPromptTokens(promptTokens);
     }
     
-    private String extractContentFromChunk(String chunk) {
-        try {
-            // Simple content extraction - in production use proper JSON parsing
-            int startIndex = chunk.indexOf("\"content\":\"") + 11;
-            int endIndex = chunk.indexOf("\"", startIndex);
-            if (startIndex > 10 && endIndex > startIndex) {
-                return chunk.substring(startIndex, endIndex)
-                        .replace("\\n", "\n")
-                        .replace("\\\"", "\"");
+    /**
+     * The summary type as a metric tag: the name of the template it resolved to, or one of the long-document
+     * steps, so that arbitrary values sent by callers do not each create a meter series
+     */
+    String summaryTag(String summaryType) {
+        if (summaryType == null || SUMMARY_TYPE_SECTION.equals(summaryType) || SUMMARY_TYPE_MERGE.equals(summaryType)
+                || SUMMARY_TYPE_CONVERSATION.equals(summaryType)) {
+            return summaryType;
+        }
+        return templates.getOrDefault(PromptTemplates.SUMMARIES, summaryType).name();
+    }
+    
+    List<OpenAiRequest.Message> generationMessages(String prompt, String messageType) {
+        return templates.getOrDefault(PromptTemplates.MESSAGES, messageType).render(Map.of("prompt", prompt));
+    }
+    
+    List<OpenAiRequest.Message> summaryMessages(String text, String summaryType) {
+        return templates.getOrDefault(PromptTemplates.SUMMARIES, summaryType).render(Map.of("text", text));
+    }
+    
+    /**
+     * The merge instructions and the summary type's instructions as system messages, then the numbered parts
+     */
+    private List<OpenAiRequest.Message> mergeMessages(List<String> partials, String summaryType) {
+        int length = 0;
+        for (String partial : partials) {
+            length += partial.length() + 16;
+        }
+        StringBuilder parts = new StringBuilder(length);
+        for (int i = 0; i < partials.size(); i++) {
+            if (i > 0) {
+                parts.append("\n\n");
             }
-        } catch (Exception e) {
-            logger.debug("Could not extract content from chunk: {}", chunk);
+            parts.append("Part ").append(i + 1).append(":\n").append(partials.get(i));
+        }
+        List<OpenAiRequest.Message> messages = new ArrayList<>(3);
+        messages.addAll(templates.getOrDefault(PromptTemplates.DOCUMENTS, SUMMARY_TYPE_MERGE)
+                .render(Map.of("parts", parts.toString())));
+        PromptTemplate summary = templates.getOrDefault(PromptTemplates.SUMMARIES, summaryType);
+        if (summary.system() != null) {
+            messages.add(messages.size() - 1, new OpenAiRequest.Message("system", summary.system().render(Map.of())));
         }
-        return null;
+        return messages;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.portfolio.summarize.service.batch;
+
+import com.portfolio.summarize.config.BatchProperties;
+import com.portfolio.summarize.dto.BatchSummarizeItem;
+import com.portfolio.summarize.dto.BatchSummarizeResult;
+import com.portfolio.summarize.service.OpenAiService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Runs bulk summarization with a fixed concurrency limit. Input is pulled lazily, so at most
+ * {@code openai.batch.concurrency} items are in flight and the request body is only read as fast
+ * as upstream capacity frees up. Results are emitted in completion order; a failing item produces
+ * an error result and does not abort the batch.
+ */
+@Service
+public class BatchSummarizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchSummarizer.class);
+
+    private final OpenAiService openAiService;
+    private final BatchProperties properties;
+    private final Validator validator;
+
+    public BatchSummarizer(OpenAiService openAiService, BatchProperties properties, Validator validator) {
+        this.openAiService = openAiService;
+        this.properties = properties;
+        this.validator = validator;
+    }
+
+    public Flux<BatchSummarizeResult> summarize(Flux<BatchSummarizeItem> items) {
+        AtomicLong received = new AtomicLong();
+        return items
+                .doOnNext(item -> {
+                    if (received.incrementAndGet() > properties.maxItems()) {
+                        throw new IllegalArgumentException("Batch cannot exceed " + properties.maxItems() + " items");
+                    }
+                })
+                .flatMap(this::summarizeItem, properties.concurrency())
+                .doOnComplete(() -> logger.info("Batch summarization completed for {} items", received.get()));
+    }
+
+    private Mono<BatchSummarizeResult> summarizeItem(BatchSummarizeItem item) {
+        Set<ConstraintViolation<BatchSummarizeItem>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            String error = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return Mono.just(BatchSummarizeResult.error(item.id(), error));
+        }
+
+        // Deferred so that nothing one item does can end the batch; a prompt that is too long is reported as such
+        return Mono.defer(() -> openAiService.summarizeText(item.text(), item.maxTokens(), item.summaryType()))
+                .map(summary -> BatchSummarizeResult.success(item.id(), summary))
+                .onErrorResume(error -> {
+                    logger.warn("Batch item {} failed: {}", item.id(), error.getMessage());
+                    return Mono.just(BatchSummarizeResult.error(item.id(),
+                            error instanceof IllegalArgumentException ? error.getMessage() : "Failed to summarize text"));
+                });
+    }
+}
@@ -0,0 +1,31 @@
+package com.portfolio.summarize.service.cache;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Storage tier for completed chat responses, keyed by {@link CompletionCacheKeys#of}.
+ * Implementations must be thread-safe and must never fail a lookup: errors are treated as misses.
+ */
+public interface CompletionCache {
+
+    CompletionCache NONE = new CompletionCache() {
+        @Override
+        public Mono<String> get(String key) {
+            return Mono.empty();
+        }
+
+        @Override
+        public void put(String key, String completion) {
+        }
+    };
+
+    /**
+     * Look up a cached completion, completing empty on a miss
+     */
+    Mono<String> get(String key);
+
+    /**
+     * Store a completion; may return before the entry is durable
+     */
+    void put(String key, String completion);
+}
@@ -0,0 +1,47 @@
+package com.portfolio.summarize.service.cache;
+
+import com.portfolio.summarize.model.OpenAiRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class CompletionCacheKeys {
+
+    private static final byte SEPARATOR = 0;
+
+    private CompletionCacheKeys() {
+    }
+
+    /**
+     * SHA-256 over everything that influences the completion: model, messages, max_tokens and temperature.
+     * The stream flag is deliberately excluded so that streamed and non-streamed calls share a key.
+     */
+    public static String of(OpenAiRequest request) {
+        MessageDigest digest = sha256();
+        update(digest, request.model());
+        for (OpenAiRequest.Message message : request.messages()) {
+            update(digest, message.role());
+            update(digest, message.content());
+        }
+        update(digest, String.valueOf(request.maxTokens()));
+        update(digest, String.valueOf(request.temperature()));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(SEPARATOR);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
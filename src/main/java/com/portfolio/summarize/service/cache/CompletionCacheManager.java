@@ -0,0 +1,53 @@
+package com.portfolio.summarize.service.cache;
+
+import com.portfolio.summarize.config.CompletionCacheProperties;
+import com.portfolio.summarize.model.OpenAiRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Applies the caching policy (global switch, per-endpoint opt-out, temperature ceiling)
+ * in front of the configured {@link CompletionCache}.
+ */
+@Component
+public class CompletionCacheManager {
+
+    public static final String METRIC_CACHE_NAME = "openai.completions";
+
+    private final CompletionCache cache;
+    private final CompletionCacheProperties properties;
+
+    public CompletionCacheManager(CompletionCache cache, CompletionCacheProperties properties) {
+        this.cache = cache;
+        this.properties = properties;
+    }
+
+    /**
+     * Completions sampled above {@code openai.cache.max-temperature} are not cached; the default covers summaries
+     */
+    public boolean isCacheable(String endpoint, OpenAiRequest request) {
+        if (!properties.isEnabledFor(endpoint)) {
+            return false;
+        }
+        Double temperature = request.temperature();
+        return temperature == null || temperature <= properties.maxTemperature();
+    }
+
+    /**
+     * Return the cached completion for {@code request}, or subscribe to {@code upstream} and cache its result
+     */
+    public Mono<String> getOrCompute(String endpoint, OpenAiRequest request, Mono<String> upstream) {
+        return getOrCompute(endpoint, request, CompletionCacheKeys.of(request), upstream);
+    }
+
+    /**
+     * Variant for callers that already computed {@link CompletionCacheKeys#of} for the request
+     */
+    public Mono<String> getOrCompute(String endpoint, OpenAiRequest request, String key, Mono<String> upstream) {
+        if (!isCacheable(endpoint, request)) {
+            return upstream;
+        }
+        return cache.get(key)
+                .switchIfEmpty(Mono.defer(() -> upstream.doOnNext(completion -> cache.put(key, completion))));
+    }
+}
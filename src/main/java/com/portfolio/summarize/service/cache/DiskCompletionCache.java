@@ -0,0 +1,194 @@
+package com.portfolio.summarize.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Local on-disk tier storing one file per key. Entries are evicted oldest-first once {@code maxEntries}
+ * is exceeded, and lazily when read after their TTL. All file I/O runs on the bounded-elastic scheduler.
+ */
+public class DiskCompletionCache implements CompletionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskCompletionCache.class);
+    private static final String SUFFIX = ".txt";
+
+    private final Path directory;
+    private final int maxEntries;
+    private final Duration ttl;
+
+    // Insertion-ordered index of key -> write time (millis); guarded by itself
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public DiskCompletionCache(Path directory, int maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        loadIndex();
+
+        String cacheName = CompletionCacheManager.METRIC_CACHE_NAME;
+        this.hits = Counter.builder("cache.gets").tags("cache", cacheName, "tier", "disk", "result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tags("cache", cacheName, "tier", "disk", "result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tags("cache", cacheName, "tier", "disk")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", index, i -> {
+                    synchronized (i) {
+                        return i.size();
+                    }
+                })
+                .tags("cache", cacheName, "tier", "disk")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<String> get(String key) {
+        return Mono.fromCallable(() -> read(key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(error -> {
+                    logger.warn("Disk cache read failed for {}: {}", key, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public void put(String key, String completion) {
+        Mono.fromRunnable(() -> write(key, completion))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(null, error -> logger.warn("Disk cache write failed for {}: {}", key, error.getMessage()));
+    }
+
+    private String read(String key) throws IOException {
+        Long writtenAt;
+        synchronized (index) {
+            writtenAt = index.get(key);
+        }
+        if (writtenAt == null) {
+            misses.increment();
+            return null;
+        }
+        if (isExpired(writtenAt)) {
+            remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            synchronized (index) {
+                index.remove(key);
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private void write(String key, String completion) {
+        try {
+            Path target = fileFor(key);
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.writeString(temp, completion, StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        String eldest = null;
+        synchronized (index) {
+            index.remove(key);
+            index.put(key, System.currentTimeMillis());
+            if (index.size() > maxEntries) {
+                Iterator<String> it = index.keySet().iterator();
+                eldest = it.next();
+                it.remove();
+            }
+        }
+        if (eldest != null) {
+            deleteQuietly(fileFor(eldest));
+            evictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (index) {
+            index.remove(key);
+        }
+        deleteQuietly(fileFor(key));
+    }
+
+    private boolean isExpired(long writtenAt) {
+        return System.currentTimeMillis() - writtenAt > ttl.toMillis();
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private void loadIndex() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                        .sorted(Comparator.comparing(DiskCompletionCache::lastModified))
+                        .forEach(file -> {
+                            String name = file.getFileName().toString();
+                            index.put(name.substring(0, name.length() - SUFFIX.length()), lastModified(file).toMillis());
+                        });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot initialise completion cache directory " + directory, e);
+        }
+
+        // Apply TTL and size bounds to whatever survived the last run
+        Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (isExpired(entry.getValue()) || index.size() > maxEntries) {
+                deleteQuietly(fileFor(entry.getKey()));
+                it.remove();
+            }
+        }
+        logger.info("Disk completion cache at {} loaded with {} entries", directory, index.size());
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Could not delete cache file {}: {}", file, e.getMessage());
+        }
+    }
+}
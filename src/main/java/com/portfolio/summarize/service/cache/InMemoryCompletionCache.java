@@ -0,0 +1,36 @@
+package com.portfolio.summarize.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Size- and TTL-bounded in-process tier backed by Caffeine
+ */
+public class InMemoryCompletionCache implements CompletionCache {
+
+    private final Cache<String, String> cache;
+
+    public InMemoryCompletionCache(long maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CompletionCacheManager.METRIC_CACHE_NAME, "tier", "memory");
+    }
+
+    @Override
+    public Mono<String> get(String key) {
+        return Mono.justOrEmpty(cache.getIfPresent(key));
+    }
+
+    @Override
+    public void put(String key, String completion) {
+        cache.put(key, completion);
+    }
+}
@@ -0,0 +1,120 @@
+package com.portfolio.summarize.service.cache;
+
+import java.util.Arrays;
+
+/**
+ * Local text embedding for near-duplicate detection: a MinHash signature over word shingles whose
+ * agreement estimates the Jaccard similarity of the two shingle sets.
+ * <p>
+ * Text is lowercased and every run of digits is folded to one placeholder, so inputs that differ
+ * only in order numbers, dates or amounts get the same shingles. Signatures use one-permutation
+ * hashing: each shingle is hashed once into one of the signature slots, and empty slots borrow
+ * from their next non-empty neighbour, which keeps the cost linear in the text length.
+ */
+public final class MinHashSignature {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int EMPTY_SLOT_OFFSET = 0x9e3779b9;
+
+    private MinHashSignature() {
+    }
+
+    /**
+     * Signature with {@code size} slots over {@code shingleWords}-word shingles, or null when the text has no words
+     */
+    public static int[] of(CharSequence text, int size, int shingleWords) {
+        long[] words = wordHashes(text);
+        if (words.length == 0) {
+            return null;
+        }
+        int width = Math.min(shingleWords, words.length);
+        long[] minima = new long[size];
+        Arrays.fill(minima, Long.MAX_VALUE);
+        for (int i = 0; i + width <= words.length; i++) {
+            long shingle = words[i];
+            for (int j = 1; j < width; j++) {
+                shingle = shingle * FNV_PRIME ^ words[i + j];
+            }
+            shingle = mix(shingle);
+            int slot = (int) (((shingle >>> 32) * size) >>> 32);
+            long value = shingle & 0xffffffffL;
+            if (value < minima[slot]) {
+                minima[slot] = value;
+            }
+        }
+        return densify(minima);
+    }
+
+    /**
+     * Estimated Jaccard similarity: the fraction of slots on which both signatures agree
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    private static int[] densify(long[] minima) {
+        int size = minima.length;
+        int[] signature = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            int distance = 0;
+            int source = slot;
+            while (minima[source] == Long.MAX_VALUE) {
+                source = (source + 1) % size;
+                distance++;
+            }
+            signature[slot] = (int) minima[source] + distance * EMPTY_SLOT_OFFSET;
+        }
+        return signature;
+    }
+
+    private static long[] wordHashes(CharSequence text) {
+        long[] hashes = new long[16];
+        int count = 0;
+        long hash = FNV_OFFSET;
+        boolean inWord = false;
+        boolean inNumber = false;
+        for (int i = 0, length = text.length(); i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (Character.isDigit(c)) {
+                    if (inNumber) {
+                        continue;
+                    }
+                    inNumber = true;
+                    c = '0';
+                } else {
+                    inNumber = false;
+                    c = Character.toLowerCase(c);
+                }
+                hash = (hash ^ c) * FNV_PRIME;
+                inWord = true;
+            } else if (inWord) {
+                if (count == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, count * 2);
+                }
+                hashes[count++] = hash;
+                hash = FNV_OFFSET;
+                inWord = false;
+                inNumber = false;
+            }
+        }
+        return Arrays.copyOf(hashes, count);
+    }
+
+    // MurmurHash3 finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53a85f3L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,201 @@
+package com.portfolio.summarize.service.cache;
+
+import com.portfolio.summarize.config.CompletionCacheProperties;
+import com.portfolio.summarize.model.OpenAiRequest;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import com.portfolio.summarize.service.scheduling.RequestPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reuses the completion of a near-duplicate earlier input, such as the same complaint with a different
+ * order number, where the exact-key {@link CompletionCacheManager} misses.
+ * <p>
+ * Inputs are embedded as {@link MinHashSignature}s and looked up in a bounded {@link SemanticIndex}
+ * scoped by tenant, endpoint, summary type, model, max_tokens, temperature and the instructions in earlier
+ * messages, so a completion is never served to a tenant other than the one whose input produced it. A hit needs the similarity threshold of its summary type, and is refused when the cached
+ * completion repeats a number from its own input that the new input does not contain. A sample of
+ * hits is audited by also calling upstream at batch priority and comparing the two completions;
+ * disagreeing entries are dropped.
+ */
+@Component
+public class SemanticCompletionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SemanticCompletionCache.class);
+
+    private static final Pattern NUMBER = Pattern.compile("\\d+(?:[.,]\\d+)*");
+    // Completions are compared on single words: wording differs between runs far more than content
+    private static final int AUDIT_SHINGLE_WORDS = 1;
+
+    private final CompletionCacheProperties.Semantic properties;
+    private final SemanticIndex index;
+    private final LongSupplier nanoClock;
+    private final DoubleSupplier random;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejected;
+    private final Counter auditsConfirmed;
+    private final Counter auditsFalseHit;
+    private final DistributionSummary similarity;
+
+    @Autowired
+    public SemanticCompletionCache(CompletionCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties.semantic(), meterRegistry, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    SemanticCompletionCache(CompletionCacheProperties.Semantic properties, MeterRegistry meterRegistry,
+                            LongSupplier nanoClock, DoubleSupplier random) {
+        this.properties = properties;
+        this.index = new SemanticIndex(properties.maxEntries(), properties.maxMemory().toBytes());
+        this.nanoClock = nanoClock;
+        this.random = random;
+
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.rejected = requests(meterRegistry, "rejected");
+        this.auditsConfirmed = audits(meterRegistry, "confirmed");
+        this.auditsFalseHit = audits(meterRegistry, "false_hit");
+        this.similarity = DistributionSummary.builder("openai.cache.semantic.similarity")
+                .description("Estimated input similarity of semantic cache hits")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+        Gauge.builder("openai.cache.semantic.entries", this, cache -> cache.read(SemanticIndex::size))
+                .description("Entries in the semantic cache index")
+                .register(meterRegistry);
+        Gauge.builder("openai.cache.semantic.memory", this, cache -> cache.read(SemanticIndex::estimatedBytes))
+                .description("Estimated heap used by the semantic cache index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return the completion of a similar earlier {@code text}, or subscribe to {@code upstream} and index its result
+     */
+    public Mono<String> getOrCompute(String endpoint, String summaryType, OpenAiRequest request, String text,
+                                     Mono<String> upstream) {
+        if (!properties.enabled()) {
+            return upstream;
+        }
+        return Mono.deferContextual(context -> {
+            int[] signature = MinHashSignature.of(text, SemanticIndex.SIGNATURE_SIZE, properties.shingleWords());
+            if (signature == null) {
+                return upstream;
+            }
+            String tenant = ClientContext.from(context).tenant();
+            String scope = scope(tenant, endpoint, summaryType, request);
+            double threshold = properties.thresholdFor(summaryType != null ? summaryType : endpoint);
+            SemanticIndex.Match match;
+            synchronized (index) {
+                match = index.find(scope, signature, threshold, nanoClock.getAsLong());
+            }
+            if (match == null) {
+                misses.increment();
+                return store(upstream, scope, signature, text);
+            }
+            if (!numbers(text).containsAll(match.entry().sourceNumbers)) {
+                rejected.increment();
+                return store(upstream, scope, signature, text);
+            }
+            hits.increment();
+            similarity.record(match.similarity());
+            if (random.getAsDouble() < properties.auditRate()) {
+                audit(match.entry(), upstream, tenant);
+            }
+            return Mono.just(match.entry().completion);
+        });
+    }
+
+    private Mono<String> store(Mono<String> upstream, String scope, int[] signature, String text) {
+        return upstream.doOnNext(completion -> {
+            // Only numbers the completion copied from its input can be wrong for a near-duplicate
+            Set<String> copied = numbers(completion);
+            copied.retainAll(numbers(text));
+            synchronized (index) {
+                index.put(scope, signature, completion, Set.copyOf(copied),
+                        nanoClock.getAsLong() + properties.ttl().toNanos());
+            }
+        });
+    }
+
+    /**
+     * Compare a served hit with a fresh completion in the background and drop the entry if they disagree
+     */
+    private void audit(SemanticIndex.Entry entry, Mono<String> upstream, String tenant) {
+        upstream.contextWrite(new ClientContext(tenant, RequestPriority.BATCH, null)::addTo)
+                .subscribe(fresh -> {
+                    int[] cached = MinHashSignature.of(entry.completion, SemanticIndex.SIGNATURE_SIZE, AUDIT_SHINGLE_WORDS);
+                    int[] current = MinHashSignature.of(fresh, SemanticIndex.SIGNATURE_SIZE, AUDIT_SHINGLE_WORDS);
+                    if (cached != null && current != null
+                            && MinHashSignature.similarity(cached, current) >= properties.auditSimilarity()) {
+                        auditsConfirmed.increment();
+                        return;
+                    }
+                    auditsFalseHit.increment();
+                    synchronized (index) {
+                        index.remove(entry);
+                    }
+                }, error -> logger.debug("Semantic cache audit failed: {}", error.getMessage()));
+    }
+
+    /**
+     * The calling tenant and everything besides the input that shapes the completion, including the instructions
+     * in earlier messages
+     */
+    private static String scope(String tenant, String endpoint, String summaryType, OpenAiRequest request) {
+        StringBuilder scope = new StringBuilder(64).append(tenant).append('\0').append(endpoint).append('\0')
+                .append(summaryType).append('\0').append(request.model()).append('\0').append(request.maxTokens())
+                .append('\0').append(request.temperature());
+        List<OpenAiRequest.Message> messages = request.messages();
+        for (int i = 0; i < messages.size() - 1; i++) {
+            scope.append('\0').append(messages.get(i).role()).append(':').append(messages.get(i).content().hashCode());
+        }
+        return scope.toString();
+    }
+
+    private static Set<String> numbers(String text) {
+        Set<String> numbers = new HashSet<>();
+        Matcher matcher = NUMBER.matcher(text);
+        while (matcher.find()) {
+            numbers.add(matcher.group());
+        }
+        return numbers;
+    }
+
+    private double read(ToLongFunction<SemanticIndex> metric) {
+        synchronized (index) {
+            return metric.applyAsLong(index);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("openai.cache.semantic.requests")
+                .description("Semantic cache lookups by result; rejected hits failed the number check")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter audits(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("openai.cache.semantic.audits")
+                .description("Sampled semantic cache hits compared against a fresh completion")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
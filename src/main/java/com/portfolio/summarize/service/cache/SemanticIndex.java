@@ -0,0 +1,150 @@
+package com.portfolio.summarize.service.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory locality-sensitive hashing index over {@link MinHashSignature}s.
+ * <p>
+ * Signatures are cut into bands and every band is a bucket key, scoped so that entries of different
+ * scopes never share a bucket. Entries sharing at least one bucket with the query are candidates;
+ * with 32 bands of 4 slots, pairs above 0.8 similarity share a bucket with over 99.9% probability.
+ * Candidates are then compared on their full signatures. Entries are evicted least recently used
+ * first when the index exceeds its entry count or estimated memory, and lazily once expired.
+ * Not thread-safe.
+ */
+class SemanticIndex {
+
+    static final int SIGNATURE_SIZE = 128;
+    private static final int ROWS_PER_BAND = 4;
+    private static final int BANDS = SIGNATURE_SIZE / ROWS_PER_BAND;
+
+    // Rough heap footprint: entry, signature array, band keys and their bucket slots
+    private static final long ENTRY_OVERHEAD_BYTES = 160 + 4L * SIGNATURE_SIZE + 8L * BANDS + 64L * BANDS;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Map<Entry, Boolean> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, List<Entry>> buckets = new HashMap<>();
+    private long bytes;
+
+    SemanticIndex(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Most similar live entry of {@code scope} at or above {@code threshold}, or null
+     */
+    Match find(String scope, int[] signature, double threshold, long nowNanos) {
+        Entry best = null;
+        double bestSimilarity = threshold;
+        List<Entry> expired = new ArrayList<>();
+        for (int band = 0; band < BANDS; band++) {
+            List<Entry> bucket = buckets.get(bandKey(scope, signature, band));
+            if (bucket == null) {
+                continue;
+            }
+            for (Entry entry : bucket) {
+                if (entry.expiresAtNanos - nowNanos <= 0) {
+                    expired.add(entry);
+                    continue;
+                }
+                if (entry == best || !entry.scope.equals(scope)) {
+                    continue;
+                }
+                double similarity = MinHashSignature.similarity(signature, entry.signature);
+                if (similarity >= bestSimilarity) {
+                    best = entry;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+        expired.forEach(this::remove);
+        if (best == null || !entries.containsKey(best)) {
+            return null;
+        }
+        entries.get(best); // Mark as recently used
+        return new Match(best, bestSimilarity);
+    }
+
+    void put(String scope, int[] signature, String completion, Set<String> sourceNumbers, long expiresAtNanos) {
+        Entry entry = new Entry(scope, signature, completion, sourceNumbers, expiresAtNanos);
+        for (long key : entry.bandKeys) {
+            buckets.computeIfAbsent(key, k -> new ArrayList<>(2)).add(entry);
+        }
+        entries.put(entry, Boolean.TRUE);
+        bytes += entry.bytes;
+        Iterator<Entry> eldest = entries.keySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            unlink(evicted);
+        }
+    }
+
+    void remove(Entry entry) {
+        if (entries.remove(entry) != null) {
+            unlink(entry);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long estimatedBytes() {
+        return bytes;
+    }
+
+    private void unlink(Entry entry) {
+        bytes -= entry.bytes;
+        for (long key : entry.bandKeys) {
+            List<Entry> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(entry);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long bandKey(String scope, int[] signature, int band) {
+        long key = scope.hashCode() * 31L + band;
+        for (int row = band * ROWS_PER_BAND, end = row + ROWS_PER_BAND; row < end; row++) {
+            key = key * 0x100000001b3L ^ signature[row];
+        }
+        return key;
+    }
+
+    record Match(Entry entry, double similarity) {
+    }
+
+    static final class Entry {
+        final String scope;
+        final int[] signature;
+        final String completion;
+        final Set<String> sourceNumbers;
+        final long expiresAtNanos;
+        final long[] bandKeys = new long[BANDS];
+        final long bytes;
+
+        private Entry(String scope, int[] signature, String completion, Set<String> sourceNumbers, long expiresAtNanos) {
+            this.scope = scope;
+            this.signature = signature;
+            this.completion = completion;
+            this.sourceNumbers = sourceNumbers;
+            this.expiresAtNanos = expiresAtNanos;
+            for (int band = 0; band < BANDS; band++) {
+                bandKeys[band] = bandKey(scope, signature, band);
+            }
+            this.bytes = ENTRY_OVERHEAD_BYTES + 2L * completion.length() + 48L * sourceNumbers.size();
+        }
+    }
+}
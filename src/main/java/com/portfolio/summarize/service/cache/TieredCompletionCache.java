@@ -0,0 +1,31 @@
+package com.portfolio.summarize.service.cache;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Two-level cache: a fast in-process tier in front of a larger, slower tier.
+ * Hits in the second tier are promoted to the first.
+ */
+public class TieredCompletionCache implements CompletionCache {
+
+    private final CompletionCache first;
+    private final CompletionCache second;
+
+    public TieredCompletionCache(CompletionCache first, CompletionCache second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public Mono<String> get(String key) {
+        return first.get(key)
+                .switchIfEmpty(Mono.defer(() -> second.get(key)
+                        .doOnNext(completion -> first.put(key, completion))));
+    }
+
+    @Override
+    public void put(String key, String completion) {
+        first.put(key, completion);
+        second.put(key, completion);
+    }
+}
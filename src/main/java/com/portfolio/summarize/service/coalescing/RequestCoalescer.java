@@ -0,0 +1,104 @@
+package com.portfolio.summarize.service.coalescing;
+
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of identical upstream calls.
+ * <p>
+ * Concurrent subscribers for the same key share one upstream subscription. Streams are replayed from the
+ * first token so late joiners still receive the whole response. The shared subscription is reference
+ * counted: it is cancelled once every subscriber has gone, and the key is released as soon as the
+ * upstream terminates so that later callers start a fresh request.
+ * <p>
+ * Calls are only shared between callers of the same tenant and priority, so every upstream call is
+ * admitted against, scheduled for and charged to the tenant it answers. The shared call runs without a
+ * deadline: each caller's own deadline cancels only its subscription, and the call once none is left.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, Mono<?>> inFlightCalls = new ConcurrentHashMap<>();
+    private final Map<String, Flux<?>> inFlightStreams = new ConcurrentHashMap<>();
+
+    private final Counter coalescedCalls;
+    private final Counter coalescedStreams;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.coalescedCalls = Counter.builder("openai.requests.coalesced")
+                .description("Upstream calls avoided by joining an identical in-flight request")
+                .tag("type", "call")
+                .register(meterRegistry);
+        this.coalescedStreams = Counter.builder("openai.requests.coalesced")
+                .description("Upstream calls avoided by joining an identical in-flight request")
+                .tag("type", "stream")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(String key, Supplier<Mono<T>> upstream) {
+        return Mono.deferContextual(context -> {
+            ClientContext client = ClientContext.from(context);
+            String scopedKey = scoped(client, key);
+            AtomicReference<Mono<T>> self = new AtomicReference<>();
+            Mono<T> created = upstream.get()
+                    .contextWrite(shared(client)::addTo)
+                    .doFinally(signal -> inFlightCalls.remove(scopedKey, self.get()))
+                    .flux()
+                    .replay(1)
+                    .refCount(1)
+                    .singleOrEmpty();
+            self.set(created);
+
+            Mono<T> existing = (Mono<T>) inFlightCalls.putIfAbsent(scopedKey, created);
+            if (existing != null) {
+                coalescedCalls.increment();
+                return existing;
+            }
+            return created;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> coalesceStream(String key, Supplier<Flux<T>> upstream) {
+        return Flux.deferContextual(context -> {
+            ClientContext client = ClientContext.from(context);
+            String scopedKey = scoped(client, key);
+            AtomicReference<Flux<T>> self = new AtomicReference<>();
+            Flux<T> created = upstream.get()
+                    .contextWrite(shared(client)::addTo)
+                    .doFinally(signal -> inFlightStreams.remove(scopedKey, self.get()))
+                    .replay()
+                    .refCount(1);
+            self.set(created);
+
+            Flux<T> existing = (Flux<T>) inFlightStreams.putIfAbsent(scopedKey, created);
+            if (existing != null) {
+                coalescedStreams.increment();
+                return existing;
+            }
+            return created;
+        });
+    }
+
+    private static String scoped(ClientContext client, String key) {
+        return client.tenant() + '\0' + client.priority() + '\0' + key;
+    }
+
+    private static ClientContext shared(ClientContext client) {
+        return new ClientContext(client.tenant(), client.priority(), null);
+    }
+
+    int inFlight() {
+        return inFlightCalls.size() + inFlightStreams.size();
+    }
+}
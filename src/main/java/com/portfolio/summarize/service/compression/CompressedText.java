@@ -0,0 +1,16 @@
+package com.portfolio.summarize.service.compression;
+
+/**
+ * Text left after compression, with the length of the input it came from
+ */
+public record CompressedText(
+    String text,
+    int originalLength
+) {
+    /**
+     * Compressed length as a fraction of the original; 1 when nothing was removed
+     */
+    public double ratio() {
+        return originalLength == 0 ? 1.0 : (double) text.length() / originalLength;
+    }
+}
@@ -0,0 +1,340 @@
+package com.portfolio.summarize.service.compression;
+
+import com.portfolio.summarize.config.CompressionProperties;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.service.tokens.TokenCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process reduction of summarization input before it is put into a prompt.
+ * <p>
+ * Cleaning removes what a summary never needs: quoted reply history ({@code >} lines and their
+ * "On ... wrote:" attributions), forwarded-message headers, signatures below a {@code --} line,
+ * "Sent from my ..." footers and paragraphs matching a boilerplate pattern such as an email disclaimer.
+ * Sentences of five or more words repeating an earlier one, ignoring case, punctuation and spacing, are
+ * dropped next, which removes the copies of earlier messages a pasted thread carries. Shorter sentences
+ * are kept, since a repeated "Yes, please." still answers a different question in a transcript.
+ * <p>
+ * Text going upstream as a single prompt can also be cut to a token budget: when extraction is enabled
+ * and the cleaned text is still over budget, its sentences are ranked with {@link TextRank} and the
+ * highest-ranked ones that fit are kept in their original order. The budget is counted with the
+ * configured model's tokenizer, so dense text such as CJK or code is not let through over it. A speaker label such as {@code Agent:}
+ * moves to the first kept sentence of its line. Text that cleaning would empty is passed through as is.
+ */
+@Component
+public class InputCompressor {
+
+    private static final Logger logger = LoggerFactory.getLogger(InputCompressor.class);
+
+    /** Input summarized in one prompt, which extraction applies to */
+    public static final String TEXT = "text";
+    /** Input split into chunks for map-reduce summarization, which is only cleaned */
+    public static final String DOCUMENT = "document";
+
+    private static final int MIN_DEDUPLICATED_WORDS = 5;
+    private static final int MAX_SIGNATURE_LINES = 10;
+    private static final String[] SEPARATORS = {" ", "\n", "\n\n"};
+    private static final int SAME_LINE = 0;
+    private static final int NEW_LINE = 1;
+    private static final int NEW_PARAGRAPH = 2;
+
+    private static final Pattern LINE_BREAK = Pattern.compile("\\r?\\n");
+    private static final Pattern QUOTE_ATTRIBUTION = Pattern.compile("On\\s.{1,300}\\swrote:");
+    private static final Pattern FORWARD_SEPARATOR = Pattern.compile(
+            "-{2,}\\s*(Original Message|Forwarded message)\\s*-{2,}", Pattern.CASE_INSENSITIVE);
+    private static final Pattern HEADER_LINE = Pattern.compile("(From|Sent|Date|To|Cc|Bcc|Subject):\\s.*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern MOBILE_FOOTER = Pattern.compile("(Sent from my|Get Outlook for)\\s.*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SPEAKER_LABEL = Pattern.compile("^\\p{L}[\\p{L}\\p{N} .'-]{0,30}:(?=\\s)");
+    private static final Pattern LIST_ITEM = Pattern.compile("^([-*•]|\\d{1,3}[.)])\\s");
+    private static final List<Pattern> BUILT_IN_BOILERPLATE = List.of(
+            Pattern.compile("(?i)\\b(confidential|privileged)\\b.*\\bintended (solely )?(for|recipient)"),
+            Pattern.compile("(?i)\\bif you (have )?received this (e-?mail|message|communication) in error"),
+            Pattern.compile("(?i)\\bclick here to unsubscribe\\b|\\byou are receiving this (e-?mail|message) because\\b"),
+            Pattern.compile("(?i)\\bplease consider the environment before printing\\b"));
+
+    private final CompressionProperties properties;
+    private final TokenCounter tokenCounter;
+    private final String model;
+    private final MeterRegistry meterRegistry;
+    private final List<Pattern> boilerplate;
+
+    public InputCompressor(CompressionProperties properties, TokenCounter tokenCounter, OpenAiProperties openAiProperties,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.tokenCounter = tokenCounter;
+        this.model = openAiProperties.model();
+        this.meterRegistry = meterRegistry;
+        this.boilerplate = new ArrayList<>(BUILT_IN_BOILERPLATE);
+        for (String pattern : properties.boilerplate()) {
+            boilerplate.add(Pattern.compile(pattern));
+        }
+    }
+
+    /**
+     * Compress {@code text} of the given {@code input} kind, {@link #TEXT} or {@link #DOCUMENT}, and record the ratio
+     */
+    public CompressedText compress(String text, String input) {
+        if (!properties.enabled()) {
+            return new CompressedText(text, text.length());
+        }
+        long start = System.nanoTime();
+        List<Sentence> sentences = sentences(paragraphs(text));
+        boolean[] keep = deduplicate(sentences);
+        CompressionProperties.Extractive extractive = properties.extractive();
+        String compressed = join(sentences, keep);
+        int ranked = 0;
+        if (TEXT.equals(input) && extractive.enabled() && tokenCounter.count(model, compressed) > extractive.maxTokens()) {
+            ranked = extract(sentences, keep, extractive.maxTokens());
+            compressed = join(sentences, keep);
+        }
+        CompressedText result = new CompressedText(compressed.isEmpty() ? text : compressed, text.length());
+        long elapsed = System.nanoTime() - start;
+
+        Timer.builder("openai.compression.time")
+                .description("Time spent compressing summarization input")
+                .tag("input", input)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("openai.compression.ratio")
+                .description("Compressed summarization input length as a fraction of the original")
+                .tag("input", input)
+                .register(meterRegistry)
+                .record(result.ratio());
+        logger.debug("Compressed {} input from {} to {} characters, {} sentences ranked, in {} µs", input,
+                text.length(), result.text().length(), ranked, elapsed / 1000);
+        return result;
+    }
+
+    /**
+     * Lines that survive cleaning, grouped into paragraphs, without boilerplate paragraphs
+     */
+    private List<List<String>> paragraphs(String text) {
+        String[] lines = LINE_BREAK.split(text, -1);
+        List<List<String>> paragraphs = new ArrayList<>();
+        List<String> paragraph = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].strip();
+            if (line.isEmpty()) {
+                addParagraph(paragraphs, paragraph);
+                paragraph = new ArrayList<>();
+            } else if (line.startsWith(">") || QUOTE_ATTRIBUTION.matcher(line).matches()
+                    || MOBILE_FOOTER.matcher(line).matches()) {
+                continue;
+            } else if (line.startsWith("On ") && i + 1 < lines.length
+                    && QUOTE_ATTRIBUTION.matcher(line + " " + lines[i + 1].strip()).matches()) {
+                // Attribution wrapped over two lines
+                i++;
+            } else if (FORWARD_SEPARATOR.matcher(line).matches()) {
+                i = skipHeaders(lines, i + 1) - 1;
+            } else if (line.regionMatches(true, 0, "From:", 0, 5) && i + 1 < lines.length
+                    && HEADER_LINE.matcher(lines[i + 1].strip()).matches()) {
+                i = skipHeaders(lines, i) - 1;
+            } else if (line.equals("--")) {
+                i = skipSignature(lines, i + 1) - 1;
+            } else {
+                paragraph.add(line);
+            }
+        }
+        addParagraph(paragraphs, paragraph);
+        return paragraphs;
+    }
+
+    private void addParagraph(List<List<String>> paragraphs, List<String> paragraph) {
+        if (paragraph.isEmpty()) {
+            return;
+        }
+        String joined = String.join(" ", paragraph);
+        for (Pattern pattern : boilerplate) {
+            if (pattern.matcher(joined).find()) {
+                return;
+            }
+        }
+        paragraphs.add(paragraph);
+    }
+
+    private static int skipHeaders(String[] lines, int from) {
+        int i = from;
+        while (i < lines.length && HEADER_LINE.matcher(lines[i].strip()).matches()) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipSignature(String[] lines, int from) {
+        int i = from;
+        while (i < lines.length && i - from < MAX_SIGNATURE_LINES && !lines[i].isBlank()) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Sentences of each paragraph. Wrapped lines are joined, while a line starting with a speaker label
+     * or a list marker, or following one that ends a sentence, starts a new line of its own.
+     */
+    private static List<Sentence> sentences(List<List<String>> paragraphs) {
+        List<Sentence> sentences = new ArrayList<>();
+        BreakIterator breaks = BreakIterator.getSentenceInstance(Locale.ROOT);
+        StringBuilder line = new StringBuilder();
+        int lineId = 0;
+        for (List<String> paragraph : paragraphs) {
+            int separator = NEW_PARAGRAPH;
+            for (String physical : paragraph) {
+                if (!line.isEmpty() && (endsSentence(line) || SPEAKER_LABEL.matcher(physical).find()
+                        || LIST_ITEM.matcher(physical).find())) {
+                    addSentences(sentences, breaks, line.toString(), separator, lineId++);
+                    line.setLength(0);
+                    separator = NEW_LINE;
+                }
+                if (!line.isEmpty()) {
+                    line.append(' ');
+                }
+                line.append(physical);
+            }
+            addSentences(sentences, breaks, line.toString(), separator, lineId++);
+            line.setLength(0);
+        }
+        return sentences;
+    }
+
+    private static boolean endsSentence(CharSequence line) {
+        char last = line.charAt(line.length() - 1);
+        return last == '.' || last == '!' || last == '?' || last == ':';
+    }
+
+    private static void addSentences(List<Sentence> sentences, BreakIterator breaks, String line, int separator, int lineId) {
+        Matcher label = SPEAKER_LABEL.matcher(line);
+        String speaker = label.find() ? label.group() : null;
+        breaks.setText(line);
+        int start = breaks.first();
+        boolean first = true;
+        for (int end = breaks.next(); end != BreakIterator.DONE; start = end, end = breaks.next()) {
+            String text = line.substring(start, end).strip();
+            if (text.isEmpty()) {
+                continue;
+            }
+            sentences.add(new Sentence(text, first ? separator : SAME_LINE, speaker, lineId, first));
+            first = false;
+        }
+    }
+
+    /**
+     * Keep flags dropping sentences of {@link #MIN_DEDUPLICATED_WORDS} or more words seen before
+     */
+    private static boolean[] deduplicate(List<Sentence> sentences) {
+        boolean[] keep = new boolean[sentences.size()];
+        Set<String> seen = new HashSet<>();
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < keep.length; i++) {
+            Sentence sentence = sentences.get(i);
+            int words = normalize(sentence.text(), sentence.opensLine() && sentence.speaker() != null
+                    ? sentence.speaker().length() : 0, key);
+            keep[i] = words < MIN_DEDUPLICATED_WORDS || seen.add(key.toString());
+        }
+        return keep;
+    }
+
+    /**
+     * Lowercased words of {@code text} from {@code from} into {@code key}, separated by single spaces; returns the word count
+     */
+    private static int normalize(String text, int from, StringBuilder key) {
+        key.setLength(0);
+        int words = 0;
+        boolean inWord = false;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord) {
+                    if (words++ > 0) {
+                        key.append(' ');
+                    }
+                    inWord = true;
+                }
+                key.append(Character.toLowerCase(c));
+            } else {
+                inWord = false;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Clear the keep flags of all but the highest-ranked kept sentences fitting {@code maxTokens}; returns the number ranked
+     */
+    private int extract(List<Sentence> sentences, boolean[] keep, int maxTokens) {
+        List<Integer> candidates = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                // Without speaker labels, which would otherwise link every turn of the same speaker
+                Sentence sentence = sentences.get(i);
+                candidates.add(i);
+                texts.add(sentence.opensLine() && sentence.speaker() != null
+                        ? sentence.text().substring(sentence.speaker().length()) : sentence.text());
+            }
+        }
+        double[] rank = TextRank.rank(texts);
+        Integer[] order = new Integer[candidates.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(rank[b], rank[a]));
+
+        int tokens = 0;
+        for (Integer candidate : order) {
+            int index = candidates.get(candidate);
+            int sentenceTokens = tokenCounter.count(model, sentences.get(index).text()) + 1;
+            keep[index] = tokens + sentenceTokens <= maxTokens;
+            if (keep[index]) {
+                tokens += sentenceTokens;
+            }
+        }
+        return order.length;
+    }
+
+    /**
+     * Kept sentences in their original order, each after the widest separator since the previous kept one
+     */
+    private static String join(List<Sentence> sentences, boolean[] keep) {
+        StringBuilder out = new StringBuilder();
+        int separator = SAME_LINE;
+        int labelledLine = -1;
+        for (int i = 0; i < keep.length; i++) {
+            Sentence sentence = sentences.get(i);
+            separator = Math.max(separator, sentence.separator());
+            if (!keep[i]) {
+                continue;
+            }
+            if (!out.isEmpty()) {
+                out.append(SEPARATORS[separator]);
+            }
+            if (sentence.speaker() != null && labelledLine != sentence.line()) {
+                if (!sentence.opensLine()) {
+                    out.append(sentence.speaker()).append(' ');
+                }
+                labelledLine = sentence.line();
+            }
+            out.append(sentence.text());
+            separator = SAME_LINE;
+        }
+        return out.toString();
+    }
+
+    private record Sentence(String text, int separator, String speaker, int line, boolean opensLine) {}
+}
@@ -0,0 +1,138 @@
+package com.portfolio.summarize.service.compression;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TextRank over sentences, with the cosine similarity of their TF-IDF vectors as edge weights.
+ * <p>
+ * The similarity graph is never built: with S the sentence-by-word matrix with unit-length rows, the
+ * edge weights are S·Sᵀ without its diagonal, so a power iteration is the two sparse products S·(Sᵀ·v)
+ * and a sentence's degree is its dot product with the column sums of S, minus one. Each iteration
+ * therefore costs one pass over the distinct words of every sentence instead of one step per sentence pair.
+ */
+final class TextRank {
+
+    private static final double DAMPING = 0.85;
+    private static final int MAX_ITERATIONS = 50;
+    private static final double TOLERANCE = 1e-6;
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "had", "her", "was", "one",
+            "our", "out", "has", "have", "him", "his", "how", "its", "may", "who", "did", "get", "got", "this",
+            "that", "with", "from", "they", "will", "would", "there", "their", "what", "about", "which", "when",
+            "were", "been", "your", "into", "than", "then", "them", "these", "those", "also", "just", "very",
+            "some", "such", "only", "over", "more", "most", "other", "could", "should", "here", "she", "being",
+            // Conversational filler, which would otherwise link every short reply in a transcript
+            "yes", "yeah", "okay", "sure", "thanks", "thank", "please", "hello");
+
+    private TextRank() {
+    }
+
+    /**
+     * Centrality of each sentence; sentences sharing no words with any other get the baseline rank
+     */
+    static double[] rank(List<String> sentences) {
+        int n = sentences.size();
+        Map<String, Integer> wordIds = new HashMap<>();
+        int[][] words = new int[n][];
+        double[][] weights = new double[n][];
+        int[] documentFrequency = new int[64];
+        for (int i = 0; i < n; i++) {
+            Map<Integer, Integer> termFrequency = termFrequency(sentences.get(i), wordIds);
+            words[i] = new int[termFrequency.size()];
+            weights[i] = new double[termFrequency.size()];
+            int k = 0;
+            for (Map.Entry<Integer, Integer> entry : termFrequency.entrySet()) {
+                int id = entry.getKey();
+                if (id >= documentFrequency.length) {
+                    documentFrequency = Arrays.copyOf(documentFrequency, Math.max(id + 1, documentFrequency.length * 2));
+                }
+                documentFrequency[id]++;
+                words[i][k] = id;
+                weights[i][k++] = entry.getValue();
+            }
+        }
+
+        double[] columnSums = new double[wordIds.size()];
+        for (int i = 0; i < n; i++) {
+            double norm = 0;
+            for (int k = 0; k < words[i].length; k++) {
+                weights[i][k] *= Math.log(1.0 + (double) n / documentFrequency[words[i][k]]);
+                norm += weights[i][k] * weights[i][k];
+            }
+            norm = Math.sqrt(norm);
+            for (int k = 0; k < words[i].length; k++) {
+                weights[i][k] /= norm;
+                columnSums[words[i][k]] += weights[i][k];
+            }
+        }
+        double[] degrees = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Less the sentence's similarity of 1 to itself
+            double degree = dot(words[i], weights[i], columnSums) - 1.0;
+            degrees[i] = degree > 1e-9 ? degree : 0;
+        }
+
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        double[] spread = new double[n];
+        double[] wordRank = new double[wordIds.size()];
+        Arrays.fill(rank, 1.0 / n);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            Arrays.fill(wordRank, 0);
+            for (int i = 0; i < n; i++) {
+                spread[i] = degrees[i] > 0 ? rank[i] / degrees[i] : 0;
+                for (int k = 0; k < words[i].length; k++) {
+                    wordRank[words[i][k]] += weights[i][k] * spread[i];
+                }
+            }
+            double delta = 0;
+            for (int i = 0; i < n; i++) {
+                double incoming = dot(words[i], weights[i], wordRank) - spread[i];
+                next[i] = (1 - DAMPING) / n + DAMPING * incoming;
+                delta += Math.abs(next[i] - rank[i]);
+            }
+            double[] swap = rank;
+            rank = next;
+            next = swap;
+            if (delta < TOLERANCE) {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    private static Map<Integer, Integer> termFrequency(String sentence, Map<String, Integer> wordIds) {
+        Map<Integer, Integer> termFrequency = new HashMap<>();
+        int length = sentence.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(sentence.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_WORD_LENGTH) {
+                    String word = sentence.substring(start, i).toLowerCase(Locale.ROOT);
+                    if (!STOP_WORDS.contains(word)) {
+                        termFrequency.merge(wordIds.computeIfAbsent(word, key -> wordIds.size()), 1, Integer::sum);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return termFrequency;
+    }
+
+    private static double dot(int[] words, double[] weights, double[] vector) {
+        double sum = 0;
+        for (int k = 0; k < words.length; k++) {
+            sum += weights[k] * vector[words[k]];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,82 @@
+package com.portfolio.summarize.service.conversations;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a conversation session: the message template it uses, a rolling summary of
+ * turns that no longer fit the history budget, and the remaining turns with their token counts.
+ * Every change produces a new snapshot so the session store can re-weigh it.
+ */
+public record Conversation(
+    String id,
+    String tenant,
+    String messageType,
+    String summary,
+    int summaryTokens,
+    List<Turn> turns,
+    boolean compacting,
+    Instant createdAt
+) {
+    // Rough heap footprint of a session and of each turn besides its text
+    private static final int SESSION_OVERHEAD_BYTES = 256;
+    private static final int TURN_OVERHEAD_BYTES = 64;
+
+    public record Turn(String role, String content, int tokens) {
+    }
+
+    static Conversation started(String id, String tenant, String messageType, Instant now) {
+        return new Conversation(id, tenant, messageType, null, 0, List.of(), false, now);
+    }
+
+    /**
+     * Tokens of the summary and all retained turns
+     */
+    public int historyTokens() {
+        int tokens = summaryTokens;
+        for (Turn turn : turns) {
+            tokens += turn.tokens();
+        }
+        return tokens;
+    }
+
+    Conversation withExchange(Turn prompt, Turn reply) {
+        List<Turn> appended = new ArrayList<>(turns.size() + 2);
+        appended.addAll(turns);
+        appended.add(prompt);
+        appended.add(reply);
+        return new Conversation(id, tenant, messageType, summary, summaryTokens, List.copyOf(appended), compacting, createdAt);
+    }
+
+    Conversation withCompacting(boolean compacting) {
+        return new Conversation(id, tenant, messageType, summary, summaryTokens, turns, compacting, createdAt);
+    }
+
+    /**
+     * Replace the summary and the oldest {@code folded} turns with {@code newSummary}
+     */
+    Conversation summarized(String newSummary, int newSummaryTokens, int folded) {
+        return new Conversation(id, tenant, messageType, newSummary, newSummaryTokens,
+                List.copyOf(turns.subList(Math.min(folded, turns.size()), turns.size())), false, createdAt);
+    }
+
+    /**
+     * Drop the oldest {@code dropped} turns
+     */
+    Conversation truncated(int dropped) {
+        return new Conversation(id, tenant, messageType, summary, summaryTokens,
+                List.copyOf(turns.subList(Math.min(dropped, turns.size()), turns.size())), false, createdAt);
+    }
+
+    /**
+     * Estimated heap used by this snapshot, in bytes
+     */
+    int weight() {
+        long bytes = SESSION_OVERHEAD_BYTES + (summary != null ? 2L * summary.length() : 0);
+        for (Turn turn : turns) {
+            bytes += TURN_OVERHEAD_BYTES + 2L * turn.content().length();
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+}
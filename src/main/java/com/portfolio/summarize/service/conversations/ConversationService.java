@@ -0,0 +1,270 @@
+package com.portfolio.summarize.service.conversations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.portfolio.summarize.config.ConversationProperties;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.model.OpenAiRequest;
+import com.portfolio.summarize.service.OpenAiService;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import com.portfolio.summarize.service.scheduling.RequestPriority;
+import com.portfolio.summarize.service.templates.PromptTemplate;
+import com.portfolio.summarize.service.templates.PromptTemplates;
+import com.portfolio.summarize.service.tokens.TokenCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Conversation sessions, so that a follow-up such as "make it shorter" carries only the new prompt.
+ * <p>
+ * Each session keeps its message template and a token-counted history. Requests send the template's
+ * system message, the rolling summary and as many recent turns as fit {@code history-tokens}. Once the
+ * history exceeds that budget, the oldest turns are folded into the summary in the background, or
+ * dropped when summarization is off or fails. Sessions live in memory, expire after
+ * {@code idle-timeout} and are evicted once their estimated total size passes {@code max-memory}.
+ */
+@Service
+public class ConversationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationService.class);
+
+    private static final String SUMMARY_PREFIX = "Summary of the earlier conversation:\n";
+
+    private final OpenAiService openAiService;
+    private final PromptTemplates templates;
+    private final TokenCounter tokenCounter;
+    private final ConversationProperties properties;
+    private final String model;
+    private final Clock clock;
+    private final Cache<String, Conversation> sessions;
+
+    private final Counter summarized;
+    private final Counter truncated;
+
+    @Autowired
+    public ConversationService(OpenAiService openAiService, PromptTemplates templates, TokenCounter tokenCounter,
+                               ConversationProperties properties, OpenAiProperties openAiProperties, MeterRegistry meterRegistry) {
+        this(openAiService, templates, tokenCounter, properties, openAiProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    ConversationService(OpenAiService openAiService, PromptTemplates templates, TokenCounter tokenCounter,
+                        ConversationProperties properties, OpenAiProperties openAiProperties, MeterRegistry meterRegistry,
+                        Clock clock) {
+        this.openAiService = openAiService;
+        this.templates = templates;
+        this.tokenCounter = tokenCounter;
+        this.properties = properties;
+        this.model = openAiProperties.model();
+        this.clock = clock;
+        this.sessions = Caffeine.newBuilder()
+                .maximumWeight(properties.maxMemory().toBytes())
+                .weigher((String id, Conversation conversation) -> conversation.weight())
+                .expireAfterAccess(properties.idleTimeout())
+                .build();
+
+        Gauge.builder("openai.conversations.active", sessions, Cache::estimatedSize)
+                .description("Conversation sessions held in memory")
+                .register(meterRegistry);
+        Gauge.builder("openai.conversations.memory", sessions,
+                        cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .description("Estimated heap used by conversation sessions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.summarized = compactions(meterRegistry, "summarized");
+        this.truncated = compactions(meterRegistry, "truncated");
+    }
+
+    /**
+     * Start a session using the given message template, or the default one
+     */
+    public Mono<Conversation> start(String messageType) {
+        return Mono.deferContextual(context -> {
+            String template = templates.getOrDefault(PromptTemplates.MESSAGES, messageType).name();
+            Conversation conversation = Conversation.started(UUID.randomUUID().toString(),
+                    ClientContext.from(context).tenant(), template, clock.instant());
+            sessions.put(conversation.id(), conversation);
+            return Mono.just(conversation);
+        });
+    }
+
+    /**
+     * The session, if it exists and belongs to the calling tenant
+     */
+    public Mono<Conversation> find(String id) {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(get(id, ClientContext.from(context).tenant())));
+    }
+
+    /**
+     * Drop the session; emits whether the calling tenant had one with this id
+     */
+    public Mono<Boolean> end(String id) {
+        return Mono.deferContextual(context -> {
+            String tenant = ClientContext.from(context).tenant();
+            boolean[] removed = new boolean[1];
+            sessions.asMap().computeIfPresent(id, (key, conversation) -> {
+                removed[0] = conversation.tenant().equals(tenant);
+                return removed[0] ? null : conversation;
+            });
+            return Mono.just(removed[0]);
+        });
+    }
+
+    Optional<Conversation> get(String id, String tenant) {
+        return Optional.ofNullable(sessions.getIfPresent(id))
+                .filter(conversation -> conversation.tenant().equals(tenant));
+    }
+
+    /**
+     * Send {@code prompt} with the session's context and record the exchange once the reply is complete
+     */
+    public Mono<String> reply(Conversation conversation, String prompt, Integer maxTokens, Double temperature) {
+        return openAiService.continueConversation(messages(conversation, prompt), maxTokens, temperature)
+                .doOnNext(reply -> record(conversation.id(), prompt, reply));
+    }
+
+    public Flux<String> replyStream(Conversation conversation, String prompt, Integer maxTokens, Double temperature) {
+        return Flux.defer(() -> {
+            StringBuilder reply = new StringBuilder();
+            return openAiService.continueConversationStream(messages(conversation, prompt), maxTokens, temperature)
+                    .doOnNext(reply::append)
+                    .doOnComplete(() -> {
+                        if (!reply.isEmpty()) {
+                            record(conversation.id(), prompt, reply.toString());
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Template system message, rolling summary, then the newest turns that fit the budget and the prompt
+     */
+    List<OpenAiRequest.Message> messages(Conversation conversation, String prompt) {
+        List<OpenAiRequest.Message> messages = new ArrayList<>(conversation.turns().size() + 3);
+        PromptTemplate template = templates.getOrDefault(PromptTemplates.MESSAGES, conversation.messageType());
+        if (template.system() != null) {
+            messages.add(new OpenAiRequest.Message("system", template.system().render(Map.of())));
+        }
+        int budget = properties.historyTokens();
+        if (conversation.summary() != null) {
+            messages.add(new OpenAiRequest.Message("system", SUMMARY_PREFIX + conversation.summary()));
+            budget -= conversation.summaryTokens();
+        }
+        List<Conversation.Turn> turns = conversation.turns();
+        int first = turns.size();
+        while (first > 0 && turns.get(first - 1).tokens() <= budget) {
+            budget -= turns.get(--first).tokens();
+        }
+        // Never start the retained history with a dangling reply
+        if (first < turns.size() && "assistant".equals(turns.get(first).role())) {
+            first++;
+        }
+        for (Conversation.Turn turn : turns.subList(first, turns.size())) {
+            messages.add(new OpenAiRequest.Message(turn.role(), turn.content()));
+        }
+        messages.add(new OpenAiRequest.Message("user", prompt));
+        return messages;
+    }
+
+    private void record(String id, String prompt, String reply) {
+        Conversation.Turn promptTurn = new Conversation.Turn("user", prompt, tokenCounter.count(model, prompt));
+        Conversation.Turn replyTurn = new Conversation.Turn("assistant", reply, tokenCounter.count(model, reply));
+        Conversation updated = sessions.asMap().computeIfPresent(id,
+                (key, conversation) -> conversation.withExchange(promptTurn, replyTurn));
+        if (updated != null && updated.historyTokens() > properties.historyTokens() && !updated.compacting()) {
+            compact(id);
+        }
+    }
+
+    /**
+     * Number of oldest turns to fold into the summary to bring the history within half the budget; none
+     * while the history is within the budget, as it is again once another reply has compacted it
+     */
+    private int foldedTurns(Conversation conversation) {
+        if (conversation.historyTokens() <= properties.historyTokens()) {
+            return 0;
+        }
+        List<Conversation.Turn> turns = conversation.turns();
+        int target = properties.historyTokens() / 2;
+        int remaining = conversation.historyTokens();
+        int folded = 0;
+        while (folded < turns.size() - 2 && remaining > target) {
+            remaining -= turns.get(folded++).tokens();
+        }
+        // Fold whole exchanges so the retained turns start with a prompt
+        return folded + folded % 2;
+    }
+
+    /**
+     * Fold the oldest turns into the summary until the history is within half the budget. Replies finishing
+     * together may both get here; only the one that sets the compacting flag goes on.
+     */
+    private void compact(String id) {
+        if (!properties.summarizeHistory()) {
+            boolean[] dropped = new boolean[1];
+            sessions.asMap().computeIfPresent(id, (key, current) -> {
+                int count = foldedTurns(current);
+                dropped[0] = count > 0;
+                return dropped[0] ? current.truncated(count) : current;
+            });
+            if (dropped[0]) {
+                truncated.increment();
+            }
+            return;
+        }
+        Conversation[] claimed = new Conversation[1];
+        sessions.asMap().computeIfPresent(id, (key, current) -> {
+            if (current.compacting() || foldedTurns(current) == 0) {
+                return current;
+            }
+            claimed[0] = current.withCompacting(true);
+            return claimed[0];
+        });
+        if (claimed[0] == null) {
+            return;
+        }
+        Conversation conversation = claimed[0];
+        List<Conversation.Turn> turns = conversation.turns();
+        int count = foldedTurns(conversation);
+        StringBuilder transcript = new StringBuilder();
+        if (conversation.summary() != null) {
+            transcript.append(SUMMARY_PREFIX).append(conversation.summary()).append("\n\n");
+        }
+        for (Conversation.Turn turn : turns.subList(0, count)) {
+            transcript.append("assistant".equals(turn.role()) ? "Assistant: " : "User: ").append(turn.content()).append("\n\n");
+        }
+        openAiService.summarizeConversation(transcript.toString(), properties.summaryMaxTokens())
+                .contextWrite(new ClientContext(conversation.tenant(), RequestPriority.BATCH, null)::addTo)
+                .subscribe(summary -> {
+                    int tokens = tokenCounter.count(model, summary);
+                    sessions.asMap().computeIfPresent(conversation.id(),
+                            (key, current) -> current.summarized(summary, tokens, count));
+                    summarized.increment();
+                }, error -> {
+                    logger.warn("Summarizing conversation {} failed, dropping its oldest turns: {}",
+                            conversation.id(), error.getMessage());
+                    sessions.asMap().computeIfPresent(conversation.id(), (key, current) -> current.truncated(count));
+                    truncated.increment();
+                });
+    }
+
+    private static Counter compactions(MeterRegistry meterRegistry, String mode) {
+        return Counter.builder("openai.conversations.compactions")
+                .description("Conversation histories shrunk to fit the token budget")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+}
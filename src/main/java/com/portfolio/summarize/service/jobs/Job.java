@@ -0,0 +1,69 @@
+package com.portfolio.summarize.service.jobs;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.portfolio.summarize.dto.JobRequest;
+
+import java.time.Instant;
+
+/**
+ * Immutable snapshot of a summarization job. Every state change produces a new snapshot with a higher
+ * {@code version}; the request is dropped once the job is finished since only the result is kept.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Job(
+    String id,
+    String tenant,
+    JobRequest request,
+    State state,
+    int attempts,
+    String summary,
+    String error,
+    Instant createdAt,
+    Instant updatedAt,
+    long version
+) {
+    public enum State {
+        PENDING, RUNNING, SUCCEEDED, FAILED;
+
+        public boolean isTerminal() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+
+    static Job submitted(String id, String tenant, JobRequest request, Instant now) {
+        return new Job(id, tenant, request, State.PENDING, 0, null, null, now, now, 0);
+    }
+
+    Job started(Instant now) {
+        return new Job(id, tenant, request, State.RUNNING, attempts + 1, null, error, createdAt, now, version + 1);
+    }
+
+    Job succeeded(String summary, Instant now) {
+        return new Job(id, tenant, null, State.SUCCEEDED, attempts, summary, null, createdAt, now, version + 1);
+    }
+
+    Job failed(String error, Instant now) {
+        return new Job(id, tenant, null, State.FAILED, attempts, null, error, createdAt, now, version + 1);
+    }
+
+    /**
+     * Back to the queue, either for a retry or because the process stopped while the job was running
+     */
+    Job requeued(String error, Instant now) {
+        return new Job(id, tenant, request, State.PENDING, attempts, null, error, createdAt, now, version + 1);
+    }
+
+    Job withRequest(JobRequest request) {
+        return new Job(id, tenant, request, state, attempts, summary, error, createdAt, updatedAt, version);
+    }
+
+    Job withoutRequest() {
+        return withRequest(null);
+    }
+
+    @JsonIgnore
+    public boolean isTerminal() {
+        return state.isTerminal();
+    }
+}
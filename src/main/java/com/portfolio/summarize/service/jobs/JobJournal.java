@@ -0,0 +1,165 @@
+package com.portfolio.summarize.service.jobs;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Append-only NDJSON journal of job snapshots. Replaying it keeps the last snapshot per job; the request
+ * is only written with the first snapshot and carried forward on replay. A torn last line from a crash
+ * is skipped. {@link #compact} rewrites the file with just the live jobs via an atomic rename.
+ * Calls block on file I/O and must not run on event-loop threads.
+ */
+public class JobJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobJournal.class);
+    private static final String FILE_NAME = "jobs.ndjson";
+
+    private final Path file;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+
+    // Guarded by this
+    private FileChannel channel;
+    private int records;
+
+    public JobJournal(Path directory, boolean fsync, ObjectMapper objectMapper) {
+        this.file = directory.resolve(FILE_NAME);
+        this.fsync = fsync;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot initialise job journal directory " + directory, e);
+        }
+    }
+
+    /**
+     * Latest snapshot of every job recorded in the journal, in submission order
+     */
+    public synchronized Map<String, Job> replay() {
+        Map<String, Job> jobs = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return jobs;
+        }
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Job snapshot;
+                try {
+                    snapshot = objectMapper.readValue(line, Job.class);
+                } catch (JsonProcessingException e) {
+                    logger.warn("Skipping unreadable job journal line {}: {}", lineNumber, e.getOriginalMessage());
+                    continue;
+                }
+                jobs.merge(snapshot.id(), snapshot,
+                        (previous, next) -> next.request() == null && !next.isTerminal() ? next.withRequest(previous.request()) : next);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read job journal " + file, e);
+        }
+        records = lineNumber;
+        return jobs;
+    }
+
+    public synchronized void append(Job job) {
+        write(openChannel(), job);
+        records++;
+    }
+
+    /**
+     * Replace the journal with one snapshot per live job
+     */
+    public synchronized void compact(Collection<Job> jobs) {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Job job : jobs) {
+                writeLine(out, job);
+            }
+            out.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact job journal " + file, e);
+        }
+        closeChannel();
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replace job journal " + file, e);
+        }
+        records = jobs.size();
+    }
+
+    /**
+     * Number of snapshots in the file, live or superseded
+     */
+    public synchronized int records() {
+        return records;
+    }
+
+    @Override
+    public synchronized void close() {
+        closeChannel();
+    }
+
+    private FileChannel openChannel() {
+        if (channel == null) {
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open job journal " + file, e);
+            }
+        }
+        return channel;
+    }
+
+    private void write(FileChannel out, Job job) {
+        try {
+            writeLine(out, job);
+            if (fsync) {
+                out.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to job journal " + file, e);
+        }
+    }
+
+    private void writeLine(FileChannel out, Job job) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(job) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            out.write(line);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing job journal: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.portfolio.summarize.service.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.summarize.config.JobProperties;
+import com.portfolio.summarize.dto.JobRequest;
+import com.portfolio.summarize.dto.JobResponse;
+import com.portfolio.summarize.exception.ThrottledException;
+import com.portfolio.summarize.service.OpenAiService;
+import com.portfolio.summarize.service.longdoc.LongDocumentSummarizer;
+import com.portfolio.summarize.service.resilience.UpstreamErrors;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import com.portfolio.summarize.service.scheduling.RequestPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous summarization jobs backed by a {@link JobJournal}.
+ * <p>
+ * A submitted job is journaled before its id is returned, then drained by a fixed pool of workers
+ * through {@link OpenAiService} at batch priority. Transient upstream failures put the job back in the
+ * queue after {@code retry-delay}, up to {@code max-attempts}. On startup the journal is replayed:
+ * pending jobs and jobs that were running when the process stopped are queued again, and finished
+ * jobs stay available until {@code retention} has passed. Callers poll, subscribe to updates, or
+ * register a local webhook that receives the finished job. A job is only visible to the tenant that
+ * submitted it.
+ */
+@Service
+public class JobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+
+    // Texts up to this length fit a single prompt, like the synchronous summarize endpoint
+    private static final int SINGLE_PROMPT_MAX_CHARS = 10_000;
+    private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+    private static final int MIN_COMPACTION_RECORDS = 1000;
+
+    private final OpenAiService openAiService;
+    private final LongDocumentSummarizer longDocumentSummarizer;
+    private final JobProperties properties;
+    private final WebClient webhookClient;
+    private final Clock clock;
+    private final JobJournal journal;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Sinks.Many<String> queue = Sinks.many().unicast().onBackpressureBuffer();
+    private final Sinks.Many<Job> updates = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger unfinished = new AtomicInteger();
+    private final Disposable workers;
+    private final Disposable sweeper;
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public JobService(OpenAiService openAiService, LongDocumentSummarizer longDocumentSummarizer, JobProperties properties,
+                      ObjectMapper objectMapper, WebClient.Builder webClientBuilder, MeterRegistry meterRegistry) {
+        this(openAiService, longDocumentSummarizer, properties, objectMapper, webClientBuilder.build(), meterRegistry,
+                Clock.systemUTC());
+    }
+
+    JobService(OpenAiService openAiService, LongDocumentSummarizer longDocumentSummarizer, JobProperties properties,
+               ObjectMapper objectMapper, WebClient webhookClient, MeterRegistry meterRegistry, Clock clock) {
+        this.openAiService = openAiService;
+        this.longDocumentSummarizer = longDocumentSummarizer;
+        this.properties = properties;
+        this.webhookClient = webhookClient;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.journal = new JobJournal(Path.of(properties.directory()), properties.fsync(), objectMapper);
+
+        Gauge.builder("openai.jobs.unfinished", unfinished, AtomicInteger::get)
+                .description("Jobs pending or running")
+                .register(meterRegistry);
+
+        recover();
+        this.workers = queue.asFlux()
+                .flatMap(this::process, properties.workers())
+                .subscribe();
+        jobs.values().stream()
+                .filter(job -> job.state() == Job.State.PENDING)
+                .sorted(Comparator.comparing(Job::createdAt))
+                .forEach(job -> enqueue(job.id()));
+        this.sweeper = Schedulers.boundedElastic().schedulePeriodically(this::sweep,
+                SWEEP_INTERVAL.toMillis(), SWEEP_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Journal a new job and queue it; completes once the job is durable
+     */
+    public Mono<Job> submit(JobRequest request) {
+        return Mono.deferContextual(context -> {
+            if (request.webhookUrl() != null && !request.webhookUrl().isBlank()) {
+                validateWebhook(request.webhookUrl());
+            }
+            if (unfinished.incrementAndGet() > properties.maxPending()) {
+                unfinished.decrementAndGet();
+                return Mono.error(ThrottledException.tooManyRequests("Job queue is full", properties.retryDelay()));
+            }
+            Job job = Job.submitted(UUID.randomUUID().toString(), ClientContext.from(context).tenant(), request, clock.instant());
+            return persist(job)
+                    .doOnSuccess(persisted -> enqueue(persisted.id()))
+                    .doOnError(error -> unfinished.decrementAndGet());
+        });
+    }
+
+    /**
+     * The job, if it exists and belongs to the calling tenant
+     */
+    public Mono<Job> find(String id) {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(get(id, ClientContext.from(context).tenant())));
+    }
+
+    Optional<Job> get(String id, String tenant) {
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> tenant.equals(job.tenant()));
+    }
+
+    /**
+     * Current state of the job followed by every change until it finishes; empty for unknown jobs and
+     * those of other tenants
+     */
+    public Flux<Job> watch(String id) {
+        return Flux.deferContextual(context -> {
+            if (get(id, ClientContext.from(context).tenant()).isEmpty()) {
+                return Flux.empty();
+            }
+            AtomicLong lastVersion = new AtomicLong(-1);
+            // Subscribe to updates before reading the snapshot so no change falls in between
+            return Flux.merge(updates.asFlux().onBackpressureBuffer().filter(job -> job.id().equals(id)),
+                            Mono.fromSupplier(() -> jobs.get(id)))
+                    .filter(job -> lastVersion.getAndAccumulate(job.version(), Math::max) < job.version())
+                    .takeUntil(Job::isTerminal);
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        sweeper.dispose();
+        workers.dispose();
+        journal.close();
+    }
+
+    private Mono<Void> process(String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.state() != Job.State.PENDING) {
+            return Mono.empty();
+        }
+        return persist(job.started(clock.instant()))
+                .flatMap(running -> summarize(running)
+                        .flatMap(summary -> persist(running.succeeded(summary, clock.instant())))
+                        .onErrorResume(error -> onFailure(running, error))
+                        .doOnNext(finished -> onFinished(finished, running.request().webhookUrl())))
+                .onErrorResume(error -> {
+                    logger.error("Job {} could not be recorded: {}", id, error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<String> summarize(Job job) {
+        JobRequest request = job.request();
+        Mono<String> summary = request.text().length() > SINGLE_PROMPT_MAX_CHARS
+                ? longDocumentSummarizer.summarize(request.text(), request.maxTokens(), request.summaryType())
+                : openAiService.summarizeText(request.text(), request.maxTokens(), request.summaryType());
+        return summary.contextWrite(new ClientContext(job.tenant(), RequestPriority.BATCH, null)::addTo);
+    }
+
+    private Mono<Job> onFailure(Job running, Throwable error) {
+        boolean retryable = error instanceof ThrottledException || UpstreamErrors.isTransient(error);
+        if (retryable && running.attempts() < properties.maxAttempts()) {
+            logger.warn("Job {} attempt {} failed ({}); retrying in {} s", running.id(), running.attempts(),
+                    error.getMessage(), properties.retryDelay().toSeconds());
+            return persist(running.requeued(error.getMessage(), clock.instant()))
+                    .doOnSuccess(pending -> Mono.delay(properties.retryDelay()).subscribe(tick -> enqueue(pending.id())))
+                    .then(Mono.empty());
+        }
+        logger.warn("Job {} failed after {} attempts: {}", running.id(), running.attempts(), error.getMessage());
+        return persist(running.failed("Failed to summarize text", clock.instant()));
+    }
+
+    private void onFinished(Job job, String webhookUrl) {
+        unfinished.decrementAndGet();
+        Counter.builder("openai.jobs.completed")
+                .description("Jobs finished, by outcome")
+                .tag("status", job.state().name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+        if (webhookUrl != null && !webhookUrl.isBlank()) {
+            webhookClient.post()
+                    .uri(webhookUrl)
+                    .bodyValue(JobResponse.from(job))
+                    .retrieve()
+                    .toBodilessEntity()
+                    .retryWhen(Retry.backoff(3, Duration.ofSeconds(1)))
+                    .subscribe(null, error -> logger.warn("Webhook for job {} failed: {}", job.id(), error.getMessage()));
+        }
+    }
+
+    /**
+     * Journal the snapshot, then publish it; journal I/O runs off the event loop
+     */
+    private Mono<Job> persist(Job job) {
+        return Mono.fromCallable(() -> {
+                    // Under the journal lock so a concurrent compaction sees either both or neither
+                    synchronized (journal) {
+                        journal.append(job.isTerminal() || job.version() == 0 ? job : job.withoutRequest());
+                        jobs.put(job.id(), job);
+                    }
+                    synchronized (updates) {
+                        updates.tryEmitNext(job);
+                    }
+                    return job;
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private void enqueue(String id) {
+        synchronized (queue) {
+            queue.tryEmitNext(id);
+        }
+    }
+
+    private void recover() {
+        Instant now = clock.instant();
+        for (Job job : journal.replay().values()) {
+            if (job.isTerminal() && isExpired(job, now)) {
+                continue;
+            }
+            if (job.state() == Job.State.RUNNING) {
+                job = job.requeued(job.error(), now);
+            }
+            if (!job.isTerminal()) {
+                if (job.request() == null) {
+                    logger.warn("Dropping job {} whose request is missing from the journal", job.id());
+                    continue;
+                }
+                unfinished.incrementAndGet();
+            }
+            jobs.put(job.id(), job);
+        }
+        journal.compact(jobs.values());
+        logger.info("Job journal at {} loaded with {} jobs, {} unfinished", properties.directory(), jobs.size(), unfinished.get());
+    }
+
+    /**
+     * Forget finished jobs past their retention and compact the journal when it has grown
+     */
+    void sweep() {
+        try {
+            Instant now = clock.instant();
+            jobs.values().removeIf(job -> job.isTerminal() && isExpired(job, now));
+            synchronized (journal) {
+                if (journal.records() > Math.max(MIN_COMPACTION_RECORDS, 4 * jobs.size())) {
+                    journal.compact(jobs.values());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Job sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean isExpired(Job job, Instant now) {
+        return job.updatedAt().plus(properties.retention()).isBefore(now);
+    }
+
+    private void validateWebhook(String webhookUrl) {
+        URI uri;
+        try {
+            uri = URI.create(webhookUrl);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Webhook URL is not a valid URI");
+        }
+        String host = uri.getHost() != null ? uri.getHost().replace("[", "").replace("]", "") : null;
+        boolean allowedScheme = "http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+        if (!allowedScheme || host == null
+                || properties.webhookHosts().stream().noneMatch(allowed -> allowed.equalsIgnoreCase(host))) {
+            throw new IllegalArgumentException("Webhook URL must be http(s) on one of " + properties.webhookHosts());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.portfolio.summarize.service.longdoc;
+
+import com.portfolio.summarize.service.tokens.TokenEstimator;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Splits long text into chunks of at most {@code maxTokens}, preferring paragraph boundaries,
+ * then sentence boundaries, then whitespace. Only a single unbroken run longer than the budget
+ * is cut mid-word.
+ * <p>
+ * Tokens are counted with {@code tokens}, normally the model's tokenizer, so chunks stay within budget
+ * for text that does not average four characters per token. A chunk is counted as the sum of its pieces
+ * with their leading separators, which the tokenizer splits on anyway, so each piece is counted only once.
+ */
+public class DocumentChunker {
+
+    private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n\\s*\\n");
+    private static final String PARAGRAPH_SEPARATOR = "\n\n";
+
+    private final int maxTokens;
+    private final ToIntFunction<String> tokens;
+
+    public DocumentChunker(int maxTokens, ToIntFunction<String> tokens) {
+        this.maxTokens = maxTokens;
+        this.tokens = tokens;
+    }
+
+    public List<String> split(String text) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int currentTokens = 0;
+
+        for (String paragraph : PARAGRAPH_BREAK.split(text)) {
+            String trimmed = paragraph.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            boolean firstUnit = true;
+            for (String unit : units(trimmed)) {
+                String separator = current.isEmpty() ? "" : firstUnit ? PARAGRAPH_SEPARATOR : " ";
+                int unitTokens = tokens.applyAsInt(separator + unit);
+                if (!current.isEmpty() && currentTokens + unitTokens > maxTokens) {
+                    chunks.add(current.toString());
+                    current.setLength(0);
+                    separator = "";
+                    unitTokens = tokens.applyAsInt(unit);
+                }
+                current.append(separator).append(unit);
+                currentTokens += unitTokens;
+                firstUnit = false;
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current.toString());
+        }
+        return chunks;
+    }
+
+    /**
+     * Pieces of a paragraph that each fit the budget
+     */
+    private List<String> units(String paragraph) {
+        if (tokens.applyAsInt(paragraph) <= maxTokens) {
+            return List.of(paragraph);
+        }
+
+        List<String> units = new ArrayList<>();
+        BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.ROOT);
+        sentences.setText(paragraph);
+        int start = sentences.first();
+        for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+            String sentence = paragraph.substring(start, end).strip();
+            if (sentence.isEmpty()) {
+                continue;
+            }
+            if (tokens.applyAsInt(sentence) <= maxTokens) {
+                units.add(sentence);
+            } else {
+                splitOnWhitespace(sentence, units);
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Cut a sentence over the budget into pieces that fit, starting from the character estimate of the
+     * budget and shrinking a piece in proportion to its overshoot until it fits
+     */
+    private void splitOnWhitespace(String sentence, List<String> units) {
+        int maxChars = TokenEstimator.charsFor(maxTokens);
+        int start = 0;
+        while (start < sentence.length()) {
+            int end = Math.min(start + maxChars, sentence.length());
+            for (int count = tokens.applyAsInt(sentence.substring(start, end)); count > maxTokens && end - start > 1;
+                    count = tokens.applyAsInt(sentence.substring(start, end))) {
+                end = start + Math.max(1, Math.min(end - start - 1, (int) ((long) (end - start) * maxTokens / count)));
+                if (Character.isHighSurrogate(sentence.charAt(end - 1)) && end - start > 1) {
+                    end--;
+                }
+            }
+            if (end < sentence.length()) {
+                int space = sentence.lastIndexOf(' ', end);
+                if (space > start) {
+                    end = space;
+                }
+            }
+            String piece = sentence.substring(start, end).strip();
+            if (!piece.isEmpty()) {
+                units.add(piece);
+            }
+            start = end;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.portfolio.summarize.service.longdoc;
+
+import com.portfolio.summarize.config.LongDocumentProperties;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.dto.SummaryEvent;
+import com.portfolio.summarize.service.OpenAiService;
+import com.portfolio.summarize.service.compression.InputCompressor;
+import com.portfolio.summarize.service.tokens.TokenCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Map-reduce summarization for documents that do not fit in one prompt.
+ * <p>
+ * The text is split into token-budgeted chunks which are summarized concurrently (bounded by
+ * {@code openai.long-document.parallelism}). Partial summaries are then merged in groups of at most
+ * {@code max-fan-in}, level by level, until a single merge into the requested summaryType remains.
+ * Wall-clock time therefore grows with {@code chunks / parallelism} plus a logarithmic number of
+ * merge rounds rather than with document length. The text is cleaned of quoted history, boilerplate and
+ * repeated sentences before it is split, so those do not cost chunks. Chunks and merge groups are sized with
+ * the configured model's tokenizer, the same count their prompts are validated with.
+ */
+@Service
+public class LongDocumentSummarizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LongDocumentSummarizer.class);
+
+    private final OpenAiService openAiService;
+    private final LongDocumentProperties properties;
+    private final InputCompressor compressor;
+    private final TokenCounter tokenCounter;
+    private final String model;
+    private final DocumentChunker chunker;
+
+    public LongDocumentSummarizer(OpenAiService openAiService, LongDocumentProperties properties, InputCompressor compressor,
+                                  TokenCounter tokenCounter, OpenAiProperties openAiProperties) {
+        this.openAiService = openAiService;
+        this.properties = properties;
+        this.compressor = compressor;
+        this.tokenCounter = tokenCounter;
+        this.model = openAiProperties.model();
+        this.chunker = new DocumentChunker(properties.chunkTokens(), text -> tokenCounter.count(model, text));
+    }
+
+    public Mono<String> summarize(String text, Integer maxTokens, String summaryType) {
+        String document = compressor.compress(text, InputCompressor.DOCUMENT).text();
+        List<String> chunks = chunker.split(document);
+        logger.info("Summarizing long document of length {}, compressed to {}, in {} chunks", text.length(),
+                document.length(), chunks.size());
+        if (chunks.size() <= 1) {
+            return openAiService.summarizeText(document, maxTokens, summaryType);
+        }
+
+        return Flux.range(0, chunks.size())
+                .flatMapSequential(i -> summarizeChunk(chunks, i), properties.parallelism())
+                .collectList()
+                .flatMap(this::reduce)
+                .flatMap(partials -> openAiService.mergeSummaries(partials, maxTokens, summaryType));
+    }
+
+    /**
+     * Streams a {@code partial} event per chunk as soon as it finishes (in completion order),
+     * followed by the tokens of the final merged summary as {@code summary} events.
+     */
+    public Flux<SummaryEvent> summarizeStream(String text, Integer maxTokens, String summaryType) {
+        String document = compressor.compress(text, InputCompressor.DOCUMENT).text();
+        List<String> chunks = chunker.split(document);
+        logger.info("Summarizing long document with streaming, length {}, compressed to {}, in {} chunks", text.length(),
+                document.length(), chunks.size());
+        if (chunks.size() <= 1) {
+            return openAiService.summarizeTextStream(document, maxTokens, summaryType).map(SummaryEvent::summary);
+        }
+
+        String[] partials = new String[chunks.size()];
+        Flux<SummaryEvent> mapPhase = Flux.range(0, chunks.size())
+                .flatMap(i -> summarizeChunk(chunks, i)
+                        .map(partial -> {
+                            partials[i] = partial;
+                            return SummaryEvent.partial(i + 1, chunks.size(), partial);
+                        }), properties.parallelism());
+        Flux<SummaryEvent> reducePhase = Flux.defer(() -> reduce(Arrays.asList(partials)))
+                .flatMap(reduced -> openAiService.mergeSummariesStream(reduced, maxTokens, summaryType))
+                .map(SummaryEvent::summary);
+
+        return mapPhase.concatWith(reducePhase);
+    }
+
+    private Mono<String> summarizeChunk(List<String> chunks, int index) {
+        return openAiService.summarizeSection(chunks.get(index), index + 1, chunks.size(), properties.sectionMaxTokens());
+    }
+
+    /**
+     * Merge partial summaries level by level until they fit into one final merge prompt
+     */
+    private Mono<List<String>> reduce(List<String> partials) {
+        if (fitsOneMerge(partials)) {
+            return Mono.just(partials);
+        }
+
+        List<List<String>> groups = group(partials);
+        logger.debug("Reducing {} partial summaries into {} groups", partials.size(), groups.size());
+        return Flux.fromIterable(groups)
+                .flatMapSequential(group -> group.size() == 1
+                        ? Mono.just(group.get(0))
+                        : openAiService.mergeSummaries(group, properties.sectionMaxTokens(), null),
+                        properties.parallelism())
+                .collectList()
+                .flatMap(this::reduce);
+    }
+
+    private boolean fitsOneMerge(List<String> partials) {
+        return partials.size() <= properties.maxFanIn() && totalTokens(partials) <= properties.chunkTokens();
+    }
+
+    /**
+     * Consecutive groups bounded by both fan-in and the chunk token budget; always makes progress
+     */
+    private List<List<String>> group(List<String> partials) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (String partial : partials) {
+            int tokens = tokenCounter.count(model, partial);
+            if (current.size() >= 2 && (current.size() == properties.maxFanIn()
+                    || currentTokens + tokens > properties.chunkTokens())) {
+                groups.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(partial);
+            currentTokens += tokens;
+        }
+        groups.add(current);
+        return groups;
+    }
+
+    private int totalTokens(List<String> partials) {
+        return partials.stream().mapToInt(partial -> tokenCounter.count(model, partial)).sum();
+    }
+}
@@ -0,0 +1,288 @@
+package com.portfolio.summarize.service.metrics;
+
+import com.portfolio.summarize.exception.ThrottledException;
+import com.portfolio.summarize.model.OpenAiResponse;
+import com.portfolio.summarize.service.resilience.UpstreamErrors;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import com.portfolio.summarize.service.scheduling.Deadlines;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer instrumentation of completion calls.
+ * <p>
+ * Service-level meters ({@code openai.completion.*}) describe what callers see, including cache hits and
+ * coalesced calls. Upstream meters ({@code openai.upstream.request}, {@code openai.tokens}) describe each
+ * HTTP attempt against a target. Streams additionally record time to first token, the gap between tokens
+ * and the token rate after the first token. Attempts cancelled after their request was sent, because the
+ * caller went away, its deadline passed or a hedge won, are counted as {@code openai.upstream.abandoned}
+ * with the time they held a connection and the tokens they wasted.
+ */
+@Component
+public class CompletionMetrics {
+
+    private static final Duration MIN_EXPECTED_LATENCY = Duration.ofMillis(5);
+    private static final Duration MAX_EXPECTED_LATENCY = Duration.ofMinutes(2);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public CompletionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * What a completion is for; {@code summaryType} is the requested style, or section/merge for long documents
+     */
+    public record Operation(String endpoint, String summaryType, String model) {
+
+        private Tags tags() {
+            return Tags.of("endpoint", endpoint, "summary_type", summaryType != null ? summaryType : "none", "model", model);
+        }
+    }
+
+    /**
+     * Track a non-streaming call as seen by the caller: in-flight gauge, latency histogram and errors
+     */
+    public <T> Mono<T> observe(Operation operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            AtomicInteger active = inFlight(operation.endpoint());
+            active.incrementAndGet();
+            long start = System.nanoTime();
+            return call.doOnSuccess(value -> completion(operation, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(error -> {
+                        completion(operation, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        error(operation, error);
+                    })
+                    .doFinally(signal -> active.decrementAndGet());
+        });
+    }
+
+    /**
+     * Track a streaming call: in-flight gauge, time to first token, inter-token gaps, token rate and errors
+     */
+    public <T> Flux<T> observeStream(Operation operation, Flux<T> stream) {
+        return Flux.defer(() -> {
+            AtomicInteger active = inFlight(operation.endpoint());
+            active.incrementAndGet();
+            StreamTimings timings = new StreamTimings(operation, System.nanoTime());
+            return stream.doOnNext(element -> timings.onToken(System.nanoTime()))
+                    .doOnComplete(() -> timings.onComplete(System.nanoTime()))
+                    .doOnError(error -> error(operation, error))
+                    .doFinally(signal -> active.decrementAndGet());
+        });
+    }
+
+    /**
+     * Time one upstream HTTP attempt up to its response, tagged with target and status
+     */
+    public <T> Mono<T> timeUpstream(Operation operation, String target, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnSuccess(value -> upstream(operation, target, "2xx").record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(error -> upstream(operation, target, statusClass(error)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Track an upstream attempt from the moment its request is sent; cancelling it counts as abandonment
+     * and its {@code promptTokens} as wasted
+     */
+    public <T> Mono<T> trackAbandoned(Operation operation, String target, int promptTokens, Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            long start = System.nanoTime();
+            return call.doOnCancel(() -> abandoned(operation, target, ClientContext.from(context), start, promptTokens, 0));
+        });
+    }
+
+    /**
+     * Streaming variant; each element is a completion token that also counts as wasted when cancelled
+     */
+    public <T> Flux<T> trackAbandoned(Operation operation, String target, int promptTokens, Flux<T> call) {
+        return Flux.deferContextual(context -> {
+            long start = System.nanoTime();
+            AtomicLong received = new AtomicLong();
+            return call.doOnNext(element -> received.incrementAndGet())
+                    .doOnCancel(() -> abandoned(operation, target, ClientContext.from(context), start, promptTokens, received.get()));
+        });
+    }
+
+    /**
+     * Count prompt and completion tokens reported by the upstream
+     */
+    public void recordUsage(Operation operation, OpenAiResponse.Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        if (usage.promptTokens() != null) {
+            tokens(operation, "prompt").increment(usage.promptTokens());
+        }
+        if (usage.completionTokens() != null) {
+            tokens(operation, "completion").increment(usage.completionTokens());
+        }
+    }
+
+    /**
+     * Status class of a failed call: 429, 4xx, 5xx, throttled (refused locally), deadline, io or other
+     */
+    public static String statusClass(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 ? "429" : (status / 100) + "xx";
+        }
+        if (error instanceof ThrottledException throttled) {
+            return throttled.getStatus() == HttpStatus.GATEWAY_TIMEOUT ? "deadline" : "throttled";
+        }
+        if (UpstreamErrors.isTransient(error)) {
+            return "io";
+        }
+        return "other";
+    }
+
+    private void error(Operation operation, Throwable error) {
+        Counter.builder("openai.completion.errors")
+                .description("Failed completion calls by status class")
+                .tags(operation.tags())
+                .tag("status", statusClass(error))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void abandoned(Operation operation, String target, ClientContext client, long start,
+                           int promptTokens, long completionTokens) {
+        String reason = Deadlines.passed(client) ? "deadline" : "cancelled";
+        Timer.builder("openai.upstream.abandoned")
+                .description("Upstream attempts cancelled before finishing, by how long they held a connection")
+                .tags(operation.tags())
+                .tags("target", target, "reason", reason)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        wasted(operation, "prompt").increment(promptTokens);
+        if (completionTokens > 0) {
+            wasted(operation, "completion").increment(completionTokens);
+        }
+    }
+
+    private AtomicInteger inFlight(String endpoint) {
+        return inFlight.computeIfAbsent(endpoint, key -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder("openai.completion.inflight", counter, AtomicInteger::get)
+                    .description("Completion calls in progress")
+                    .tag("endpoint", key)
+                    .register(meterRegistry);
+            return counter;
+        });
+    }
+
+    private Timer completion(Operation operation, String outcome) {
+        return histogram("openai.completion", "Completion latency as seen by callers")
+                .tags(operation.tags())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer upstream(Operation operation, String target, String status) {
+        return histogram("openai.upstream.request", "Upstream HTTP latency to response headers")
+                .tags(operation.tags())
+                .tags("target", target, "status", status)
+                .register(meterRegistry);
+    }
+
+    private Counter tokens(Operation operation, String type) {
+        return Counter.builder("openai.tokens")
+                .description("Tokens reported by the upstream")
+                .baseUnit("tokens")
+                .tags(operation.tags())
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private Counter wasted(Operation operation, String type) {
+        return Counter.builder("openai.tokens.wasted")
+                .description("Tokens spent on upstream attempts that were abandoned")
+                .baseUnit("tokens")
+                .tags(operation.tags())
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static Timer.Builder histogram(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED_LATENCY)
+                .maximumExpectedValue(MAX_EXPECTED_LATENCY);
+    }
+
+    private final class StreamTimings {
+
+        private final Operation operation;
+        private final long startNanos;
+        private long firstTokenNanos;
+        private long lastTokenNanos;
+        private long tokens;
+        private Timer gaps;
+
+        private StreamTimings(Operation operation, long startNanos) {
+            this.operation = operation;
+            this.startNanos = startNanos;
+        }
+
+        private void onToken(long now) {
+            if (tokens == 0) {
+                firstTokenNanos = now;
+                histogram("openai.stream.ttft", "Time to first streamed token")
+                        .tags(operation.tags())
+                        .register(meterRegistry)
+                        .record(now - startNanos, TimeUnit.NANOSECONDS);
+            } else {
+                if (gaps == null) {
+                    gaps = Timer.builder("openai.stream.token.gap")
+                            .description("Time between consecutive streamed tokens")
+                            .publishPercentileHistogram()
+                            .minimumExpectedValue(Duration.ofMillis(1))
+                            .maximumExpectedValue(Duration.ofSeconds(30))
+                            .tags(operation.tags())
+                            .register(meterRegistry);
+                }
+                gaps.record(now - lastTokenNanos, TimeUnit.NANOSECONDS);
+            }
+            lastTokenNanos = now;
+            tokens++;
+        }
+
+        private void onComplete(long now) {
+            Counter.builder("openai.stream.tokens")
+                    .description("Streamed completion chunks, roughly one token each")
+                    .baseUnit("tokens")
+                    .tags(operation.tags())
+                    .register(meterRegistry)
+                    .increment(tokens);
+            long generationNanos = now - firstTokenNanos;
+            if (tokens > 1 && generationNanos > 0) {
+                DistributionSummary.builder("openai.stream.tokens.per.second")
+                        .description("Token rate of a stream after its first token")
+                        .tags(operation.tags())
+                        .publishPercentiles(0.5, 0.95)
+                        .register(meterRegistry)
+                        .record((tokens - 1) * 1e9 / generationNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.portfolio.summarize.service.ratelimit;
+
+import com.portfolio.summarize.config.RateLimitProperties;
+import com.portfolio.summarize.exception.ThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Client-side admission control for one upstream quota, enforcing requests-per-minute and
+ * tokens-per-minute budgets with two continuously refilling token buckets.
+ * <p>
+ * Admission works by reservation: a caller takes its cost immediately, possibly driving a bucket
+ * negative, and waits until the bucket would have refilled. Later callers therefore queue behind
+ * earlier ones in FIFO order without any explicit queue. Requests that would wait longer than
+ * {@code max-wait} are rejected with a {@link ThrottledException} instead. Token cost is an estimate
+ * that is corrected from the reported usage once the response arrives, and the budgets follow the
+ * {@code x-ratelimit-*} headers returned by the upstream.
+ */
+public class UpstreamRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamRateLimiter.class);
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private final String name;
+    private final boolean enabled;
+    private final boolean adaptive;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+
+    // Guarded by this
+    private final Bucket requests;
+    private final Bucket tokens;
+    private long pausedUntilNanos;
+
+    private final Timer waitTimer;
+    private final Counter rejections;
+
+    public UpstreamRateLimiter(String name, RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(name, properties, meterRegistry, System::nanoTime);
+    }
+
+    UpstreamRateLimiter(String name, RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.name = name;
+        this.enabled = properties.enabled();
+        this.adaptive = properties.adaptive();
+        this.maxWaitNanos = properties.maxWait().toNanos();
+        this.nanoClock = nanoClock;
+
+        long now = nanoClock.getAsLong();
+        this.requests = new Bucket(properties.requestsPerMinute(), now);
+        this.tokens = new Bucket(properties.tokensPerMinute(), now);
+        this.pausedUntilNanos = now;
+
+        this.waitTimer = Timer.builder("openai.ratelimit.wait")
+                .description("Time requests spent queued for upstream quota")
+                .tag("target", name)
+                .register(meterRegistry);
+        this.rejections = Counter.builder("openai.ratelimit.rejected")
+                .description("Requests rejected because the quota wait exceeded max-wait")
+                .tag("target", name)
+                .register(meterRegistry);
+        Gauge.builder("openai.ratelimit.available", this, limiter -> limiter.available(limiter.requests))
+                .tags("target", name, "budget", "requests")
+                .register(meterRegistry);
+        Gauge.builder("openai.ratelimit.available", this, limiter -> limiter.available(limiter.tokens))
+                .tags("target", name, "budget", "tokens")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserve one request and {@code estimatedTokens}; completes once the reservation is due.
+     * Cancelling while queued returns the reservation.
+     */
+    public Mono<Permit> acquire(int estimatedTokens) {
+        return Mono.defer(() -> reserve(estimatedTokens));
+    }
+
+    private Mono<Permit> reserve(int estimatedTokens) {
+        if (!enabled) {
+            return Mono.just(new Permit(0));
+        }
+
+        long waitNanos;
+        int cost;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            requests.refill(now);
+            tokens.refill(now);
+            cost = (int) Math.min(estimatedTokens, tokens.capacity);
+            waitNanos = Math.max(Math.max(requests.nanosUntil(1), tokens.nanosUntil(cost)), pausedUntilNanos - now);
+            if (waitNanos > maxWaitNanos) {
+                rejections.increment();
+                return Mono.error(ThrottledException.tooManyRequests("Upstream quota exhausted for " + name,
+                        Duration.ofNanos(waitNanos)));
+            }
+            requests.available -= 1;
+            tokens.available -= cost;
+        }
+
+        Permit permit = new Permit(cost);
+        waitTimer.record(Math.max(waitNanos, 0), TimeUnit.NANOSECONDS);
+        if (waitNanos <= 0) {
+            return Mono.just(permit);
+        }
+        logger.debug("Queuing request for {} ms on {}", TimeUnit.NANOSECONDS.toMillis(waitNanos), name);
+        return Mono.delay(Duration.ofNanos(waitNanos))
+                .thenReturn(permit)
+                .doOnCancel(permit::cancel);
+    }
+
+    /**
+     * How long a request of this size would currently queue for, without reserving anything
+     */
+    public synchronized long waitNanos(int estimatedTokens) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        requests.refill(now);
+        tokens.refill(now);
+        long wait = Math.max(requests.nanosUntil(1), tokens.nanosUntil(Math.min(estimatedTokens, tokens.capacity)));
+        return Math.max(wait, pausedUntilNanos - now);
+    }
+
+    /**
+     * Align the local budgets with the quota state reported by the upstream
+     */
+    public void updateFromHeaders(HttpHeaders headers) {
+        if (!enabled || !adaptive) {
+            return;
+        }
+        Long limitRequests = parseLong(headers.getFirst("x-ratelimit-limit-requests"));
+        Long limitTokens = parseLong(headers.getFirst("x-ratelimit-limit-tokens"));
+        Long remainingRequests = parseLong(headers.getFirst("x-ratelimit-remaining-requests"));
+        Long remainingTokens = parseLong(headers.getFirst("x-ratelimit-remaining-tokens"));
+
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            requests.refill(now);
+            tokens.refill(now);
+            if (limitRequests != null && limitRequests > 0) {
+                requests.resize(limitRequests);
+            }
+            if (limitTokens != null && limitTokens > 0) {
+                tokens.resize(limitTokens);
+            }
+            // Only ever become more conservative than the upstream's own view
+            if (remainingRequests != null) {
+                requests.available = Math.min(requests.available, remainingRequests);
+            }
+            if (remainingTokens != null) {
+                tokens.available = Math.min(tokens.available, remainingTokens);
+            }
+        }
+    }
+
+    /**
+     * The upstream answered 429: stop admitting until its reset hint has passed
+     */
+    public void onRateLimited(HttpHeaders headers) {
+        if (!enabled) {
+            return;
+        }
+        Duration pause = Duration.ofSeconds(1);
+        for (String header : new String[]{HttpHeaders.RETRY_AFTER, "x-ratelimit-reset-requests", "x-ratelimit-reset-tokens"}) {
+            Duration hint = parseDuration(headers.getFirst(header));
+            if (hint != null && hint.compareTo(pause) > 0) {
+                pause = hint;
+            }
+        }
+        updateFromHeaders(headers);
+        synchronized (this) {
+            pausedUntilNanos = Math.max(pausedUntilNanos, nanoClock.getAsLong() + pause.toNanos());
+        }
+        logger.warn("Upstream {} rate limited; pausing admissions for {} ms", name, pause.toMillis());
+    }
+
+    private synchronized double available(Bucket bucket) {
+        bucket.refill(nanoClock.getAsLong());
+        return bucket.available;
+    }
+
+    private synchronized void refund(int requestCount, long tokenCount) {
+        requests.available = Math.min(requests.capacity, requests.available + requestCount);
+        tokens.available = Math.min(tokens.capacity, tokens.available + tokenCount);
+    }
+
+    static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse {@code Retry-After} seconds or OpenAI reset durations such as {@code 1s}, {@code 6m0s}, {@code 20ms}
+     */
+    public static Duration parseDuration(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        Long seconds = parseLong(trimmed);
+        if (seconds != null) {
+            return Duration.ofSeconds(seconds);
+        }
+        Matcher matcher = DURATION_PART.matcher(trimmed);
+        double millis = 0;
+        boolean matched = false;
+        while (matcher.find()) {
+            matched = true;
+            double amount = Double.parseDouble(matcher.group(1));
+            millis += switch (matcher.group(2)) {
+                case "h" -> amount * 3_600_000;
+                case "m" -> amount * 60_000;
+                case "s" -> amount * 1_000;
+                default -> amount;
+            };
+        }
+        return matched ? Duration.ofMillis((long) Math.ceil(millis)) : null;
+    }
+
+    /**
+     * A granted reservation. Report the real token usage once known so the budget can be corrected.
+     */
+    public final class Permit {
+
+        private final int reservedTokens;
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private Permit(int reservedTokens) {
+            this.reservedTokens = reservedTokens;
+        }
+
+        /**
+         * Replace the estimate with the usage reported by the upstream
+         */
+        public void reconcile(int actualTokens) {
+            if (enabled && settled.compareAndSet(false, true) && actualTokens != reservedTokens) {
+                synchronized (UpstreamRateLimiter.this) {
+                    tokens.available = Math.min(tokens.capacity, tokens.available + reservedTokens - actualTokens);
+                }
+            }
+        }
+
+        /**
+         * The request was abandoned before reaching the upstream; return the whole reservation
+         */
+        void cancel() {
+            if (enabled && settled.compareAndSet(false, true)) {
+                refund(1, reservedTokens);
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private double capacity;
+        private double available;
+        private double perNano;
+        private long lastRefillNanos;
+
+        private Bucket(long perMinute, long now) {
+            this.capacity = perMinute;
+            this.available = perMinute;
+            this.perNano = (double) perMinute / NANOS_PER_MINUTE;
+            this.lastRefillNanos = now;
+        }
+
+        private void refill(long now) {
+            if (now > lastRefillNanos) {
+                available = Math.min(capacity, available + (now - lastRefillNanos) * perNano);
+                lastRefillNanos = now;
+            }
+        }
+
+        private long nanosUntil(double amount) {
+            return available >= amount ? 0 : (long) Math.ceil((amount - available) / perNano);
+        }
+
+        private void resize(long perMinute) {
+            if (perMinute != (long) capacity) {
+                capacity = perMinute;
+                perNano = (double) perMinute / NANOS_PER_MINUTE;
+                available = Math.min(available, capacity);
+            }
+        }
+    }
+}
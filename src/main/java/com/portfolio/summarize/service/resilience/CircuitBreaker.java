@@ -0,0 +1,225 @@
+package com.portfolio.summarize.service.resilience;
+
+import com.portfolio.summarize.config.ResilienceProperties;
+import com.portfolio.summarize.exception.ThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for one upstream.
+ * <p>
+ * Outcomes of the last {@code sliding-window-size} calls are kept in a ring. Once at least
+ * {@code minimum-calls} are recorded and the failure rate reaches the threshold, the circuit opens and calls
+ * fail fast with a 503 {@link ThrottledException}. After {@code open-duration} a limited number of trial calls
+ * are let through: one failure re-opens the circuit, {@code half-open-calls} successes close it again.
+ * Only upstream health failures count (see {@link UpstreamErrors#isUpstreamFailure}); client errors are
+ * recorded as successes and local throttling is not recorded at all.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final boolean enabled;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    // Guarded by this
+    private final boolean[] outcomes;
+    private int recorded;
+    private int failures;
+    private int next;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    private final Counter rejections;
+
+    public CircuitBreaker(String name, ResilienceProperties.Breaker properties, MeterRegistry meterRegistry) {
+        this(name, properties, meterRegistry, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, ResilienceProperties.Breaker properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.name = name;
+        this.enabled = properties.enabled();
+        this.outcomes = new boolean[properties.slidingWindowSize()];
+        this.minimumCalls = properties.minimumCalls();
+        this.failureRateThreshold = properties.failureRateThreshold();
+        this.openNanos = properties.openDuration().toNanos();
+        this.halfOpenCalls = properties.halfOpenCalls();
+        this.nanoClock = nanoClock;
+
+        this.rejections = Counter.builder("openai.circuitbreaker.rejected")
+                .description("Calls refused while the circuit was open")
+                .tag("target", name)
+                .register(meterRegistry);
+        Gauge.builder("openai.circuitbreaker.state", this, breaker -> breaker.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .tag("target", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the call through the breaker, failing fast while the circuit is open
+     */
+    public <T> Mono<T> run(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                return Mono.error(rejected());
+            }
+            return call.doOnSuccess(value -> onSuccess())
+                    .doOnError(this::onError)
+                    .doOnCancel(this::release);
+        });
+    }
+
+    /**
+     * Run a streaming call through the breaker; the outcome is recorded when the stream terminates
+     */
+    public <T> Flux<T> runStream(Flux<T> call) {
+        return Flux.defer(() -> {
+            if (!tryAcquire()) {
+                return Flux.error(rejected());
+            }
+            return call.doOnComplete(this::onSuccess)
+                    .doOnError(this::onError)
+                    .doOnCancel(this::release);
+        });
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsInFlight = 0;
+            trialSuccesses = 0;
+            logger.info("Circuit for {} half-open; sending trial calls", name);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsInFlight + trialSuccesses >= halfOpenCalls) {
+                return false;
+            }
+            trialsInFlight++;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (!enabled) {
+            return;
+        }
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> {
+                trialsInFlight = Math.max(0, trialsInFlight - 1);
+                if (++trialSuccesses >= halfOpenCalls) {
+                    close();
+                }
+            }
+            case OPEN -> {
+                // Late result of a call admitted before the circuit opened
+            }
+        }
+    }
+
+    synchronized void onFailure() {
+        if (!enabled) {
+            return;
+        }
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                    open();
+                }
+            }
+            case HALF_OPEN -> open();
+            case OPEN -> {
+            }
+        }
+    }
+
+    /**
+     * The call ended without an outcome (cancelled or throttled locally); frees a half-open trial slot
+     */
+    synchronized void release() {
+        if (enabled && state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+        }
+    }
+
+    private void onError(Throwable error) {
+        if (error instanceof ThrottledException) {
+            release();
+        } else if (UpstreamErrors.isUpstreamFailure(error)) {
+            onFailure();
+        } else {
+            onSuccess();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        logger.warn("Circuit for {} opened after {} failures in {} calls", name, failures, recorded);
+        state = State.OPEN;
+        openedAtNanos = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        logger.info("Circuit for {} closed", name);
+        state = State.CLOSED;
+        recorded = 0;
+        failures = 0;
+        next = 0;
+    }
+
+    private synchronized ThrottledException rejected() {
+        rejections.increment();
+        long remaining = Math.max(0, openNanos - (nanoClock.getAsLong() - openedAtNanos));
+        return ThrottledException.unavailable("Circuit open for upstream " + name, Duration.ofNanos(remaining));
+    }
+}
@@ -0,0 +1,60 @@
+package com.portfolio.summarize.service.resilience;
+
+import com.portfolio.summarize.service.ratelimit.UpstreamRateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Classification of upstream errors for retrying and circuit breaking
+ */
+public final class UpstreamErrors {
+
+    private UpstreamErrors() {
+    }
+
+    /**
+     * Whether the same request may succeed if sent again: 429, 5xx, connection errors and timeouts
+     */
+    public static boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == 429 || response.getStatusCode().is5xxServerError();
+        }
+        return isConnectionFailure(error);
+    }
+
+    /**
+     * Whether the error says the upstream itself is unhealthy. Quota (429) and client errors do not count.
+     */
+    public static boolean isUpstreamFailure(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return isConnectionFailure(error);
+    }
+
+    /**
+     * The upstream's {@code Retry-After} hint, if the error carries one
+     */
+    public static Duration retryAfter(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return UpstreamRateLimiter.parseDuration(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        }
+        return null;
+    }
+
+    private static boolean isConnectionFailure(Throwable error) {
+        if (error instanceof WebClientRequestException) {
+            return true;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof io.netty.handler.timeout.TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,210 @@
+package com.portfolio.summarize.service.resilience;
+
+import com.portfolio.summarize.config.ResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Retries and hedging around single upstream attempts.
+ * <p>
+ * Transient failures (see {@link UpstreamErrors#isTransient}) are retried with exponential backoff and
+ * jitter. A {@code Retry-After} hint longer than the computed delay is honoured, and one longer than
+ * {@code max-backoff} ends retrying so the caller sees the throttling immediately. Streams are only retried
+ * until their first element, since tokens already delivered cannot be taken back.
+ * <p>
+ * With hedging enabled, a non-streaming attempt that is still outstanding after the recent latency
+ * percentile gets a second, identical attempt. The first value wins and the other attempt is cancelled.
+ */
+@Component
+public class UpstreamResilience {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamResilience.class);
+
+    private final ResilienceProperties.Retry retry;
+    private final ResilienceProperties.Hedging hedging;
+
+    private final Timer latency;
+    private final Counter retries;
+    private final Counter hedges;
+
+    public UpstreamResilience(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.retry = properties.retry();
+        this.hedging = properties.hedging();
+
+        this.latency = Timer.builder("openai.upstream.latency")
+                .description("Latency of successful non-streaming upstream attempts")
+                .publishPercentiles(hedging.percentile())
+                .distributionStatisticExpiry(Duration.ofMinutes(2))
+                .register(meterRegistry);
+        this.retries = Counter.builder("openai.upstream.retries")
+                .description("Upstream attempts repeated after a transient failure")
+                .register(meterRegistry);
+        this.hedges = Counter.builder("openai.upstream.hedges")
+                .description("Hedged attempts sent for slow upstream calls")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Execute a non-streaming call; {@code attempt} is invoked once per try and must be safe to repeat
+     */
+    public <T> Mono<T> call(Supplier<Mono<T>> attempt) {
+        return Mono.defer(() -> {
+                    Duration hedgeDelay = hedgeDelay();
+                    return hedgeDelay == null ? timed(attempt) : hedged(attempt, hedgeDelay);
+                })
+                .retryWhen(retrySpec(() -> true));
+    }
+
+    /**
+     * Execute a streaming call, retrying transient failures that happen before the first element
+     */
+    public <T> Flux<T> stream(Supplier<Flux<T>> attempt) {
+        return Flux.defer(() -> {
+            AtomicBoolean emitted = new AtomicBoolean();
+            return Flux.defer(attempt)
+                    .doOnNext(element -> emitted.lazySet(true))
+                    .retryWhen(retrySpec(() -> !emitted.get()));
+        });
+    }
+
+    private Retry retrySpec(BooleanSupplier retryable) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            long attempt = signal.totalRetries() + 1;
+            if (attempt >= retry.maxAttempts() || !retryable.getAsBoolean() || !UpstreamErrors.isTransient(failure)) {
+                return Mono.error(failure);
+            }
+            Duration delay = backoff(attempt, UpstreamErrors.retryAfter(failure));
+            if (delay == null) {
+                return Mono.error(failure);
+            }
+            retries.increment();
+            logger.warn("Upstream attempt {} failed ({}); retrying in {} ms", attempt, failure.getMessage(), delay.toMillis());
+            return Mono.delay(delay);
+        }));
+    }
+
+    /**
+     * Jittered exponential delay before retry {@code attempt}, or null when the upstream asks for a longer pause
+     */
+    Duration backoff(long attempt, Duration retryAfter) {
+        long exponential = retry.initialBackoff().toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(exponential, retry.maxBackoff().toMillis());
+        long delay = (long) (capped * (1 - retry.jitter() * ThreadLocalRandom.current().nextDouble()));
+        if (retryAfter != null) {
+            if (retryAfter.compareTo(retry.maxBackoff()) > 0) {
+                return null;
+            }
+            delay = Math.max(delay, retryAfter.toMillis());
+        }
+        return Duration.ofMillis(delay);
+    }
+
+    /**
+     * Current hedging delay from the latency percentile, or null while hedging is off or warming up
+     */
+    Duration hedgeDelay() {
+        if (!hedging.enabled() || latency.count() < hedging.minSamples()) {
+            return null;
+        }
+        long millis = 0;
+        for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+            millis = (long) value.value(TimeUnit.MILLISECONDS);
+        }
+        return Duration.ofMillis(Math.max(hedging.minDelay().toMillis(), Math.min(millis, hedging.maxDelay().toMillis())));
+    }
+
+    private <T> Mono<T> timed(Supplier<Mono<T>> attempt) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return attempt.get().doOnSuccess(value -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private <T> Mono<T> hedged(Supplier<Mono<T>> attempt, Duration delay) {
+        return Mono.create(sink -> new HedgedCall<>(sink, () -> timed(attempt)).start(delay));
+    }
+
+    /**
+     * Races a primary attempt against a delayed hedge. An error before the hedge is sent fails immediately
+     * so the retry policy can act; once both are running, the call only fails when both have failed.
+     */
+    private final class HedgedCall<T> {
+
+        private final MonoSink<T> sink;
+        private final Supplier<Mono<T>> attempt;
+        private final Disposable.Composite inFlight = Disposables.composite();
+
+        // Guarded by this
+        private int running;
+        private boolean done;
+
+        private HedgedCall(MonoSink<T> sink, Supplier<Mono<T>> attempt) {
+            this.sink = sink;
+            this.attempt = attempt;
+        }
+
+        private void start(Duration delay) {
+            sink.onDispose(inFlight);
+            launch();
+            inFlight.add(Mono.delay(delay).subscribe(tick -> hedge()));
+        }
+
+        private synchronized void launch() {
+            running++;
+            inFlight.add(attempt.get()
+                    .contextWrite(sink.contextView())
+                    .subscribe(this::succeed, this::fail, () -> succeed(null)));
+        }
+
+        private synchronized void hedge() {
+            if (!done) {
+                hedges.increment();
+                launch();
+            }
+        }
+
+        private void succeed(T value) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            if (value != null) {
+                sink.success(value);
+            } else {
+                sink.success();
+            }
+        }
+
+        private void fail(Throwable error) {
+            synchronized (this) {
+                running--;
+                if (done || running > 0) {
+                    return;
+                }
+                done = true;
+            }
+            sink.error(error);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.portfolio.summarize.service.routing;
+
+/**
+ * The model a request is sent to, named after the rule that chose it. A cascading route's answer is
+ * checked and, when it fails, replaced by one from openai.model.
+ */
+public record ModelRoute(
+    String name,
+    String model,
+    boolean cascade
+) {
+    /**
+     * This route sending to {@code model} instead, without a cascade when the model changes
+     */
+    public ModelRoute withModel(String model) {
+        return model.equals(this.model) ? this : new ModelRoute(name, model, false);
+    }
+}
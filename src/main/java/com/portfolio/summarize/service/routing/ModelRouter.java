@@ -0,0 +1,213 @@
+package com.portfolio.summarize.service.routing;
+
+import com.portfolio.summarize.config.ModelRoutingProperties;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.exception.GlobalExceptionHandler;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Chooses the model for each request from {@code openai.models.rules}, so short or deadline-bound work can
+ * go to a faster model than {@code openai.model}.
+ * <p>
+ * Rules match on endpoint, summary or message type, prompt tokens and the time left before the caller's
+ * {@code X-Request-Timeout}. The first match wins; requests matching none use {@code openai.model}.
+ * A cascading rule's answer is checked before it is returned, and the request is escalated to
+ * {@code openai.model} when the call fails upstream or the answer is too short, longer than the text it summarizes,
+ * a refusal, or mostly not in its summary type's format, such as bullets for {@code bullet_points}.
+ * Streams reach the caller as they are generated and cannot be checked, so cascading rules send them to
+ * {@code openai.model} directly.
+ */
+@Component
+public class ModelRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+
+    public static final String DEFAULT_ROUTE = "default";
+
+    private static final String ACCEPTED = "accepted";
+    private static final String ESCALATED = "escalated";
+    private static final String ERROR = "error";
+    private static final Pattern LINE_BREAK = Pattern.compile("\\r?\\n");
+
+    private final List<ModelRoutingProperties.Rule> rules;
+    private final List<ModelRoute> routes = new ArrayList<>();
+    private final ModelRoute defaultRoute;
+    private final int minLength;
+    private final List<Pattern> refusals = new ArrayList<>();
+    private final Map<String, Pattern> formats = new HashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ModelRouter(ModelRoutingProperties properties, OpenAiProperties openAiProperties, MeterRegistry meterRegistry) {
+        this.rules = properties.rules();
+        this.defaultRoute = new ModelRoute(DEFAULT_ROUTE, openAiProperties.model(), false);
+        for (int i = 0; i < rules.size(); i++) {
+            ModelRoutingProperties.Rule rule = rules.get(i);
+            routes.add(new ModelRoute(rule.name() != null ? rule.name() : "rule-" + (i + 1), rule.model(),
+                    rule.cascade() && !rule.model().equals(defaultRoute.model())));
+        }
+        this.minLength = properties.validation().minLength();
+        for (String refusal : properties.validation().refusals()) {
+            refusals.add(Pattern.compile(refusal, Pattern.MULTILINE));
+        }
+        properties.validation().formats().forEach((summaryType, format) ->
+                formats.put(summaryType.toLowerCase(Locale.ROOT), Pattern.compile(format)));
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Route of a request; {@code messageType} applies to generated messages, {@code summaryType} to summaries
+     */
+    public ModelRoute route(String endpoint, String summaryType, String messageType, int promptTokens,
+                            ClientContext client, boolean streaming) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (matches(rules.get(i), endpoint, summaryType, messageType, promptTokens, client.deadlineNanos())) {
+                ModelRoute route = routes.get(i);
+                return streaming && route.cascade() ? route.withModel(defaultRoute.model()) : route;
+            }
+        }
+        return defaultRoute;
+    }
+
+    /**
+     * Run a routed completion, replacing a cascading route's answer with {@code escalation}'s when it fails
+     * validation. A summary is also checked against {@code summarized}, the text it summarizes, if given.
+     */
+    public Mono<String> complete(ModelRoute route, Mono<String> completion, Mono<String> escalation,
+                                 String summaryType, String summarized) {
+        if (!route.cascade()) {
+            return observe(route, completion, ACCEPTED);
+        }
+        return Mono.defer(() -> {
+            String[] outcome = {ACCEPTED};
+            Mono<String> cascaded = completion
+                    .flatMap(output -> {
+                        String failure = failure(summaryType, summarized, output);
+                        if (failure == null) {
+                            return Mono.just(output);
+                        }
+                        outcome[0] = ESCALATED;
+                        escalate(route, failure);
+                        return escalation;
+                    })
+                    // Throttling, an exhausted budget, a passed deadline or an invalid request would fail the escalation too
+                    .onErrorResume(error -> !GlobalExceptionHandler.isHandled(error) && outcome[0].equals(ACCEPTED), error -> {
+                        outcome[0] = ESCALATED;
+                        escalate(route, ERROR);
+                        return escalation;
+                    });
+            return observe(route, cascaded, outcome);
+        });
+    }
+
+    /**
+     * Time a routed stream until it ends
+     */
+    public Flux<String> stream(ModelRoute route, Flux<String> completion) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return completion
+                    .doOnComplete(() -> latency(route, ACCEPTED).record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(error -> latency(route, ERROR).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Why {@code output} fails validation, or null when it passes
+     */
+    String failure(String summaryType, String summarized, String output) {
+        String answer = output != null ? output.strip() : "";
+        if (answer.length() < minLength || (summarized != null && answer.length() > summarized.length())) {
+            return "length";
+        }
+        for (Pattern refusal : refusals) {
+            if (refusal.matcher(answer).find()) {
+                return "refusal";
+            }
+        }
+        Pattern format = summaryType != null ? formats.get(summaryType.toLowerCase(Locale.ROOT)) : null;
+        if (format != null) {
+            int lines = 0;
+            int formatted = 0;
+            for (String line : LINE_BREAK.split(answer)) {
+                if (!line.isBlank()) {
+                    lines++;
+                    if (format.matcher(line).find()) {
+                        formatted++;
+                    }
+                }
+            }
+            if (formatted * 2 < lines) {
+                return "format";
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(ModelRoutingProperties.Rule rule, String endpoint, String summaryType, String messageType,
+                            int promptTokens, Long deadlineNanos) {
+        return (rule.endpoints().isEmpty() || containsIgnoreCase(rule.endpoints(), endpoint))
+                && (rule.summaryTypes().isEmpty() || containsIgnoreCase(rule.summaryTypes(), summaryType))
+                && (rule.messageTypes().isEmpty() || containsIgnoreCase(rule.messageTypes(), messageType))
+                && (rule.maxInputTokens() == null || promptTokens <= rule.maxInputTokens())
+                && (rule.maxTimeout() == null
+                        || (deadlineNanos != null && deadlineNanos - System.nanoTime() <= rule.maxTimeout().toNanos()));
+    }
+
+    private static boolean containsIgnoreCase(List<String> values, String value) {
+        if (value == null) {
+            return false;
+        }
+        for (String candidate : values) {
+            if (candidate.equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mono<String> observe(ModelRoute route, Mono<String> completion, String outcome) {
+        return observe(route, completion, new String[] {outcome});
+    }
+
+    private Mono<String> observe(ModelRoute route, Mono<String> completion, String[] outcome) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return completion
+                    .doOnSuccess(value -> latency(route, outcome[0]).record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(error -> latency(route, ERROR).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private void escalate(ModelRoute route, String reason) {
+        logger.debug("Escalating route {} from {}: {}", route.name(), route.model(), reason);
+        Counter.builder("openai.route.escalations")
+                .description("Cascaded answers replaced by one from the default model, by reason")
+                .tags("route", route.name(), "model", route.model(), "reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer latency(ModelRoute route, String outcome) {
+        return Timer.builder("openai.route.latency")
+                .description("Completion latency per model route, including any escalation")
+                .tags("route", route.name(), "model", route.model(), "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,83 @@
+package com.portfolio.summarize.service.routing;
+
+import com.portfolio.summarize.config.RoutingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses the upstream target for each attempt.
+ * <p>
+ * Targets whose circuit is open are ejected until the breaker lets trial calls through again. Among the rest,
+ * targets that can admit the request without queueing for quota are preferred; ties are broken by the
+ * configured strategy, either fewest requests in flight or decayed latency weighted by requests in flight.
+ * Scanning starts at a random target so equal candidates share the load.
+ */
+public class UpstreamRouter {
+
+    private final List<UpstreamTarget> targets;
+    private final RoutingProperties.Strategy strategy;
+
+    public UpstreamRouter(List<UpstreamTarget> targets, RoutingProperties.Strategy strategy, MeterRegistry meterRegistry) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("At least one upstream target is required");
+        }
+        this.targets = List.copyOf(targets);
+        this.strategy = strategy;
+
+        for (UpstreamTarget target : this.targets) {
+            Gauge.builder("openai.upstream.outstanding", target, UpstreamTarget::outstanding)
+                    .description("Requests in flight to the target")
+                    .tag("target", target.getName())
+                    .register(meterRegistry);
+            Gauge.builder("openai.upstream.latency.ewma", target, t -> t.latencyNanos() / TimeUnit.MILLISECONDS.toNanos(1))
+                    .description("Decayed latency average used for routing")
+                    .baseUnit("milliseconds")
+                    .tag("target", target.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Pick the target for a request of the given estimated size. When every target is ejected one is still
+     * returned; its circuit breaker then rejects the call.
+     */
+    public UpstreamTarget select(int estimatedTokens) {
+        if (targets.size() == 1) {
+            return targets.get(0);
+        }
+
+        UpstreamTarget best = null;
+        boolean bestReady = false;
+        double bestCost = Double.MAX_VALUE;
+        int offset = ThreadLocalRandom.current().nextInt(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            UpstreamTarget target = targets.get((offset + i) % targets.size());
+            if (!target.isAvailable()) {
+                continue;
+            }
+            boolean ready = target.getRateLimiter().waitNanos(estimatedTokens) == 0;
+            double cost = cost(target);
+            if (best == null || (ready && !bestReady) || (ready == bestReady && cost < bestCost)) {
+                best = target;
+                bestReady = ready;
+                bestCost = cost;
+            }
+        }
+        return best != null ? best : targets.get(offset);
+    }
+
+    public List<UpstreamTarget> getTargets() {
+        return targets;
+    }
+
+    private double cost(UpstreamTarget target) {
+        return switch (strategy) {
+            case LEAST_OUTSTANDING -> target.outstanding();
+            case EWMA_LATENCY -> (target.latencyNanos() + 1) * (target.outstanding() + 1);
+        };
+    }
+}
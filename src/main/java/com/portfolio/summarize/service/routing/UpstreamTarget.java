@@ -0,0 +1,159 @@
+package com.portfolio.summarize.service.routing;
+
+import com.portfolio.summarize.model.OpenAiRequest;
+import com.portfolio.summarize.service.ratelimit.UpstreamRateLimiter;
+import com.portfolio.summarize.service.resilience.CircuitBreaker;
+import com.portfolio.summarize.service.resilience.UpstreamErrors;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * One OpenAI-compatible endpoint and key, with its own quota, circuit breaker and load statistics.
+ * <p>
+ * Latency is tracked as a peak-sensitive EWMA: a slower sample replaces the average immediately, faster
+ * samples pull it down gradually, and the value decays towards zero while the target is idle so that
+ * penalised targets are tried again. Streams are measured to their first element.
+ */
+public class UpstreamTarget {
+
+    private static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    private final URI completionsUri;
+    private final String apiKey;
+    private final String model;
+    private final UpstreamRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final double decayNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    // Guarded by this
+    private double ewmaNanos;
+    private long lastSampleNanos;
+
+    public UpstreamTarget(String name, String baseUrl, String apiKey, String model,
+                          UpstreamRateLimiter rateLimiter, CircuitBreaker circuitBreaker, long decayNanos) {
+        this(name, baseUrl, apiKey, model, rateLimiter, circuitBreaker, decayNanos, System::nanoTime);
+    }
+
+    UpstreamTarget(String name, String baseUrl, String apiKey, String model, UpstreamRateLimiter rateLimiter,
+                   CircuitBreaker circuitBreaker, long decayNanos, LongSupplier nanoClock) {
+        this.name = name;
+        this.completionsUri = URI.create(baseUrl.replaceAll("/+$", "") + "/chat/completions");
+        this.apiKey = apiKey;
+        this.model = model;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.decayNanos = decayNanos;
+        this.nanoClock = nanoClock;
+        this.lastSampleNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Run a call against this target, tracking it as outstanding and feeding its latency into the average
+     */
+    public <T> Mono<T> run(Mono<T> call) {
+        return circuitBreaker.run(Mono.defer(() -> {
+            outstanding.incrementAndGet();
+            long start = nanoClock.getAsLong();
+            return call.doOnSuccess(value -> observe(nanoClock.getAsLong() - start))
+                    .doOnError(error -> onError(error, start))
+                    .doFinally(signal -> outstanding.decrementAndGet());
+        }));
+    }
+
+    /**
+     * Run a streaming call against this target; latency is the time to the first element
+     */
+    public <T> Flux<T> runStream(Flux<T> call) {
+        return circuitBreaker.runStream(Flux.defer(() -> {
+            outstanding.incrementAndGet();
+            long start = nanoClock.getAsLong();
+            AtomicBoolean first = new AtomicBoolean(true);
+            return call.doOnNext(element -> {
+                        if (first.compareAndSet(true, false)) {
+                            observe(nanoClock.getAsLong() - start);
+                        }
+                    })
+                    .doOnError(error -> onError(error, start))
+                    .doFinally(signal -> outstanding.decrementAndGet());
+        }));
+    }
+
+    /**
+     * The request as this target expects it: the target's model, if one is configured, replaces
+     * {@code defaultModel}, while a model chosen by a routing rule is sent as chosen
+     */
+    public OpenAiRequest adapt(OpenAiRequest request, String defaultModel) {
+        if (model == null || model.isBlank() || model.equals(request.model()) || !request.model().equals(defaultModel)) {
+            return request;
+        }
+        return new OpenAiRequest(model, request.messages(), request.maxTokens(), request.temperature(), request.stream(),
+                request.streamOptions(), request.promptTokens());
+    }
+
+    public void authorize(HttpHeaders headers) {
+        if (apiKey != null && !apiKey.isBlank()) {
+            headers.setBearerAuth(apiKey);
+        }
+    }
+
+    /**
+     * Decayed latency average in nanoseconds
+     */
+    public synchronized double latencyNanos() {
+        long now = nanoClock.getAsLong();
+        return ewmaNanos * Math.exp(-(now - lastSampleNanos) / decayNanos);
+    }
+
+    public boolean isAvailable() {
+        return circuitBreaker.getState() != CircuitBreaker.State.OPEN;
+    }
+
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public URI getCompletionsUri() {
+        return completionsUri;
+    }
+
+    public UpstreamRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    synchronized void observe(long latencyNanos) {
+        long now = nanoClock.getAsLong();
+        if (latencyNanos > ewmaNanos) {
+            ewmaNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-(now - lastSampleNanos) / decayNanos);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastSampleNanos = now;
+    }
+
+    private void onError(Throwable error, long start) {
+        if (UpstreamErrors.isUpstreamFailure(error)) {
+            long elapsed = nanoClock.getAsLong() - start;
+            observe(Math.max(elapsed, Math.max(FAILURE_PENALTY_NANOS, (long) (2 * latencyNanos()))));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.portfolio.summarize.service.scheduling;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Who an upstream call is made for, carried in the Reactor context from the web layer down to the
+ * scheduler. {@code deadlineNanos} is a {@link System#nanoTime()} instant after which the caller no
+ * longer wants the answer, or {@code null} when it did not say.
+ */
+public record ClientContext(
+    String tenant,
+    RequestPriority priority,
+    Long deadlineNanos
+) {
+    public static final String ANONYMOUS = "anonymous";
+
+    private static final ClientContext DEFAULT = new ClientContext(ANONYMOUS, RequestPriority.STANDARD, null);
+
+    public ClientContext {
+        if (tenant == null || tenant.isBlank()) {
+            tenant = ANONYMOUS;
+        }
+        if (priority == null) {
+            priority = RequestPriority.STANDARD;
+        }
+    }
+
+    public static ClientContext from(ContextView context) {
+        return context.getOrDefault(ClientContext.class, DEFAULT);
+    }
+
+    public Context addTo(Context context) {
+        return context.put(ClientContext.class, this);
+    }
+}
@@ -0,0 +1,65 @@
+package com.portfolio.summarize.service.scheduling;
+
+import com.portfolio.summarize.exception.ThrottledException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies the caller's deadline from {@link ClientContext} to a call. A call whose deadline has already
+ * passed fails without being subscribed; one still running when the deadline passes is cancelled, which
+ * cancels its upstream request and frees the connection, and fails with a 504.
+ */
+public final class Deadlines {
+
+    private Deadlines() {
+    }
+
+    public static <T> Mono<T> enforce(Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            Long deadlineNanos = ClientContext.from(context).deadlineNanos();
+            if (deadlineNanos == null) {
+                return call;
+            }
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return Mono.error(alreadyPassed());
+            }
+            return call.timeout(Duration.ofNanos(remaining), Mono.error(Deadlines::exceeded));
+        });
+    }
+
+    public static <T> Flux<T> enforce(Flux<T> call) {
+        return Flux.deferContextual(context -> {
+            Long deadlineNanos = ClientContext.from(context).deadlineNanos();
+            if (deadlineNanos == null) {
+                return call;
+            }
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return Flux.error(alreadyPassed());
+            }
+            // Completing on the timer's tick cancels the stream; the flag turns that completion into the error
+            AtomicBoolean expired = new AtomicBoolean();
+            return call.takeUntilOther(Mono.delay(Duration.ofNanos(remaining)).doOnNext(tick -> expired.set(true)))
+                    .concatWith(Mono.defer(() -> expired.get() ? Mono.error(exceeded()) : Mono.empty()));
+        });
+    }
+
+    /**
+     * Whether the caller's deadline, if any, has passed
+     */
+    public static boolean passed(ClientContext client) {
+        return client.deadlineNanos() != null && client.deadlineNanos() - System.nanoTime() <= 0;
+    }
+
+    private static ThrottledException alreadyPassed() {
+        return ThrottledException.deadlineExceeded("Request deadline already passed");
+    }
+
+    private static ThrottledException exceeded() {
+        return ThrottledException.deadlineExceeded("Request deadline passed before the completion finished");
+    }
+}
@@ -0,0 +1,41 @@
+package com.portfolio.summarize.service.scheduling;
+
+import com.portfolio.summarize.config.SchedulerProperties;
+
+/**
+ * Priority classes of upstream work, from most to least latency sensitive
+ */
+public enum RequestPriority {
+
+    /** A person or agent is waiting on the tokens, e.g. streaming generation */
+    INTERACTIVE,
+
+    /** Single request/response calls */
+    STANDARD,
+
+    /** Bulk and long-document work where throughput matters more than latency */
+    BATCH;
+
+    int weight(SchedulerProperties.PriorityWeights weights) {
+        return switch (this) {
+            case INTERACTIVE -> weights.interactive();
+            case STANDARD -> weights.standard();
+            case BATCH -> weights.batch();
+        };
+    }
+
+    /**
+     * Parse a client supplied priority, ignoring unknown values
+     */
+    public static RequestPriority parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (RequestPriority priority : values()) {
+            if (priority.name().equalsIgnoreCase(value.trim())) {
+                return priority;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,376 @@
+package com.portfolio.summarize.service.scheduling;
+
+import com.portfolio.summarize.config.SchedulerProperties;
+import com.portfolio.summarize.exception.ThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the upstream: at most {@code max-concurrent} calls run at once and the
+ * rest wait in a bounded queue ordered by self-clocked weighted fair queuing.
+ * <p>
+ * Every (priority, tenant) pair is a flow whose weight is the product of the priority weight and the
+ * tenant weight. A queued call is tagged with the virtual time at which its flow would finish it when
+ * served at its weighted share, and calls are dispatched in tag order. Backlogged flows are therefore
+ * served in proportion to their weights, a burst from one tenant cannot starve another, and a fresh
+ * interactive call overtakes bulk work queued at the same moment.
+ * <p>
+ * When the queue is full, a call evicts the newest queued call of a lower priority class, or is
+ * rejected with a {@link ThrottledException} carrying a retry hint. Calls still queued when their
+ * caller's deadline passes, or when the caller cancels, are dropped without reaching the upstream.
+ * <p>
+ * The caller is identified by the {@link ClientContext} in the Reactor context.
+ */
+@Component
+public class RequestScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestScheduler.class);
+
+    private static final double SERVICE_TIME_ALPHA = 0.2;
+    private static final Duration MIN_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final SchedulerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final Scheduler timer;
+
+    // Guarded by this
+    private final NavigableSet<Ticket> queue = new TreeSet<>(Ticket.ORDER);
+    private final Map<String, Flow> flows = new HashMap<>();
+    private final Map<String, Integer> queuedPerTenant = new HashMap<>();
+    private final int[] queuedPerPriority = new int[RequestPriority.values().length];
+    private double virtualTime;
+    private long sequence;
+    private int active;
+    private double serviceNanos = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<RequestPriority, Timer> waitTimers = new EnumMap<>(RequestPriority.class);
+
+    @Autowired
+    public RequestScheduler(SchedulerProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime, Schedulers.parallel());
+    }
+
+    RequestScheduler(SchedulerProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock, Scheduler timer) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.timer = timer;
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            String tag = tag(priority);
+            waitTimers.put(priority, Timer.builder("openai.scheduler.wait")
+                    .description("Time calls spent queued before being dispatched to the upstream")
+                    .tag("priority", tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            Gauge.builder("openai.scheduler.queued", this, scheduler -> scheduler.queued(priority))
+                    .description("Calls waiting for an upstream slot")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("openai.scheduler.active", this, RequestScheduler::active)
+                .description("Upstream calls currently holding a slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run {@code call} once a slot is granted; the slot is held until the returned Mono terminates
+     */
+    public <T> Mono<T> schedule(Supplier<Mono<T>> call) {
+        if (!properties.enabled()) {
+            return Mono.defer(call);
+        }
+        return Mono.deferContextual(context -> {
+            Ticket ticket = new Ticket(ClientContext.from(context));
+            return admit(ticket)
+                    .then(Mono.defer(call))
+                    .doFinally(signal -> release(ticket));
+        });
+    }
+
+    /**
+     * Run {@code call} once a slot is granted; the slot is held until the stream terminates
+     */
+    public <T> Flux<T> scheduleStream(Supplier<Flux<T>> call) {
+        if (!properties.enabled()) {
+            return Flux.defer(call);
+        }
+        return Flux.deferContextual(context -> {
+            Ticket ticket = new Ticket(ClientContext.from(context));
+            return admit(ticket)
+                    .thenMany(Flux.defer(call))
+                    .doFinally(signal -> release(ticket));
+        });
+    }
+
+    private Mono<Void> admit(Ticket ticket) {
+        return Mono.create(sink -> enqueue(ticket, sink));
+    }
+
+    private void enqueue(Ticket ticket, MonoSink<Void> sink) {
+        List<Ticket> signals = new ArrayList<>(2);
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            ClientContext client = ticket.client;
+            ticket.sink = sink;
+            ticket.enqueuedNanos = now;
+            ticket.deadlineNanos = now + properties.maxQueueWait().toNanos();
+            if (client.deadlineNanos() != null) {
+                ticket.deadlineNanos = Math.min(ticket.deadlineNanos, client.deadlineNanos());
+            }
+
+            String rejection = null;
+            String message = null;
+            if (ticket.deadlineNanos <= now) {
+                rejection = "deadline";
+                message = "Request deadline already passed";
+            } else if (queuedPerTenant.getOrDefault(client.tenant(), 0) >= properties.maxQueuedPerTenant()
+                    && active >= properties.maxConcurrent()) {
+                rejection = "tenant_limit";
+                message = "Too many queued requests for tenant " + client.tenant();
+            } else if (queue.size() >= properties.maxQueued() && active >= properties.maxConcurrent()) {
+                Ticket victim = victimFor(client.priority());
+                if (victim == null) {
+                    rejection = "queue_full";
+                    message = "Upstream request queue is full";
+                } else {
+                    drop(victim, "shed", "Evicted by higher-priority work");
+                    signals.add(victim);
+                }
+            }
+
+            if (rejection != null) {
+                ticket.state = State.DONE;
+                ticket.failure = rejected(client.priority(), rejection, message);
+                signals.add(ticket);
+            } else {
+                add(ticket);
+                ticket.timeout = timer.schedule(() -> expire(ticket), ticket.deadlineNanos - now, TimeUnit.NANOSECONDS);
+                signals.addAll(dispatch(now));
+            }
+        }
+        signal(signals);
+    }
+
+    /**
+     * The call finished, failed or was cancelled: free its slot or queue position
+     */
+    private void release(Ticket ticket) {
+        List<Ticket> signals;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            if (ticket.state == State.QUEUED) {
+                remove(ticket);
+                if (ticket.timeout != null) {
+                    ticket.timeout.dispose();
+                }
+                dropped(ticket.client.priority(), "cancelled");
+            } else if (ticket.state == State.ACTIVE) {
+                active--;
+                serviceNanos += SERVICE_TIME_ALPHA * ((now - ticket.grantedNanos) - serviceNanos);
+            }
+            ticket.state = State.DONE;
+            signals = dispatch(now);
+        }
+        signal(signals);
+    }
+
+    private void expire(Ticket ticket) {
+        synchronized (this) {
+            if (ticket.state != State.QUEUED) {
+                return;
+            }
+            drop(ticket, "deadline", "Request deadline passed while queued");
+        }
+        signal(List.of(ticket));
+    }
+
+    /**
+     * Grant free slots to queued calls in virtual-time order
+     */
+    private List<Ticket> dispatch(long now) {
+        List<Ticket> granted = new ArrayList<>();
+        while (active < properties.maxConcurrent() && !queue.isEmpty()) {
+            Ticket next = queue.first();
+            if (next.deadlineNanos <= now) {
+                drop(next, "deadline", "Request deadline passed while queued");
+                granted.add(next);
+                continue;
+            }
+            remove(next);
+            virtualTime = Math.max(virtualTime, next.finishTag);
+            next.state = State.ACTIVE;
+            next.grantedNanos = now;
+            next.timeout.dispose();
+            active++;
+            waitTimers.get(next.client.priority()).record(now - next.enqueuedNanos, TimeUnit.NANOSECONDS);
+            granted.add(next);
+        }
+        return granted;
+    }
+
+    private void signal(List<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            if (ticket.failure != null) {
+                ticket.sink.error(ticket.failure);
+            } else {
+                ticket.sink.success();
+            }
+        }
+    }
+
+    private void add(Ticket ticket) {
+        ClientContext client = ticket.client;
+        Flow flow = flows.computeIfAbsent(client.priority() + "/" + client.tenant(), key -> new Flow());
+        ticket.flow = flow;
+        ticket.sequence = sequence++;
+        ticket.finishTag = Math.max(virtualTime, flow.finishTag) + 1.0 / weight(client);
+        flow.finishTag = ticket.finishTag;
+        flow.queued++;
+        ticket.state = State.QUEUED;
+        queue.add(ticket);
+        queuedPerTenant.merge(client.tenant(), 1, Integer::sum);
+        queuedPerPriority[client.priority().ordinal()]++;
+    }
+
+    private void remove(Ticket ticket) {
+        queue.remove(ticket);
+        ticket.flow.queued--;
+        queuedPerTenant.computeIfPresent(ticket.client.tenant(), (tenant, count) -> count > 1 ? count - 1 : null);
+        queuedPerPriority[ticket.client.priority().ordinal()]--;
+        if (flows.size() > queue.size() + 256) {
+            // Idle flows whose finish tag has passed no longer influence ordering
+            flows.values().removeIf(flow -> flow.queued == 0 && flow.finishTag <= virtualTime);
+        }
+    }
+
+    private void drop(Ticket ticket, String reason, String message) {
+        remove(ticket);
+        if (ticket.timeout != null) {
+            ticket.timeout.dispose();
+        }
+        ticket.state = State.DONE;
+        ticket.failure = rejected(ticket.client.priority(), reason, message);
+    }
+
+    /**
+     * The newest queued call of the lowest priority class below {@code priority}, if any
+     */
+    private Ticket victimFor(RequestPriority priority) {
+        RequestPriority[] priorities = RequestPriority.values();
+        for (int i = priorities.length - 1; i > priority.ordinal(); i--) {
+            if (queuedPerPriority[i] == 0) {
+                continue;
+            }
+            Iterator<Ticket> newestFirst = queue.descendingIterator();
+            while (newestFirst.hasNext()) {
+                Ticket candidate = newestFirst.next();
+                if (candidate.client.priority() == priorities[i]) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private double weight(ClientContext client) {
+        return client.priority().weight(properties.priorityWeights())
+                * properties.tenantWeights().getOrDefault(client.tenant(), 1);
+    }
+
+    private ThrottledException rejected(RequestPriority priority, String reason, String message) {
+        dropped(priority, reason);
+        logger.debug("Dropping {} call: {}", tag(priority), reason);
+        return ThrottledException.tooManyRequests(message, retryAfter());
+    }
+
+    private void dropped(RequestPriority priority, String reason) {
+        Counter.builder("openai.scheduler.dropped")
+                .description("Calls dropped before reaching the upstream")
+                .tags("priority", tag(priority), "reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Rough time for the current backlog to drain at the recent per-call service time
+     */
+    private Duration retryAfter() {
+        double rounds = (double) queue.size() / properties.maxConcurrent() + 1;
+        Duration estimate = Duration.ofNanos((long) (rounds * serviceNanos));
+        return estimate.compareTo(MIN_RETRY_AFTER) < 0 ? MIN_RETRY_AFTER : estimate;
+    }
+
+    private synchronized int queued(RequestPriority priority) {
+        return queuedPerPriority[priority.ordinal()];
+    }
+
+    private synchronized int active() {
+        return active;
+    }
+
+    private static String tag(RequestPriority priority) {
+        return priority.name().toLowerCase(Locale.ROOT);
+    }
+
+    private enum State {
+        NEW, QUEUED, ACTIVE, DONE
+    }
+
+    private static final class Flow {
+
+        private double finishTag;
+        private int queued;
+    }
+
+    private static final class Ticket {
+
+        private static final Comparator<Ticket> ORDER = Comparator
+                .comparingDouble((Ticket ticket) -> ticket.finishTag)
+                .thenComparingLong(ticket -> ticket.sequence);
+
+        private final ClientContext client;
+        private State state = State.NEW;
+        private MonoSink<Void> sink;
+        private Flow flow;
+        private long sequence;
+        private double finishTag;
+        private long enqueuedNanos;
+        private long deadlineNanos;
+        private long grantedNanos;
+        private Disposable timeout;
+        private Throwable failure;
+
+        private Ticket(ClientContext client) {
+            this.client = client;
+        }
+    }
+}
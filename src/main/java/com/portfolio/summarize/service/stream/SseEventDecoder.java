@@ -0,0 +1,131 @@
+package com.portfolio.summarize.service.stream;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Incremental Server-Sent Events framer working directly on bytes.
+ * <p>
+ * Feeds arbitrary buffer boundaries, accepts {@code \n}, {@code \r\n} and {@code \r} line endings,
+ * joins multi-line {@code data:} fields with {@code \n}, ignores comments and the {@code event},
+ * {@code id} and {@code retry} fields, and dispatches one event per blank line. Internal buffers are
+ * reused across events, so steady-state decoding allocates nothing. Instances are stateful and must be
+ * used by one stream at a time.
+ */
+public final class SseEventDecoder {
+
+    private static final int INITIAL_CAPACITY = 512;
+
+    /**
+     * Receives the data of a complete event; the array is only valid for the duration of the call
+     */
+    @FunctionalInterface
+    public interface EventHandler {
+        void onEvent(byte[] data, int offset, int length);
+    }
+
+    private byte[] scratch = new byte[INITIAL_CAPACITY];
+    private byte[] line = new byte[INITIAL_CAPACITY];
+    private int lineLength;
+    private byte[] data = new byte[INITIAL_CAPACITY];
+    private int dataLength;
+    private boolean hasData;
+    private boolean lastWasCarriageReturn;
+
+    /**
+     * Consume the readable bytes of {@code buffer}; the buffer is not released
+     */
+    public void decode(DataBuffer buffer, EventHandler handler) {
+        int length = buffer.readableByteCount();
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.read(scratch, 0, length);
+        decode(scratch, 0, length, handler);
+    }
+
+    public void decode(byte[] bytes, int offset, int length, EventHandler handler) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            byte b = bytes[i];
+            if (lastWasCarriageReturn) {
+                lastWasCarriageReturn = false;
+                if (b == '\n') {
+                    continue;
+                }
+            }
+            if (b == '\n' || b == '\r') {
+                lastWasCarriageReturn = b == '\r';
+                processLine(handler);
+                lineLength = 0;
+            } else {
+                if (lineLength == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[lineLength++] = b;
+            }
+        }
+    }
+
+    /**
+     * Signal end of input, dispatching a trailing event that was not terminated by a blank line
+     */
+    public void flush(EventHandler handler) {
+        if (lineLength > 0) {
+            processLine(handler);
+            lineLength = 0;
+        }
+        dispatch(handler);
+    }
+
+    private void processLine(EventHandler handler) {
+        if (lineLength == 0) {
+            dispatch(handler);
+            return;
+        }
+        if (line[0] == ':') {
+            return; // comment
+        }
+
+        int colon = indexOf(line, lineLength, (byte) ':');
+        int nameLength = colon < 0 ? lineLength : colon;
+        if (nameLength != 4 || line[0] != 'd' || line[1] != 'a' || line[2] != 't' || line[3] != 'a') {
+            return;
+        }
+
+        int valueStart = colon < 0 ? lineLength : colon + 1;
+        if (valueStart < lineLength && line[valueStart] == ' ') {
+            valueStart++;
+        }
+        int valueLength = lineLength - valueStart;
+
+        int required = dataLength + valueLength + 1;
+        if (required > data.length) {
+            data = Arrays.copyOf(data, Math.max(required, data.length * 2));
+        }
+        if (hasData) {
+            data[dataLength++] = '\n';
+        }
+        System.arraycopy(line, valueStart, data, dataLength, valueLength);
+        dataLength += valueLength;
+        hasData = true;
+    }
+
+    private void dispatch(EventHandler handler) {
+        if (hasData) {
+            handler.onEvent(data, 0, dataLength);
+        }
+        dataLength = 0;
+        hasData = false;
+    }
+
+    private static int indexOf(byte[] bytes, int length, byte value) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,172 @@
+package com.portfolio.summarize.service.stream;
+
+import com.portfolio.summarize.config.StreamingProperties;
+import com.portfolio.summarize.dto.StreamDone;
+import com.portfolio.summarize.exception.GlobalExceptionHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Frames a stream of completion tokens as server-sent events.
+ * <p>
+ * Tokens are coalesced so that each event, and so each write and flush, carries everything that arrived
+ * within {@code flush-interval} of its first token, or is sent early once it reaches {@code flush-size}.
+ * Events are numbered from 1 and text containing line breaks is split over several {@code data:} lines.
+ * A final {@code done} event carries the token usage. A failure ends the stream with an {@code error} event,
+ * except that throttling, a passed deadline or an invalid request before the first event is left to answer
+ * with its status.
+ */
+@Component
+public class SseStreamEncoder {
+
+    public static final String DONE = "done";
+    public static final String ERROR = "error";
+
+    private static final Pattern LINE_BREAK = Pattern.compile("\r\n|\r|\n");
+
+    private final Duration flushInterval;
+    private final int flushBytes;
+    private final Scheduler scheduler;
+
+    @Autowired
+    public SseStreamEncoder(StreamingProperties properties) {
+        this(properties, Schedulers.parallel());
+    }
+
+    SseStreamEncoder(StreamingProperties properties, Scheduler scheduler) {
+        this.flushInterval = properties.flushInterval();
+        this.flushBytes = (int) Math.min(properties.flushSize().toBytes(), Integer.MAX_VALUE);
+        this.scheduler = scheduler;
+    }
+
+    public Flux<ServerSentEvent<Object>> encode(Flux<String> tokens, String errorMessage) {
+        return Flux.defer(() -> {
+            StreamUsage usage = new StreamUsage();
+            AtomicLong sequence = new AtomicLong();
+            return batch(tokens)
+                    .map(text -> ServerSentEvent.<Object>builder(data(text)).id(Long.toString(sequence.incrementAndGet())).build())
+                    .concatWith(Flux.defer(() -> Flux.just(ServerSentEvent.<Object>builder(StreamDone.of(usage.get()))
+                            .id(Long.toString(sequence.incrementAndGet()))
+                            .event(DONE)
+                            .build())))
+                    .onErrorResume(error -> !GlobalExceptionHandler.isHandled(error) || sequence.get() > 0, error -> Flux.just(
+                            ServerSentEvent.<Object>builder(errorMessage)
+                                    .id(Long.toString(sequence.incrementAndGet()))
+                                    .event(ERROR)
+                                    .build()))
+                    .contextWrite(context -> context.put(StreamUsage.class, usage));
+        });
+    }
+
+    /**
+     * Join tokens that arrive within the flush interval of the first one, flushing early at the size limit
+     */
+    Flux<String> batch(Flux<String> tokens) {
+        if (flushInterval.isZero() || flushInterval.isNegative()) {
+            return tokens;
+        }
+        return Flux.create(sink -> {
+            Batch batch = new Batch(sink, scheduler.createWorker());
+            sink.onDispose(batch);
+            batch.upstream = tokens.contextWrite(sink.contextView())
+                    .subscribe(batch::add, batch::error, batch::complete);
+            if (sink.isCancelled()) {
+                batch.dispose();
+            }
+        });
+    }
+
+    private final class Batch implements Disposable {
+
+        private final FluxSink<String> sink;
+        private final Scheduler.Worker worker;
+        private final StringBuilder pending = new StringBuilder();
+        private int pendingBytes;
+        private Disposable timer;
+        private volatile Disposable upstream;
+
+        Batch(FluxSink<String> sink, Scheduler.Worker worker) {
+            this.sink = sink;
+            this.worker = worker;
+        }
+
+        synchronized void add(String token) {
+            pending.append(token);
+            pendingBytes += utf8Length(token);
+            if (pendingBytes >= flushBytes) {
+                flush();
+            } else if (timer == null) {
+                timer = worker.schedule(this::onTimer, flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        synchronized void error(Throwable error) {
+            flush();
+            sink.error(error);
+        }
+
+        synchronized void complete() {
+            flush();
+            sink.complete();
+        }
+
+        private synchronized void onTimer() {
+            timer = null;
+            flush();
+        }
+
+        private void flush() {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+            if (!pending.isEmpty()) {
+                String text = pending.toString();
+                pending.setLength(0);
+                pendingBytes = 0;
+                sink.next(text);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            worker.dispose();
+            Disposable subscription = upstream;
+            if (subscription != null) {
+                subscription.dispose();
+            }
+        }
+    }
+
+    /**
+     * The SSE writer puts no space after {@code data:}, so a leading space on a line would be taken as the
+     * field separator by clients and dropped; every line gets a separator space of its own instead
+     */
+    static String data(String text) {
+        return " " + LINE_BREAK.matcher(text).replaceAll("\n ");
+    }
+
+    private static int utf8Length(String text) {
+        int bytes = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x800 && !Character.isSurrogate(c)) {
+                bytes += 2;
+            } else if (c >= 0x80) {
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,86 @@
+package com.portfolio.summarize.service.stream;
+
+import com.portfolio.summarize.model.StreamResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns the raw {@code text/event-stream} body of a streaming chat completion into {@link StreamResponse}
+ * chunks. Each subscription gets its own {@link SseEventDecoder} and {@link StreamChunkParser}; buffers are
+ * released as soon as they have been framed.
+ */
+public final class StreamChunkDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamChunkDecoder.class);
+
+    private static final byte[] DONE = {'[', 'D', 'O', 'N', 'E', ']'};
+
+    private StreamChunkDecoder() {
+    }
+
+    public static Flux<StreamResponse> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            SseEventDecoder sse = new SseEventDecoder();
+            StreamChunkParser parser = new StreamChunkParser();
+
+            return body
+                    .concatMapIterable(buffer -> {
+                        try {
+                            List<StreamResponse> chunks = new ArrayList<>(4);
+                            sse.decode(buffer, (data, offset, length) -> parseInto(parser, data, offset, length, chunks));
+                            return chunks;
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .concatWith(Flux.defer(() -> {
+                        List<StreamResponse> chunks = new ArrayList<>(1);
+                        sse.flush((data, offset, length) -> parseInto(parser, data, offset, length, chunks));
+                        return Flux.fromIterable(chunks);
+                    }))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        });
+    }
+
+    /**
+     * Text of the first choice's delta, or {@code null} for role-only and terminal chunks
+     */
+    public static String contentOf(StreamResponse chunk) {
+        if (chunk.choices() == null || chunk.choices().isEmpty()) {
+            return null;
+        }
+        StreamResponse.StreamDelta delta = chunk.choices().get(0).delta();
+        return delta != null ? delta.content() : null;
+    }
+
+    private static void parseInto(StreamChunkParser parser, byte[] data, int offset, int length,
+                                  List<StreamResponse> chunks) {
+        if (isDone(data, offset, length)) {
+            return;
+        }
+        try {
+            chunks.add(parser.parse(data, offset, length));
+        } catch (IOException e) {
+            logger.warn("Error parsing stream chunk: {}", e.getMessage());
+        }
+    }
+
+    private static boolean isDone(byte[] data, int offset, int length) {
+        if (length != DONE.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (data[offset + i] != DONE[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
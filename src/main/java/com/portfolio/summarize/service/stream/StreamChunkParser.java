@@ -0,0 +1,222 @@
+package com.portfolio.summarize.service.stream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.portfolio.summarize.model.OpenAiResponse;
+import com.portfolio.summarize.model.StreamResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds {@code chat.completion.chunk} JSON documents to {@link StreamResponse} using Jackson's
+ * non-blocking streaming parser, so every JSON escape (including {@code \\uXXXX} and surrogate pairs)
+ * is decoded correctly. One parser is kept for the whole stream and fed each event in turn, which avoids
+ * per-token parser setup. Values that repeat on every chunk ({@code id}, {@code object}, {@code model},
+ * {@code role}) are compared in place and reused instead of being re-allocated per token.
+ * Instances are stateful and must be used by one stream at a time.
+ */
+public final class StreamChunkParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonParser parser;
+    private String lastId;
+    private String lastObject;
+    private String lastModel;
+    private String lastRole;
+
+    /**
+     * Parse one complete JSON document; {@code data} may be reused by the caller once this returns
+     */
+    public StreamResponse parse(byte[] data, int offset, int length) throws IOException {
+        if (parser == null) {
+            parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        }
+        try {
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(data, offset, offset + length);
+            StreamResponse chunk = parseDocument(parser);
+            // Consume trailing whitespace so the parser is ready for the next document
+            if (parser.nextToken() != JsonToken.NOT_AVAILABLE) {
+                throw new JsonParseException(parser, "Unexpected data after JSON object");
+            }
+            return chunk;
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            parser = null;
+            throw e;
+        }
+    }
+
+    private StreamResponse parseDocument(JsonParser parser) throws IOException {
+        if (next(parser) != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object");
+        }
+
+        String id = null;
+        String object = null;
+        Long created = null;
+        String model = null;
+        List<StreamResponse.StreamChoice> choices = List.of();
+        OpenAiResponse.Usage usage = null;
+
+        while (next(parser) == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = next(parser);
+            switch (field) {
+                case "id" -> id = lastId = reuse(parser, lastId);
+                case "object" -> object = lastObject = reuse(parser, lastObject);
+                case "model" -> model = lastModel = reuse(parser, lastModel);
+                case "created" -> created = token == JsonToken.VALUE_NULL ? null : parser.getLongValue();
+                case "choices" -> choices = parseChoices(parser);
+                case "usage" -> usage = token == JsonToken.START_OBJECT ? parseUsage(parser) : null;
+                default -> skipChildren(parser);
+            }
+        }
+        return new StreamResponse(id, object, created, model, choices, usage);
+    }
+
+    private List<StreamResponse.StreamChoice> parseChoices(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            skipChildren(parser);
+            return List.of();
+        }
+
+        StreamResponse.StreamChoice first = null;
+        List<StreamResponse.StreamChoice> more = null;
+        while (next(parser) == JsonToken.START_OBJECT) {
+            StreamResponse.StreamChoice choice = parseChoice(parser);
+            if (first == null) {
+                first = choice;
+            } else {
+                if (more == null) {
+                    more = new ArrayList<>();
+                    more.add(first);
+                }
+                more.add(choice);
+            }
+        }
+        if (more != null) {
+            return more;
+        }
+        return first == null ? List.of() : List.of(first);
+    }
+
+    private StreamResponse.StreamChoice parseChoice(JsonParser parser) throws IOException {
+        Integer index = null;
+        StreamResponse.StreamDelta delta = null;
+        String finishReason = null;
+
+        while (next(parser) == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = next(parser);
+            switch (field) {
+                case "index" -> index = token == JsonToken.VALUE_NULL ? null : parser.getIntValue();
+                case "delta" -> delta = token == JsonToken.START_OBJECT ? parseDelta(parser) : null;
+                case "finish_reason" -> finishReason = token == JsonToken.VALUE_NULL ? null : parser.getText();
+                default -> skipChildren(parser);
+            }
+        }
+        return new StreamResponse.StreamChoice(index, delta, finishReason);
+    }
+
+    private StreamResponse.StreamDelta parseDelta(JsonParser parser) throws IOException {
+        String role = null;
+        String content = null;
+
+        while (next(parser) == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = next(parser);
+            switch (field) {
+                case "role" -> role = lastRole = reuse(parser, lastRole);
+                case "content" -> content = token == JsonToken.VALUE_NULL ? null : parser.getText();
+                default -> skipChildren(parser);
+            }
+        }
+        return new StreamResponse.StreamDelta(role, content);
+    }
+
+    /**
+     * Token counts of the final chunk, sent when the request set {@code stream_options.include_usage}
+     */
+    private OpenAiResponse.Usage parseUsage(JsonParser parser) throws IOException {
+        Integer promptTokens = null;
+        Integer completionTokens = null;
+        Integer totalTokens = null;
+
+        while (next(parser) == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = next(parser);
+            Integer value = token == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : null;
+            switch (field) {
+                case "prompt_tokens" -> promptTokens = value;
+                case "completion_tokens" -> completionTokens = value;
+                case "total_tokens" -> totalTokens = value;
+                default -> skipChildren(parser);
+            }
+        }
+        return new OpenAiResponse.Usage(promptTokens, completionTokens, totalTokens);
+    }
+
+    /**
+     * Next token of a document that is known to be complete; running out of input means it was truncated
+     */
+    private static JsonToken next(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.NOT_AVAILABLE || token == null) {
+            throw new JsonParseException(parser, "Truncated JSON object");
+        }
+        return token;
+    }
+
+    /**
+     * Equivalent of {@link JsonParser#skipChildren()} that fails instead of spinning on truncated input
+     */
+    private static void skipChildren(JsonParser parser) throws IOException {
+        if (!parser.currentToken().isStructStart()) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            JsonToken token = next(parser);
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Return {@code previous} when the current string token has the same characters, avoiding a new String
+     */
+    private static String reuse(JsonParser parser, String previous) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            skipChildren(parser);
+            return null;
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (previous != null && previous.length() == length) {
+            boolean same = true;
+            for (int i = 0; i < length; i++) {
+                if (previous.charAt(i) != chars[offset + i]) {
+                    same = false;
+                    break;
+                }
+            }
+            if (same) {
+                return previous;
+            }
+        }
+        return new String(chars, offset, length);
+    }
+}
@@ -0,0 +1,21 @@
+package com.portfolio.summarize.service.stream;
+
+import com.portfolio.summarize.model.OpenAiResponse;
+
+/**
+ * Token usage of a streamed completion, filled in from the upstream's final chunk. The SSE encoder
+ * places one in the subscriber context; a stream that joined an identical in-flight stream shares the
+ * first subscriber's upstream call and is left without one.
+ */
+public final class StreamUsage {
+
+    private volatile OpenAiResponse.Usage usage;
+
+    public OpenAiResponse.Usage get() {
+        return usage;
+    }
+
+    public void set(OpenAiResponse.Usage usage) {
+        this.usage = usage;
+    }
+}
@@ -0,0 +1,36 @@
+package com.portfolio.summarize.service.templates;
+
+import com.portfolio.summarize.model.OpenAiRequest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled prompt: static instructions in a system message ahead of the user message that carries
+ * the request's variable text. Keeping the instructions in their own message makes the prompt
+ * prefix byte-identical across calls, which upstream prompt caching relies on.
+ */
+public record PromptTemplate(
+    String name,
+    String description,
+    String example,
+    TemplateText system,
+    TemplateText user
+) {
+    public PromptTemplate {
+        if (user == null) {
+            throw new IllegalArgumentException("Template " + name + " has no user message");
+        }
+        if (description == null) {
+            description = "";
+        }
+    }
+
+    public List<OpenAiRequest.Message> render(Map<String, String> variables) {
+        OpenAiRequest.Message userMessage = new OpenAiRequest.Message("user", user.render(variables));
+        if (system == null) {
+            return List.of(userMessage);
+        }
+        return List.of(new OpenAiRequest.Message("system", system.render(variables)), userMessage);
+    }
+}
@@ -0,0 +1,195 @@
+package com.portfolio.summarize.service.templates;
+
+import com.portfolio.summarize.config.TemplateProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Prompt templates loaded from YAML files, one file per template at {@code <kind>/<name>.yml}.
+ * <p>
+ * Built-in templates ship under {@code prompts/} on the classpath. Files in {@code openai.templates.directory}
+ * add to or replace them and are reloaded when they change; a reload that fails to parse keeps the
+ * previous templates. Each file has a {@code user} message template and optionally a static {@code system}
+ * message, a {@code description} and an {@code example}.
+ */
+@Component
+public class PromptTemplates {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptTemplates.class);
+
+    public static final String MESSAGES = "messages";
+    public static final String SUMMARIES = "summaries";
+    public static final String DOCUMENTS = "documents";
+    public static final String DEFAULT = "default";
+
+    private static final String BUILT_IN_PATTERN = "classpath*:prompts/*/*.yml";
+
+    private final Path directory;
+    private volatile Map<String, Map<String, PromptTemplate>> templates;
+    private volatile String fingerprint;
+    private final Disposable reloader;
+
+    public PromptTemplates(TemplateProperties properties) {
+        this.directory = properties.directory() != null && !properties.directory().isBlank()
+                ? Path.of(properties.directory())
+                : null;
+        this.fingerprint = fingerprint();
+        this.templates = load();
+        logger.info("Loaded {} prompt templates", templates.values().stream().mapToInt(Map::size).sum());
+
+        long interval = properties.reloadInterval().toMillis();
+        this.reloader = directory != null && interval > 0
+                ? Schedulers.boundedElastic().schedulePeriodically(this::reloadIfChanged, interval, interval, TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    /**
+     * The named template of {@code kind}, falling back to the kind's {@code default} template
+     */
+    public PromptTemplate getOrDefault(String kind, String name) {
+        Map<String, PromptTemplate> ofKind = templates.getOrDefault(kind, Map.of());
+        PromptTemplate template = name != null ? ofKind.get(name.toLowerCase()) : null;
+        if (template == null) {
+            template = ofKind.get(DEFAULT);
+        }
+        if (template == null) {
+            throw new IllegalStateException("No " + kind + " template named " + name + " and no default");
+        }
+        return template;
+    }
+
+    /**
+     * Templates of {@code kind} by name, in name order
+     */
+    public Map<String, PromptTemplate> all(String kind) {
+        return templates.getOrDefault(kind, Map.of());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (reloader != null) {
+            reloader.dispose();
+        }
+    }
+
+    void reloadIfChanged() {
+        try {
+            String current = fingerprint();
+            if (current.equals(fingerprint)) {
+                return;
+            }
+            fingerprint = current;
+            templates = load();
+            logger.info("Reloaded prompt templates from {}", directory);
+        } catch (RuntimeException e) {
+            logger.error("Keeping previous prompt templates, reload from {} failed: {}", directory, e.getMessage());
+        }
+    }
+
+    private Map<String, Map<String, PromptTemplate>> load() {
+        Map<String, Map<String, PromptTemplate>> loaded = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(BUILT_IN_PATTERN)) {
+                try (InputStream input = resource.getInputStream()) {
+                    add(loaded, kindOf(resource), nameOf(resource.getFilename()), input);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load built-in prompt templates", e);
+        }
+        for (Path file : files()) {
+            try (InputStream input = Files.newInputStream(file)) {
+                add(loaded, file.getParent().getFileName().toString(), nameOf(file.getFileName().toString()), input);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read prompt template " + file, e);
+            }
+        }
+        Map<String, Map<String, PromptTemplate>> snapshot = new HashMap<>();
+        loaded.forEach((kind, byName) -> snapshot.put(kind, Collections.unmodifiableMap(new TreeMap<>(byName))));
+        return Map.copyOf(snapshot);
+    }
+
+    private static void add(Map<String, Map<String, PromptTemplate>> loaded, String kind, String name, InputStream input) {
+        Object document = new Yaml(new SafeConstructor(new LoaderOptions())).load(input);
+        if (!(document instanceof Map<?, ?> fields)) {
+            throw new IllegalArgumentException("Prompt template " + kind + "/" + name + " is not a YAML mapping");
+        }
+        try {
+            PromptTemplate template = new PromptTemplate(
+                    name,
+                    string(fields.get("description")),
+                    string(fields.get("example")),
+                    fields.get("system") != null ? TemplateText.compile(string(fields.get("system"))) : null,
+                    fields.get("user") != null ? TemplateText.compile(string(fields.get("user"))) : null);
+            loaded.computeIfAbsent(kind, k -> new HashMap<>()).put(name, template);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Prompt template " + kind + "/" + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Iterable<Path> files() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            return paths.filter(path -> path.getFileName().toString().endsWith(".yml") && Files.isRegularFile(path))
+                    .filter(path -> !path.getParent().equals(directory))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list prompt templates in " + directory, e);
+        }
+    }
+
+    /**
+     * Names, sizes and modification times of the override files; changes when any of them does
+     */
+    private String fingerprint() {
+        StringBuilder fingerprint = new StringBuilder();
+        for (Path file : files()) {
+            try {
+                fingerprint.append(file).append(':').append(Files.size(file)).append(':')
+                        .append(Files.getLastModifiedTime(file).toMillis()).append('\n');
+            } catch (IOException e) {
+                fingerprint.append(file).append(":missing\n");
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    private static String kindOf(Resource resource) throws IOException {
+        String path = resource.getURL().getPath();
+        String parent = path.substring(0, path.lastIndexOf('/'));
+        return parent.substring(parent.lastIndexOf('/') + 1);
+    }
+
+    private static String nameOf(String fileName) {
+        return fileName.substring(0, fileName.length() - ".yml".length());
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.portfolio.summarize.service.templates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Template text compiled once into literal segments and {@code {{variable}}} slots.
+ * <p>
+ * Rendering sizes its buffer up front and copies each segment once. Text without slots renders to
+ * the same string instance on every call, and text that is a single slot returns the variable
+ * itself, so neither allocates.
+ */
+public final class TemplateText {
+
+    private static final Pattern SLOT = Pattern.compile("\\{\\{\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*}}");
+
+    private final String source;
+    // literals[i] precedes slots[i]; literals has one more element than slots
+    private final String[] literals;
+    private final String[] slots;
+    private final int literalLength;
+
+    private TemplateText(String source, String[] literals, String[] slots) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static TemplateText compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        Matcher matcher = SLOT.matcher(source);
+        int position = 0;
+        while (matcher.find()) {
+            literals.add(source.substring(position, matcher.start()));
+            slots.add(matcher.group(1));
+            position = matcher.end();
+        }
+        literals.add(source.substring(position));
+        for (String literal : literals) {
+            if (literal.contains("{{")) {
+                throw new IllegalArgumentException("Malformed template slot in: " + abbreviate(literal));
+            }
+        }
+        return new TemplateText(source, literals.toArray(String[]::new), slots.toArray(String[]::new));
+    }
+
+    public String render(Map<String, String> variables) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        if (slots.length == 1 && literalLength == 0) {
+            return value(variables, slots[0]);
+        }
+        String[] values = new String[slots.length];
+        int length = literalLength;
+        for (int i = 0; i < slots.length; i++) {
+            values[i] = value(variables, slots[i]);
+            length += values[i].length();
+        }
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < slots.length; i++) {
+            text.append(literals[i]).append(values[i]);
+        }
+        return text.append(literals[slots.length]).toString();
+    }
+
+    public boolean isStatic() {
+        return slots.length == 0;
+    }
+
+    public List<String> variables() {
+        return List.of(slots);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private static String value(Map<String, String> variables, String slot) {
+        String value = variables.get(slot);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing template variable: " + slot);
+        }
+        return value;
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 40 ? text : text.substring(0, 40) + "...";
+    }
+}
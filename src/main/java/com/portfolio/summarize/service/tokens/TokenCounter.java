@@ -0,0 +1,115 @@
+package com.portfolio.summarize.service.tokens;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.config.TokenProperties;
+import com.portfolio.summarize.model.OpenAiRequest;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exact prompt token counts with the model's BPE encoding, used to validate prompts against the
+ * context window and to size rate-limit permits.
+ * <p>
+ * Encodings are loaded once per encoding type and counts are cached per message content, so a stable
+ * prefix such as a system message or earlier conversation turns is tokenized only once. The cache is
+ * keyed by a digest of the content, so it holds a few dozen bytes per entry however long the counted
+ * text was, but every lookup hashes the whole text; requests therefore carry their prompt count
+ * ({@code OpenAiRequest.promptTokens}) rather than being counted again at each step. Models unknown to the tokenizer
+ * are counted with {@code o200k_base} when their name starts with {@code gpt-4o} or {@code gpt-4.1},
+ * otherwise with {@code cl100k_base}.
+ */
+@Component
+public class TokenCounter {
+
+    // Framing the chat format adds around each message and to prime the reply
+    private static final int TOKENS_PER_MESSAGE = 4;
+    private static final int TOKENS_PER_REPLY = 3;
+
+    private final TokenProperties properties;
+    private final EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+    private final Map<String, Encoding> encodings = new ConcurrentHashMap<>();
+    private final Cache<CountKey, Integer> counts;
+
+    public TokenCounter(TokenProperties properties, OpenAiProperties openAiProperties) {
+        this.properties = properties;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(properties.cacheSize())
+                .build();
+        // Load the configured model's vocabulary at startup rather than on the first request
+        encoding(openAiProperties.model());
+    }
+
+    public int count(String model, String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        Encoding encoding = encoding(model);
+        return counts.get(CountKey.of(encoding.getName(), text), key -> encoding.countTokensOrdinary(text));
+    }
+
+    /**
+     * Prompt tokens of a chat request, including the per-message framing
+     */
+    public int countPrompt(String model, List<OpenAiRequest.Message> messages) {
+        int tokens = TOKENS_PER_REPLY;
+        for (OpenAiRequest.Message message : messages) {
+            tokens += TOKENS_PER_MESSAGE + count(model, message.content());
+        }
+        return tokens;
+    }
+
+    /**
+     * Context window of the model, matched by the longest configured model-name prefix
+     */
+    public int contextWindow(String model) {
+        int window = properties.defaultContextWindow();
+        int matched = -1;
+        for (Map.Entry<String, Integer> entry : properties.contextWindows().entrySet()) {
+            if (model != null && model.startsWith(entry.getKey()) && entry.getKey().length() > matched) {
+                matched = entry.getKey().length();
+                window = entry.getValue();
+            }
+        }
+        return window;
+    }
+
+    public int minCompletionTokens() {
+        return properties.minCompletionTokens();
+    }
+
+    private Encoding encoding(String model) {
+        String name = model != null ? model : "";
+        return encodings.computeIfAbsent(name, key -> registry.getEncodingForModel(key)
+                .orElseGet(() -> registry.getEncoding(key.startsWith("gpt-4o") || key.startsWith("gpt-4.1")
+                        ? EncodingType.O200K_BASE
+                        : EncodingType.CL100K_BASE)));
+    }
+
+    /**
+     * The encoding and the first 128 bits of the text's SHA-256
+     */
+    private record CountKey(String encoding, long high, long low) {
+
+        static CountKey of(String encoding, String text) {
+            try {
+                ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+                return new CountKey(encoding, digest.getLong(), digest.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.portfolio.summarize.service.tokens;
+
+/**
+ * Cheap token estimate for English text (~4 characters per token), used for budgeting
+ * where an exact count is not required
+ */
+public final class TokenEstimator {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Number of characters that fit in {@code tokens}
+     */
+    public static int charsFor(int tokens) {
+        return tokens * CHARS_PER_TOKEN;
+    }
+}
@@ -0,0 +1,34 @@
+package com.portfolio.summarize.service.usage;
+
+import java.time.Instant;
+
+/**
+ * Tokens and calls of one tenant, endpoint and model within the bucket starting at {@code start}.
+ * Also the journal record of one rollup, so several records may exist for the same bucket and key.
+ */
+public record UsageBucket(
+    Instant start,
+    String tenant,
+    String endpoint,
+    String model,
+    long promptTokens,
+    long completionTokens,
+    long requests
+) {
+    public long totalTokens() {
+        return promptTokens + completionTokens;
+    }
+
+    UsageKey key() {
+        return new UsageKey(tenant, endpoint, model);
+    }
+
+    UsageBucket plus(UsageBucket other) {
+        return new UsageBucket(start, tenant, endpoint, model, promptTokens + other.promptTokens,
+                completionTokens + other.completionTokens, requests + other.requests);
+    }
+
+    UsageBucket at(Instant bucketStart) {
+        return new UsageBucket(bucketStart, tenant, endpoint, model, promptTokens, completionTokens, requests);
+    }
+}
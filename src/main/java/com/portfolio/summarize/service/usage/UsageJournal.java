@@ -0,0 +1,147 @@
+package com.portfolio.summarize.service.usage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Append-only NDJSON file of rolled-up usage, one record per key and rollup. Each append is forced to
+ * disk, once per rollup. A torn last line from a crash is skipped on replay. {@link #compact} rewrites
+ * the file with one record per bucket and key via an atomic rename.
+ * Calls block on file I/O and must not run on event-loop threads.
+ */
+public class UsageJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageJournal.class);
+    private static final String FILE_NAME = "usage.ndjson";
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    // Guarded by this
+    private FileChannel channel;
+    private int records;
+
+    public UsageJournal(Path directory, ObjectMapper objectMapper) {
+        this.file = directory.resolve(FILE_NAME);
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot initialise usage directory " + directory, e);
+        }
+    }
+
+    /**
+     * Every record in the journal, in the order written
+     */
+    public synchronized List<UsageBucket> replay() {
+        List<UsageBucket> buckets = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return buckets;
+        }
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    buckets.add(objectMapper.readValue(line, UsageBucket.class));
+                } catch (JsonProcessingException e) {
+                    logger.warn("Skipping unreadable usage journal line {}: {}", lineNumber, e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read usage journal " + file, e);
+        }
+        records = lineNumber;
+        return buckets;
+    }
+
+    public synchronized void append(Collection<UsageBucket> buckets) {
+        if (channel == null) {
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open usage journal " + file, e);
+            }
+        }
+        try {
+            write(channel, buckets);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to usage journal " + file, e);
+        }
+        records += buckets.size();
+    }
+
+    /**
+     * Replace the journal with the given records
+     */
+    public synchronized void compact(Collection<UsageBucket> buckets) {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(out, buckets);
+            out.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact usage journal " + file, e);
+        }
+        close();
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replace usage journal " + file, e);
+        }
+        records = buckets.size();
+    }
+
+    /**
+     * Number of records in the file
+     */
+    public synchronized int records() {
+        return records;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing usage journal: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private void write(FileChannel out, Collection<UsageBucket> buckets) throws IOException {
+        StringBuilder lines = new StringBuilder(buckets.size() * 160);
+        for (UsageBucket bucket : buckets) {
+            lines.append(objectMapper.writeValueAsString(bucket)).append('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+}
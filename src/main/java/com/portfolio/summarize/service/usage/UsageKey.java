@@ -0,0 +1,7 @@
+package com.portfolio.summarize.service.usage;
+
+/**
+ * What usage is accounted by: the tenant, the endpoint the call served and the model that answered
+ */
+record UsageKey(String tenant, String endpoint, String model) {
+}
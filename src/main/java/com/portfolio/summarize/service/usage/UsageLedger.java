@@ -0,0 +1,309 @@
+package com.portfolio.summarize.service.usage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.summarize.config.UsageProperties;
+import com.portfolio.summarize.exception.BudgetExceededException;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token usage per tenant, endpoint and model, and enforcement of per-tenant token budgets.
+ * <p>
+ * Recording only adds to {@link LongAdder}s found through a lock-free map lookup, so concurrent calls
+ * do not contend. Every {@code rollup-interval} the adders are drained into the {@code bucket}-sized
+ * aggregate of the current time, which is appended to a journal in {@code directory} and kept in
+ * memory for {@code retention}. Budgets apply to fixed periods of {@code budget-period} aligned to the
+ * epoch; a tenant past its hard budget is refused before dispatch until the period ends. The call that
+ * crosses a budget completes, so usage may exceed it by one call's tokens per concurrent call.
+ */
+@Service
+public class UsageLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsageLedger.class);
+
+    // Compact once the journal holds this many records and twice as many as there are retained aggregates
+    private static final int MIN_COMPACTION_RECORDS = 1000;
+
+    private final UsageProperties properties;
+    private final Clock clock;
+    private final UsageJournal journal;
+    private final long bucketMillis;
+    private final long periodMillis;
+
+    private final ConcurrentMap<UsageKey, Counters> live = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PeriodUsage> periods = new ConcurrentHashMap<>();
+    // Rolled-up aggregates by bucket start in epoch millis; written only by rollup and startup
+    private final ConcurrentSkipListMap<Long, ConcurrentMap<UsageKey, UsageBucket>> buckets = new ConcurrentSkipListMap<>();
+    private final Disposable roller;
+
+    private final Counter softExceeded;
+    private final Counter hardExceeded;
+
+    @Autowired
+    public UsageLedger(UsageProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, Clock.systemUTC());
+    }
+
+    UsageLedger(UsageProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.journal = new UsageJournal(Path.of(properties.directory()), objectMapper);
+        this.bucketMillis = properties.bucket().toMillis();
+        this.periodMillis = properties.budgetPeriod().toMillis();
+
+        Gauge.builder("openai.usage.keys", live, Map::size)
+                .description("Tenant, endpoint and model combinations with recorded usage")
+                .register(meterRegistry);
+        this.softExceeded = budgetExceeded(meterRegistry, "soft");
+        this.hardExceeded = budgetExceeded(meterRegistry, "hard");
+
+        recover();
+        long interval = properties.rollupInterval().toMillis();
+        this.roller = Schedulers.boundedElastic().schedulePeriodically(this::rollup, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Account one upstream call. Safe to call from any thread; never blocks.
+     */
+    public void record(String tenant, String endpoint, String model, long promptTokens, long completionTokens) {
+        UsageKey key = new UsageKey(tenant, endpoint, model);
+        Counters counters = live.get(key);
+        if (counters == null) {
+            counters = live.computeIfAbsent(key, k -> new Counters());
+        }
+        counters.promptTokens.add(promptTokens);
+        counters.completionTokens.add(completionTokens);
+        counters.requests.increment();
+        period(tenant).tokens.add(promptTokens + completionTokens);
+    }
+
+    /**
+     * Completes when the calling tenant may dispatch an upstream call, or fails with
+     * {@link BudgetExceededException} once it has used its hard budget for the period
+     */
+    public Mono<Void> admit() {
+        return Mono.deferContextual(context -> {
+            String tenant = ClientContext.from(context).tenant();
+            UsageProperties.Budget budget = properties.budgetOf(tenant);
+            if (budget.softTokens() == null && budget.hardTokens() == null) {
+                return Mono.empty();
+            }
+            PeriodUsage usage = period(tenant);
+            long used = usage.tokens.sum();
+            if (budget.hardTokens() != null && used >= budget.hardTokens()) {
+                hardExceeded.increment();
+                Duration retryAfter = Duration.ofMillis((usage.index + 1) * periodMillis - clock.millis());
+                return Mono.error(new BudgetExceededException("Tenant " + tenant + " used " + used
+                        + " of its " + budget.hardTokens() + " token budget", retryAfter));
+            }
+            if (budget.softTokens() != null && used >= budget.softTokens()) {
+                softExceeded.increment();
+                if (usage.warned.compareAndSet(false, true)) {
+                    logger.warn("Tenant {} passed its soft budget of {} tokens for the period", tenant, budget.softTokens());
+                }
+            }
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * Usage of the calling tenant from {@code from} (inclusive) to {@code to} (exclusive), summed per
+     * {@code step}, endpoint and model. Includes usage not yet rolled up.
+     */
+    public Mono<UsageReport> report(Instant from, Instant to, Duration step) {
+        return Mono.deferContextual(context -> {
+            String tenant = ClientContext.from(context).tenant();
+            long now = clock.millis();
+            long stepMillis = step != null ? step.toMillis() : bucketMillis;
+            if (stepMillis < bucketMillis || stepMillis % bucketMillis != 0) {
+                return Mono.error(new IllegalArgumentException("step must be a multiple of " + properties.bucket()));
+            }
+            long end = to != null ? to.toEpochMilli() : now;
+            long start = from != null ? from.toEpochMilli() : Math.floorDiv(now, periodMillis) * periodMillis;
+            if (start >= end) {
+                return Mono.error(new IllegalArgumentException("from must be before to"));
+            }
+
+            long first = floor(start, bucketMillis);
+            Map<Long, Map<UsageKey, UsageBucket>> stepped = new HashMap<>();
+            buckets.subMap(first, end).forEach((bucketStart, byKey) -> byKey.forEach((key, bucket) -> {
+                if (key.tenant().equals(tenant)) {
+                    add(stepped, floor(bucketStart, stepMillis), bucket);
+                }
+            }));
+            long current = floor(now, bucketMillis);
+            if (current >= first && current < end) {
+                live.forEach((key, counters) -> {
+                    UsageBucket pending = counters.snapshot(Instant.ofEpochMilli(current), key);
+                    if (key.tenant().equals(tenant) && pending.requests() > 0) {
+                        add(stepped, floor(current, stepMillis), pending);
+                    }
+                });
+            }
+            List<UsageBucket> series = new ArrayList<>();
+            stepped.values().forEach(byKey -> series.addAll(byKey.values()));
+            series.sort(Comparator.comparing(UsageBucket::start)
+                    .thenComparing(UsageBucket::endpoint)
+                    .thenComparing(UsageBucket::model));
+
+            UsageProperties.Budget budget = properties.budgetOf(tenant);
+            PeriodUsage usage = period(tenant);
+            UsageReport.Budget standing = new UsageReport.Budget(Instant.ofEpochMilli(usage.index * periodMillis),
+                    Instant.ofEpochMilli((usage.index + 1) * periodMillis), usage.tokens.sum(),
+                    budget.softTokens(), budget.hardTokens());
+            return Mono.just(new UsageReport(tenant, Instant.ofEpochMilli(start), Instant.ofEpochMilli(end),
+                    Duration.ofMillis(stepMillis), List.copyOf(series), standing));
+        });
+    }
+
+    /**
+     * Drain the live counters into the current bucket, journal the change and drop expired buckets
+     */
+    synchronized void rollup() {
+        try {
+            long now = clock.millis();
+            Instant bucketStart = Instant.ofEpochMilli(floor(now, bucketMillis));
+            List<UsageBucket> drained = new ArrayList<>();
+            live.forEach((key, counters) -> {
+                UsageBucket bucket = counters.drain(bucketStart, key);
+                if (bucket.requests() > 0 || bucket.totalTokens() > 0) {
+                    drained.add(bucket);
+                }
+            });
+            drained.forEach(this::merge);
+            buckets.headMap(now - properties.retention().toMillis()).clear();
+            if (!drained.isEmpty()) {
+                journal.append(drained);
+            }
+            int retained = buckets.values().stream().mapToInt(Map::size).sum();
+            if (journal.records() >= MIN_COMPACTION_RECORDS && journal.records() > 2 * retained) {
+                journal.compact(retainedBuckets());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Usage rollup failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        roller.dispose();
+        rollup();
+        journal.close();
+    }
+
+    /**
+     * Rebuild the aggregates and the current period's usage from the journal, then compact it
+     */
+    private void recover() {
+        long now = clock.millis();
+        long oldest = now - properties.retention().toMillis();
+        for (UsageBucket bucket : journal.replay()) {
+            if (bucket.start().toEpochMilli() >= oldest) {
+                merge(bucket);
+            }
+        }
+        long index = Math.floorDiv(now, periodMillis);
+        buckets.tailMap(index * periodMillis).values().forEach(byKey -> byKey.values().forEach(bucket ->
+                periods.computeIfAbsent(bucket.tenant(), tenant -> new PeriodUsage(index)).tokens.add(bucket.totalTokens())));
+        List<UsageBucket> retained = retainedBuckets();
+        if (journal.records() > retained.size()) {
+            journal.compact(retained);
+        }
+        logger.info("Recovered {} usage aggregates", retained.size());
+    }
+
+    private void merge(UsageBucket bucket) {
+        buckets.computeIfAbsent(floor(bucket.start().toEpochMilli(), bucketMillis), start -> new ConcurrentHashMap<>())
+                .merge(bucket.key(), bucket, UsageBucket::plus);
+    }
+
+    private List<UsageBucket> retainedBuckets() {
+        List<UsageBucket> retained = new ArrayList<>();
+        buckets.values().forEach(byKey -> retained.addAll(byKey.values()));
+        return retained;
+    }
+
+    /**
+     * The tenant's usage in the current budget period, starting a new period once the previous one ended
+     */
+    private PeriodUsage period(String tenant) {
+        long index = Math.floorDiv(clock.millis(), periodMillis);
+        PeriodUsage usage = periods.get(tenant);
+        if (usage == null || usage.index != index) {
+            usage = periods.compute(tenant, (key, current) -> current != null && current.index >= index ? current : new PeriodUsage(index));
+        }
+        return usage;
+    }
+
+    private static void add(Map<Long, Map<UsageKey, UsageBucket>> stepped, long stepStart, UsageBucket bucket) {
+        stepped.computeIfAbsent(stepStart, start -> new HashMap<>())
+                .merge(bucket.key(), bucket.at(Instant.ofEpochMilli(stepStart)), UsageBucket::plus);
+    }
+
+    private static long floor(long millis, long unit) {
+        return Math.floorDiv(millis, unit) * unit;
+    }
+
+    private static Counter budgetExceeded(MeterRegistry meterRegistry, String level) {
+        return Counter.builder("openai.usage.budget.exceeded")
+                .description("Calls made past a soft budget, or refused past a hard budget")
+                .tag("level", level)
+                .register(meterRegistry);
+    }
+
+    private static final class Counters {
+        final LongAdder promptTokens = new LongAdder();
+        final LongAdder completionTokens = new LongAdder();
+        final LongAdder requests = new LongAdder();
+
+        /**
+         * Take the counts so far. Each adder cell is swapped out atomically, so a concurrent increment
+         * lands either in this bucket or in the next one and is never lost.
+         */
+        UsageBucket drain(Instant start, UsageKey key) {
+            return new UsageBucket(start, key.tenant(), key.endpoint(), key.model(),
+                    promptTokens.sumThenReset(), completionTokens.sumThenReset(), requests.sumThenReset());
+        }
+
+        UsageBucket snapshot(Instant start, UsageKey key) {
+            return new UsageBucket(start, key.tenant(), key.endpoint(), key.model(),
+                    promptTokens.sum(), completionTokens.sum(), requests.sum());
+        }
+    }
+
+    private static final class PeriodUsage {
+        final long index;
+        final LongAdder tokens = new LongAdder();
+        final AtomicBoolean warned = new AtomicBoolean();
+
+        PeriodUsage(long index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.portfolio.summarize.service.usage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Usage of one tenant between {@code from} and {@code to}, in buckets of {@code step}, and its budget
+ * standing in the current period
+ */
+public record UsageReport(
+    String tenant,
+    Instant from,
+    Instant to,
+    Duration step,
+    List<UsageBucket> buckets,
+    Budget budget
+) {
+    /**
+     * Tokens used in the current budget period against the soft and hard limits, which are null when unlimited
+     */
+    public record Budget(
+        Instant periodStart,
+        Instant periodEnd,
+        long usedTokens,
+        Long softTokens,
+        Long hardTokens
+    ) {
+    }
+}
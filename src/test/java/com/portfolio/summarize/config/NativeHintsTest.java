@@ -0,0 +1,37 @@
+package com.portfolio.summarize.config;
+
+import com.portfolio.summarize.model.OpenAiRequest;
+import com.portfolio.summarize.model.OpenAiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.annotation.ReflectiveRuntimeHintsRegistrar;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void testPropertiesRecordsAndClasspathResourcesAreRegistered() {
+        new NativeHints.Registrar().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.resource().forResource("prompts/messages/default.yml").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("com/knuddels/jtokkit/cl100k_base.tiktoken").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onConstructor(OpenAiProperties.class.getDeclaredConstructors()[0]).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(OpenAiProperties.Http.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(StreamingProperties.class).test(hints));
+    }
+
+    @Test
+    void testUpstreamPayloadsAndTheirNestedRecordsAreBindable() {
+        new ReflectiveRuntimeHintsRegistrar().registerRuntimeHints(hints, NativeHints.class);
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(OpenAiRequest.StreamOptions.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(OpenAiResponse.Usage.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(OpenAiResponse.Usage.class, "promptTokens").test(hints));
+    }
+}
@@ -0,0 +1,63 @@
+package com.portfolio.summarize.config;
+
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+class WebClientConfigTest {
+
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(300);
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        // Headers only once the completion is generated, as OpenAI does for non-streaming calls
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .post("/slow-headers", (request, response) -> Mono.delay(READ_TIMEOUT.multipliedBy(3))
+                                .then(response.sendString(Mono.just("{\"done\":true}")).then()))
+                        .post("/stalled-body", (request, response) -> response.sendString(Flux.concat(
+                                Mono.just("data: first\n\n"), Mono.delay(READ_TIMEOUT.multipliedBy(3)).thenReturn("data: late\n\n")))))
+                .bindNow();
+        OpenAiProperties properties = new OpenAiProperties("test-api-key", "http://localhost:" + server.port(), "gpt-4", null, null,
+                new OpenAiProperties.Http(null, null, null, null, null, null, null, Duration.ofSeconds(5), READ_TIMEOUT,
+                        null, null, false, null, null));
+        connectionProvider = new WebClientConfig().openAiConnectionProvider(properties);
+        client = WebClientConfig.openAiHttpClient(properties, connectionProvider).baseUrl(properties.baseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        server.disposeNow();
+    }
+
+    @Test
+    void testWaitForHeadersIsBoundedByTheResponseTimeoutNotTheReadTimeout() {
+        StepVerifier.create(client.post().uri("/slow-headers").responseSingle((response, body) -> body.asString()))
+                .expectNext("{\"done\":true}")
+                .verifyComplete();
+    }
+
+    @Test
+    void testReadTimeoutAppliesBetweenBytesOnceHeadersArrived() {
+        StepVerifier.create(client.post().uri("/stalled-body").responseContent().asString())
+                .expectNext("data: first\n\n")
+                .expectError(ReadTimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+}
@@ -1,16 +1,69 @@
 package com.portfolio.summarize.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.summarize.config.CompletionCacheProperties;
+import com.portfolio.summarize.config.CompressionProperties;
+import com.portfolio.summarize.config.ModelRoutingProperties;
 import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.config.RateLimitProperties;
+import com.portfolio.summarize.config.ResilienceProperties;
+import com.portfolio.summarize.config.RoutingProperties;
+import com.portfolio.summarize.config.SchedulerProperties;
+import com.portfolio.summarize.config.TemplateProperties;
+import com.portfolio.summarize.config.TokenProperties;
+import com.portfolio.summarize.config.UsageProperties;
+import com.portfolio.summarize.exception.BudgetExceededException;
+import com.portfolio.summarize.model.OpenAiRequest;
+import com.portfolio.summarize.model.OpenAiResponse;
+import com.portfolio.summarize.service.cache.CompletionCacheManager;
+import com.portfolio.summarize.service.cache.InMemoryCompletionCache;
+import com.portfolio.summarize.service.cache.SemanticCompletionCache;
+import com.portfolio.summarize.service.coalescing.RequestCoalescer;
+import com.portfolio.summarize.service.compression.InputCompressor;
+import com.portfolio.summarize.service.metrics.CompletionMetrics;
+import com.portfolio.summarize.service.ratelimit.UpstreamRateLimiter;
+import com.portfolio.summarize.service.resilience.CircuitBreaker;
+import com.portfolio.summarize.service.resilience.UpstreamResilience;
+import com.portfolio.summarize.service.routing.ModelRouter;
+import com.portfolio.summarize.service.routing.UpstreamRouter;
+import com.portfolio.summarize.service.routing.UpstreamTarget;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import com.portfolio.summarize.service.scheduling.RequestScheduler;
+import com.portfolio.summarize.service.templates.PromptTemplates;
+import com.portfolio.summarize.service.tokens.TokenCounter;
+import com.portfolio.summarize.service.usage.UsageLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,9 +78,16 @@ class OpenAiServiceTest {
     @Mock
     private WebClient.RequestBodySpec requestBodySpec;
 
+    @Mock
+    private WebClient.RequestHeadersSpec<?> requestHeadersSpec;
+
     @Mock
     private WebClient.ResponseSpec responseSpec;
 
+    @TempDir
+    private Path usageDirectory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     private OpenAiService openAiService;
     private OpenAiProperties properties;
 
@@ -38,9 +98,36 @@ class OpenAiServiceTest {
             "https://api.openai.com/v1",
             "gpt-4",
             1000,
-            0.7
+            0.7,
+            null
         );
-        openAiService = new OpenAiService(webClient, properties);
+        CompletionCacheProperties cacheProperties = new CompletionCacheProperties(null, null, null, null, null, null, null);
+        CompletionCacheManager completionCache = new CompletionCacheManager(
+            new InMemoryCompletionCache(cacheProperties.maxEntries(), cacheProperties.ttl(), meterRegistry),
+            cacheProperties
+        );
+        UpstreamRateLimiter rateLimiter = new UpstreamRateLimiter(
+            "test",
+            new RateLimitProperties(null, null, null, null, null),
+            meterRegistry
+        );
+        ResilienceProperties resilienceProperties = new ResilienceProperties(null, null, null);
+        UpstreamTarget target = new UpstreamTarget("test", properties.baseUrl(), properties.apiKey(), null, rateLimiter,
+            new CircuitBreaker("test", resilienceProperties.circuitBreaker(), meterRegistry), 10_000_000_000L);
+        TokenCounter tokenCounter = new TokenCounter(new TokenProperties(null, null, null, null), properties);
+        openAiService = new OpenAiService(webClient, properties, tokenCounter,
+            new PromptTemplates(new TemplateProperties(null, null)), completionCache,
+            new SemanticCompletionCache(new CompletionCacheProperties(null, null, null, null, null, null,
+                new CompletionCacheProperties.Semantic(true, null, null, null, null, null, null, null, null)), meterRegistry),
+            new RequestCoalescer(meterRegistry),
+            new RequestScheduler(new SchedulerProperties(null, null, null, null, null, null, null, null), meterRegistry),
+            new UpstreamRouter(List.of(target), RoutingProperties.Strategy.EWMA_LATENCY, meterRegistry),
+            new UpstreamResilience(resilienceProperties, meterRegistry),
+            new CompletionMetrics(meterRegistry),
+            new UsageLedger(new UsageProperties(usageDirectory.toString(), null, null, null, null, null,
+                Map.of("capped", new UsageProperties.Budget(null, 0L))), new ObjectMapper().findAndRegisterModules(), meterRegistry),
+            new InputCompressor(new CompressionProperties(null, null, null), tokenCounter, properties, meterRegistry),
+            new ModelRouter(new ModelRoutingProperties(null, null), properties, meterRegistry));
     }
 
     @Test
@@ -64,4 +151,137 @@ class OpenAiServiceTest {
         assert properties.apiKey().equals("test-api-key");
         assert properties.model().equals("gpt-4");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testMaxTokensIsClampedToTheContextWindow() {
+        OpenAiRequest request = openAiService.createRequest("word ".repeat(8000).strip(), 1000, null, false);
+
+        assertEquals(8192 - 8007, request.maxTokens());
+        assertThrows(IllegalArgumentException.class,
+            () -> openAiService.createRequest("word ".repeat(8180), null, null, false));
+    }
+
+    @Test
+    void testRequestCarriesItsPromptCountWithoutSendingIt() throws Exception {
+        OpenAiRequest request = openAiService.createRequest("word ".repeat(8000).strip(), 1000, null, false);
+
+        assertEquals(8007, request.promptTokens());
+        assertEquals(request.promptTokens(), openAiService.forModel(request, "gpt-4-turbo").promptTokens());
+        assertFalse(new ObjectMapper().writeValueAsString(request).contains("prompt"));
+    }
+
+    @Test
+    void testOversizedPromptIsAnErrorSignalNotAThrow() {
+        String oversized = "款".repeat(10_000);
+
+        StepVerifier.create(openAiService.summarizeText(oversized, null, "brief"))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+        StepVerifier.create(openAiService.continueConversationStream(
+                List.of(new OpenAiRequest.Message("user", oversized)), null, null))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+    }
+
+    @Test
+    void testRoutedRequestKeepsItsPromptAndCompletionBudget() {
+        OpenAiRequest request = openAiService.createRequest("word ".repeat(8000).strip(), 1000, null, false);
+        OpenAiRequest routed = openAiService.forModel(request, "gpt-4o-mini");
+
+        assertEquals("gpt-4o-mini", routed.model());
+        assertSame(request.messages(), routed.messages());
+        assertEquals(request.maxTokens(), routed.maxTokens());
+        assertSame(request, openAiService.forModel(request, "gpt-4"));
+    }
+
+    @Test
+    void testRepeatedSummaryIsServedFromCacheByDefault() {
+        stubCompletion("Jar cracked; refund issued.");
+        String text = "The replacement blender arrived with a cracked jar and support agreed to refund it.";
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(openAiService.summarizeText(text, null, "brief"))
+                .expectNext("Jar cracked; refund issued.")
+                .verifyComplete();
+        }
+        verify(webClient, times(1)).post();
+    }
+
+    @Test
+    void testSampledRequestsSkipTheSemanticCacheToo() {
+        stubCompletion("We are sorry your order arrived late.");
+
+        // Near-duplicates once digits are folded, but generated at 0.7, above the cache's max temperature
+        for (String order : List.of("48213", "50977")) {
+            StepVerifier.create(openAiService.generateMessage("Apologize for the late delivery of order " + order, null, null, null))
+                .expectNext("We are sorry your order arrived late.")
+                .verifyComplete();
+        }
+        verify(webClient, times(2)).post();
+    }
+
+    @Test
+    void testStreamReturnsTheUnusedQuotaReservation() {
+        String body = "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Jar cracked.\"}}]}\n\n"
+            + "data: {\"choices\":[],\"usage\":{\"prompt_tokens\":40,\"completion_tokens\":4,\"total_tokens\":44}}\n\n"
+            + "data: [DONE]\n\n";
+        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(body.getBytes(StandardCharsets.UTF_8));
+        when(webClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(any(URI.class))).thenReturn(requestBodySpec);
+        when(requestBodySpec.headers(any())).thenReturn(requestBodySpec);
+        doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(any());
+        doReturn(requestHeadersSpec).when(requestHeadersSpec).accept(MediaType.TEXT_EVENT_STREAM);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.toEntityFlux(DataBuffer.class)).thenReturn(Mono.just(ResponseEntity.ok(Flux.just(buffer))));
+
+        StepVerifier.create(openAiService.summarizeTextStream("The blender jar arrived cracked.", null, "brief"))
+            .expectNext("Jar cracked.")
+            .verifyComplete();
+
+        // Only the reported 44 tokens stay reserved, not the prompt plus the 1000 token completion allowance
+        double available = meterRegistry.get("openai.ratelimit.available").tags("target", "test", "budget", "tokens").gauge().value();
+        assertTrue(available >= 40_000 - 44, "available " + available);
+    }
+
+    @Test
+    void testTenantOverItsHardBudgetIsRefusedBeforeDispatch() {
+        StepVerifier.create(openAiService.generateMessage("Order 123 arrived late", null, null, null)
+                .contextWrite(new ClientContext("capped", null, null)::addTo))
+            .expectError(BudgetExceededException.class)
+            .verify();
+    }
+
+    @Test
+    void testSummaryTypeTagsAreLimitedToKnownTemplates() {
+        assertEquals("brief", openAiService.summaryTag("BRIEF"));
+        assertEquals(PromptTemplates.DEFAULT, openAiService.summaryTag("x-" + System.nanoTime()));
+        assertEquals("section", openAiService.summaryTag("section"));
+        assertNull(openAiService.summaryTag(null));
+    }
+
+    @Test
+    void testSummaryInstructionsAreAStableSystemMessage() {
+        String text = "This is a test text to be summarized.";
+
+        List<OpenAiRequest.Message> first = openAiService.summaryMessages(text, "bullet_points");
+        List<OpenAiRequest.Message> second = openAiService.summaryMessages("Another text.", "BULLET_POINTS");
+
+        assertEquals("system", first.get(0).role());
+        assertSame(first.get(0).content(), second.get(0).content());
+        assertSame(text, first.get(1).content());
+        assertEquals(openAiService.summaryMessages(text, null).get(0).content(),
+            openAiService.summaryMessages(text, "unknown").get(0).content());
+    }
+
+    private void stubCompletion(String content) {
+        OpenAiResponse response = new OpenAiResponse("id", "chat.completion", 0L, "gpt-4",
+            List.of(new OpenAiResponse.Choice(0, new OpenAiResponse.Message("assistant", content), "stop")),
+            new OpenAiResponse.Usage(40, 8, 48));
+        when(webClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(any(URI.class))).thenReturn(requestBodySpec);
+        when(requestBodySpec.headers(any())).thenReturn(requestBodySpec);
+        doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(any());
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.toEntity(OpenAiResponse.class)).thenReturn(Mono.just(ResponseEntity.ok(response)));
+    }
+}
@@ -0,0 +1,105 @@
+package com.portfolio.summarize.service.batch;
+
+import com.portfolio.summarize.config.BatchProperties;
+import com.portfolio.summarize.dto.BatchSummarizeItem;
+import com.portfolio.summarize.dto.BatchSummarizeResult;
+import com.portfolio.summarize.service.OpenAiService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchSummarizerTest {
+
+    @Mock
+    private OpenAiService openAiService;
+
+    private BatchSummarizer batchSummarizer;
+
+    @BeforeEach
+    void setUp() {
+        batchSummarizer = new BatchSummarizer(
+            openAiService,
+            new BatchProperties(2, 100),
+            Validation.buildDefaultValidatorFactory().getValidator()
+        );
+    }
+
+    @Test
+    void testRespectsConcurrencyAndReportsFailuresPerItem() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        when(openAiService.summarizeText(any(), any(), any())).thenAnswer(invocation -> Mono.defer(() -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            return Mono.just("summary of " + invocation.getArgument(0))
+                    .delayElement(Duration.ofMillis(10))
+                    .doOnSuccess(summary -> active.decrementAndGet());
+        }));
+        when(openAiService.summarizeText(eq("boom"), any(), any()))
+                .thenReturn(Mono.error(new RuntimeException("upstream failed")));
+
+        Flux<BatchSummarizeItem> items = Flux.just(
+            new BatchSummarizeItem("1", "first", null, null),
+            new BatchSummarizeItem("2", "boom", null, null),
+            new BatchSummarizeItem("3", "third", null, null),
+            new BatchSummarizeItem("4", "fourth", null, null),
+            new BatchSummarizeItem("5", "fifth", null, null)
+        );
+
+        StepVerifier.create(batchSummarizer.summarize(items).collectSortedList((a, b) -> a.id().compareTo(b.id())))
+                .assertNext(results -> {
+                    assertEquals(5, results.size());
+                    assertEquals(BatchSummarizeResult.success("1", "summary of first"), results.get(0));
+                    assertEquals("error", results.get(1).status());
+                    assertEquals("success", results.get(2).status());
+                    assertEquals("summary of fifth", results.get(4).summary());
+                })
+                .verifyComplete();
+        assertEquals(2, maxActive.get());
+    }
+
+    @Test
+    void testOversizedItemFailsAloneWithItsReason() {
+        String oversized = "款".repeat(10_000);
+        when(openAiService.summarizeText(any(), any(), any())).thenAnswer(invocation -> Mono.just("summary"));
+        when(openAiService.summarizeText(eq(oversized), any(), any())).thenThrow(
+                new IllegalArgumentException("Prompt of 20041 tokens does not fit the 8192 token context window of gpt-4"));
+
+        Flux<BatchSummarizeItem> items = Flux.just(
+            new BatchSummarizeItem("1", "first", null, null),
+            new BatchSummarizeItem("2", oversized, null, null),
+            new BatchSummarizeItem("3", "third", null, null)
+        );
+
+        StepVerifier.create(batchSummarizer.summarize(items).collectSortedList((a, b) -> a.id().compareTo(b.id())))
+                .assertNext(results -> {
+                    assertEquals(BatchSummarizeResult.success("1", "summary"), results.get(0));
+                    assertEquals(BatchSummarizeResult.error("2",
+                            "Prompt of 20041 tokens does not fit the 8192 token context window of gpt-4"), results.get(1));
+                    assertEquals(BatchSummarizeResult.success("3", "summary"), results.get(2));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testInvalidItemsAreRejectedWithoutCallingUpstream() {
+        Flux<BatchSummarizeItem> items = Flux.just(new BatchSummarizeItem("1", " ", null, null));
+
+        StepVerifier.create(batchSummarizer.summarize(items))
+                .expectNext(BatchSummarizeResult.error("1", "Text to summarize cannot be blank"))
+                .verifyComplete();
+    }}
@@ -0,0 +1,93 @@
+package com.portfolio.summarize.service.cache;
+
+import com.portfolio.summarize.config.CompletionCacheProperties;
+import com.portfolio.summarize.model.OpenAiRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionCacheManagerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testKeyIgnoresStreamFlagButNotTemperature() {
+        OpenAiRequest request = request("hello", 0.0, false);
+
+        assertEquals(CompletionCacheKeys.of(request), CompletionCacheKeys.of(request("hello", 0.0, true)));
+        assertNotEquals(CompletionCacheKeys.of(request), CompletionCacheKeys.of(request("hello", 0.3, false)));
+        assertNotEquals(CompletionCacheKeys.of(request), CompletionCacheKeys.of(request("hello!", 0.0, false)));
+    }
+
+    @Test
+    void testSecondIdenticalCallIsServedFromCache() {
+        CompletionCacheManager manager = new CompletionCacheManager(
+            new InMemoryCompletionCache(100, Duration.ofMinutes(1), meterRegistry),
+            properties(0.0, Map.of())
+        );
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        Mono<String> upstream = Mono.fromSupplier(() -> "answer-" + upstreamCalls.incrementAndGet());
+
+        StepVerifier.create(manager.getOrCompute("generate", request("hi", 0.0, false), upstream))
+                .expectNext("answer-1")
+                .verifyComplete();
+        StepVerifier.create(manager.getOrCompute("generate", request("hi", 0.0, false), upstream))
+                .expectNext("answer-1")
+                .verifyComplete();
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void testPolicySkipsSampledRequestsAndOptedOutEndpoints() {
+        CompletionCacheManager manager = new CompletionCacheManager(
+            CompletionCache.NONE,
+            properties(0.3, Map.of("generate", false))
+        );
+
+        assertTrue(manager.isCacheable("summarize", request("x", 0.3, false)));
+        assertFalse(manager.isCacheable("summarize", request("x", 0.7, false)));
+        assertFalse(manager.isCacheable("generate", request("x", 0.0, false)));
+    }
+
+    @Test
+    void testDiskTierSurvivesRestartAndEvictsOldest(@TempDir Path directory) {
+        DiskCompletionCache disk = new DiskCompletionCache(directory, 2, Duration.ofMinutes(5), meterRegistry);
+        disk.put("a", "first");
+        awaitEntry(disk, "a");
+        disk.put("b", "second");
+        awaitEntry(disk, "b");
+        disk.put("c", "third");
+        awaitEntry(disk, "c");
+
+        DiskCompletionCache reopened = new DiskCompletionCache(directory, 2, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        StepVerifier.create(reopened.get("a")).verifyComplete();
+        StepVerifier.create(reopened.get("c")).expectNext("third").verifyComplete();
+    }
+
+    private static void awaitEntry(DiskCompletionCache cache, String key) {
+        StepVerifier.create(Mono.defer(() -> cache.get(key)).repeatWhenEmpty(10, flux -> flux.delayElements(Duration.ofMillis(20))))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    private static CompletionCacheProperties properties(double maxTemperature, Map<String, Boolean> endpoints) {
+        return new CompletionCacheProperties(true, 100L, Duration.ofMinutes(1), maxTemperature, endpoints, null, null);
+    }
+
+    private static OpenAiRequest request(String prompt, double temperature, boolean stream) {
+        return new OpenAiRequest("gpt-4", List.of(new OpenAiRequest.Message("user", prompt)), 100, temperature, stream);
+    }
+}
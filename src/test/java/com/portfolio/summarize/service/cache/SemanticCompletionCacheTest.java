@@ -0,0 +1,125 @@
+package com.portfolio.summarize.service.cache;
+
+import com.portfolio.summarize.config.CompletionCacheProperties;
+import com.portfolio.summarize.model.OpenAiRequest;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SemanticCompletionCacheTest {
+
+    private static final String COMPLAINT = "Hello, I ordered a pair of running shoes three weeks ago and they still have not "
+            + "arrived. The tracking page has not been updated since the parcel left your warehouse and nobody answers "
+            + "the support line. Please send a replacement or refund my money. Order number %s.";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void testSignaturesEstimateSimilarityAndFoldNumbers() {
+        int[] first = MinHashSignature.of(COMPLAINT.formatted("48213"), 128, 3);
+
+        assertEquals(1.0, MinHashSignature.similarity(first, MinHashSignature.of(COMPLAINT.formatted("99"), 128, 3)));
+        assertTrue(MinHashSignature.similarity(first, MinHashSignature.of(COMPLAINT.replace("shoes", "boots"), 128, 3)) > 0.7);
+        assertTrue(MinHashSignature.similarity(first, MinHashSignature.of("Quarterly revenue grew in every region.", 128, 3)) < 0.1);
+    }
+
+    @Test
+    void testNearDuplicateIsServedFromCache() {
+        SemanticCompletionCache cache = cache(semantic(0.9, Map.of(), 0.0, 100));
+
+        assertEquals("summary-1", summarize(cache, "brief", COMPLAINT.formatted("48213"), "summary-%d"));
+        assertEquals("summary-1", summarize(cache, "brief", COMPLAINT.formatted("50977"), "summary-%d"));
+        assertEquals("summary-2", summarize(cache, "detailed", COMPLAINT.formatted("50977"), "summary-%d"));
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("openai.cache.semantic.requests").tag("result", "hit").counter().count());
+        assertEquals(2, meterRegistry.get("openai.cache.semantic.entries").gauge().value());
+    }
+
+    @Test
+    void testCompletionsAreNotSharedBetweenTenants() {
+        SemanticCompletionCache cache = cache(semantic(0.9, Map.of(), 0.0, 100));
+
+        assertEquals("summary-1", summarize(cache, "acme", "brief", COMPLAINT.formatted("48213"), "summary-%d"));
+        assertEquals("summary-2", summarize(cache, "globex", "brief", COMPLAINT.formatted("50977"), "summary-%d"));
+        assertEquals("summary-1", summarize(cache, "acme", "brief", COMPLAINT.formatted("50977"), "summary-%d"));
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void testCompletionRepeatingAnInputNumberIsNotReused() {
+        SemanticCompletionCache cache = cache(semantic(0.9, Map.of(), 0.0, 100));
+
+        summarize(cache, "brief", COMPLAINT.formatted("48213"), "Order 48213 is late (%d)");
+        assertEquals("Order 48213 is late (2)", summarize(cache, "brief", COMPLAINT.formatted("50977"), "Order 48213 is late (%d)"));
+        assertEquals(1.0, meterRegistry.get("openai.cache.semantic.requests").tag("result", "rejected").counter().count());
+    }
+
+    @Test
+    void testThresholdsArePerSummaryType() {
+        SemanticCompletionCache cache = cache(semantic(0.5, Map.of("detailed", 0.99), 0.0, 100));
+        String edited = COMPLAINT.formatted("1").replace("running shoes", "winter jacket");
+
+        summarize(cache, "brief", COMPLAINT.formatted("1"), "summary-%d");
+        summarize(cache, "detailed", COMPLAINT.formatted("1"), "summary-%d");
+
+        assertEquals("summary-1", summarize(cache, "brief", edited, "summary-%d"));
+        assertEquals("summary-3", summarize(cache, "detailed", edited, "summary-%d"));
+    }
+
+    @Test
+    void testAuditedFalseHitIsDropped() {
+        SemanticCompletionCache cache = cache(semantic(0.9, Map.of(), 1.0, 100));
+
+        summarize(cache, "brief", COMPLAINT.formatted("1"), "customer wants a refund for late shoes");
+        summarize(cache, "brief", COMPLAINT.formatted("2"), "unrelated text about quarterly revenue");
+
+        assertEquals(1.0, meterRegistry.get("openai.cache.semantic.audits").tag("outcome", "false_hit").counter().count());
+        assertEquals(0, meterRegistry.get("openai.cache.semantic.entries").gauge().value());
+    }
+
+    @Test
+    void testIndexIsBoundedByEntriesAndMemory() {
+        SemanticCompletionCache cache = cache(semantic(0.9, Map.of(), 0.0, 2));
+
+        for (String topic : List.of("shoes", "jacket", "laptop")) {
+            summarize(cache, "brief", "My " + topic + " arrived broken and I want a refund", "summary-%d");
+        }
+
+        assertEquals(2, meterRegistry.get("openai.cache.semantic.entries").gauge().value());
+        assertEquals("summary-4", summarize(cache, "brief", "My shoes arrived broken and I want a refund", "summary-%d"));
+        assertTrue(meterRegistry.get("openai.cache.semantic.memory").gauge().value() < DataSize.ofKilobytes(16).toBytes());
+    }
+
+    private String summarize(SemanticCompletionCache cache, String summaryType, String text, String completion) {
+        return summarize(cache, null, summaryType, text, completion);
+    }
+
+    private String summarize(SemanticCompletionCache cache, String tenant, String summaryType, String text, String completion) {
+        OpenAiRequest request = new OpenAiRequest("gpt-4", List.of(new OpenAiRequest.Message("user", text)), 150, 0.3, false);
+        Mono<String> upstream = Mono.fromSupplier(() -> completion.formatted(upstreamCalls.incrementAndGet()));
+        return cache.getOrCompute("summarize", summaryType, request, text, upstream)
+                .contextWrite(new ClientContext(tenant, null, null)::addTo)
+                .block();
+    }
+
+    private SemanticCompletionCache cache(CompletionCacheProperties.Semantic semantic) {
+        return new SemanticCompletionCache(semantic, meterRegistry, System::nanoTime, () -> 0.5);
+    }
+
+    private static CompletionCacheProperties.Semantic semantic(double threshold, Map<String, Double> thresholds,
+                                                               double auditRate, int maxEntries) {
+        return new CompletionCacheProperties.Semantic(true, maxEntries, null, Duration.ofMinutes(1), null, threshold,
+                thresholds, auditRate, null);
+    }
+}
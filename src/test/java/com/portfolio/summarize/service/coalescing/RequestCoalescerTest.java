@@ -0,0 +1,106 @@
+package com.portfolio.summarize.service.coalescing;
+
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import com.portfolio.summarize.service.scheduling.RequestPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestCoalescerTest {
+
+    private final RequestCoalescer coalescer = new RequestCoalescer(new SimpleMeterRegistry());
+
+    @Test
+    void testConcurrentIdenticalCallsShareOneUpstreamSubscription() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+        Mono<String> upstream = result.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet());
+
+        Mono<String> first = coalescer.coalesce("key", () -> upstream);
+        Mono<String> second = coalescer.coalesce("key", () -> upstream);
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> result.tryEmitValue("done"))
+                .assertNext(pair -> {
+                    assertEquals("done", pair.getT1());
+                    assertEquals("done", pair.getT2());
+                })
+                .verifyComplete();
+        assertEquals(1, subscriptions.get());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void testCallsAreSharedWithinATenantWithoutAnyCallersDeadline() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+        Mono<ClientContext> upstream = result.asMono()
+                .then(Mono.deferContextual(context -> Mono.just(ClientContext.from(context))))
+                .doOnSubscribe(s -> subscriptions.incrementAndGet());
+        long deadline = System.nanoTime() + Duration.ofMinutes(1).toNanos();
+
+        Mono<ClientContext> acme = coalescer.coalesce("key", () -> upstream)
+                .contextWrite(new ClientContext("acme", RequestPriority.STANDARD, deadline)::addTo);
+        Mono<ClientContext> acmeAgain = coalescer.coalesce("key", () -> upstream)
+                .contextWrite(new ClientContext("acme", RequestPriority.STANDARD, null)::addTo);
+        Mono<ClientContext> globex = coalescer.coalesce("key", () -> upstream)
+                .contextWrite(new ClientContext("globex", RequestPriority.STANDARD, null)::addTo);
+
+        StepVerifier.create(Mono.zip(acme, acmeAgain, globex))
+                .then(() -> result.tryEmitValue("done"))
+                .assertNext(results -> {
+                    assertEquals("acme", results.getT1().tenant());
+                    assertNull(results.getT1().deadlineNanos());
+                    assertEquals("acme", results.getT2().tenant());
+                    assertEquals("globex", results.getT3().tenant());
+                })
+                .verifyComplete();
+        assertEquals(2, subscriptions.get());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void testLateStreamSubscriberReceivesTokensAlreadyEmitted() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.Many<String> tokens = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<String> upstream = tokens.asFlux().doOnSubscribe(s -> subscriptions.incrementAndGet());
+
+        Flux<String> first = coalescer.coalesceStream("key", () -> upstream);
+        StepVerifier.create(first)
+                .then(() -> tokens.tryEmitNext("Hello"))
+                .expectNext("Hello")
+                .then(() -> StepVerifier.create(coalescer.coalesceStream("key", () -> upstream))
+                        .expectNext("Hello")
+                        .thenCancel()
+                        .verify(Duration.ofSeconds(1)))
+                .then(() -> {
+                    tokens.tryEmitNext(" world");
+                    tokens.tryEmitComplete();
+                })
+                .expectNext(" world")
+                .verifyComplete();
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void testUpstreamIsCancelledWhenAllSubscribersLeave() {
+        AtomicInteger cancellations = new AtomicInteger();
+        Flux<String> upstream = Flux.<String>never().doOnCancel(cancellations::incrementAndGet);
+
+        StepVerifier.create(coalescer.coalesceStream("key", () -> upstream))
+                .thenAwait(Duration.ofMillis(10))
+                .thenCancel()
+                .verify();
+        assertEquals(1, cancellations.get());
+        assertEquals(0, coalescer.inFlight());
+    }
+}
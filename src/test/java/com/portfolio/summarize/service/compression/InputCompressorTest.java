@@ -0,0 +1,109 @@
+package com.portfolio.summarize.service.compression;
+
+import com.portfolio.summarize.config.CompressionProperties;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.config.TokenProperties;
+import com.portfolio.summarize.service.tokens.TokenCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputCompressorTest {
+
+    private static final String THREAD = """
+            Hi team,
+
+            The replacement blender arrived with a cracked jar again.
+            I need a refund for both orders.
+
+            Thanks,
+            Maria
+            --\s
+            Maria Lopez | Customer since 2019
+
+            Sent from my iPhone
+
+            On Mon, Jan 8, 2024 at 9:14 AM Acme Support <support@acme.com>
+            wrote:
+            > We are sorry the blender arrived damaged.
+            > A replacement has been shipped.
+
+            -----Original Message-----
+            From: Maria Lopez
+            Sent: Sunday, January 7, 2024 6:02 PM
+            Subject: Damaged order
+
+            The replacement blender arrived with a
+            cracked jar again!
+
+            CONFIDENTIALITY NOTICE: This message is confidential and intended solely for the addressee.
+            """;
+
+    private static final String TRANSCRIPT = """
+            Agent: Thanks for calling Acme. How can I help?
+            Customer: The weather in Lisbon was lovely this week. My blender jar arrived cracked and I want a refund for the cracked blender jar.
+            Agent: I am sorry the blender jar arrived cracked. I will refund the cracked blender jar today.
+            Customer: Yes.
+            Agent: Anything else?
+            Customer: Yes.
+            Customer: My cat enjoys sunny windows.
+            """;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OpenAiProperties openAiProperties = new OpenAiProperties("test-api-key", null, "gpt-4", 1000, 0.7, null);
+    private final TokenCounter tokenCounter = new TokenCounter(new TokenProperties(null, null, null, null), openAiProperties);
+
+    @Test
+    void testQuotedHistoryBoilerplateAndRepeatedSentencesAreRemoved() {
+        CompressedText compressed = compressor(false, 1).compress(THREAD, InputCompressor.TEXT);
+
+        assertEquals("Hi team,\n\nThe replacement blender arrived with a cracked jar again.\nI need a refund for both orders.\n\n"
+                + "Thanks, Maria", compressed.text());
+        assertEquals(THREAD.length(), compressed.originalLength());
+        assertEquals(compressed.ratio(), meterRegistry.get("openai.compression.ratio").tag("input", "text").summary().mean());
+
+        // Short sentences are never deduplicated, and cleaning leaves a clean transcript as it was
+        assertEquals(TRANSCRIPT.strip(), compressor(false, 1).compress(TRANSCRIPT, InputCompressor.TEXT).text());
+        assertEquals("> only quoted", compressor(false, 1).compress("> only quoted", InputCompressor.TEXT).text());
+    }
+
+    @Test
+    void testExtractionKeepsCentralSentencesInOrderWithinBudget() {
+        String text = compressor(true, 41).compress(TRANSCRIPT, InputCompressor.TEXT).text();
+
+        assertEquals("Customer: My blender jar arrived cracked and I want a refund for the cracked blender jar.\n"
+                + "Agent: I am sorry the blender jar arrived cracked. I will refund the cracked blender jar today.", text);
+        // Documents are map-reduced rather than cut to the budget
+        assertEquals(TRANSCRIPT.strip(), compressor(true, 41).compress(TRANSCRIPT, InputCompressor.DOCUMENT).text());
+    }
+
+    @Test
+    void testExtractionBudgetIsCountedWithTheModelTokenizer() {
+        // Well under 60 tokens at four characters each, but several times that with the tokenizer
+        String complaint = "搅拌机的杯子又裂了。我要求两份订单都退款。客服说今天会处理退款。我很喜欢里斯本的天气。"
+                + "我的猫喜欢晒太阳。这已经是第二次收到破损的搅拌机了。";
+
+        String text = compressor(true, 60).compress(complaint, InputCompressor.TEXT).text();
+
+        assertTrue(text.length() < complaint.length(), text);
+        assertTrue(tokenCounter.count("gpt-4", text) <= 60, text);
+    }
+
+    @Test
+    void testTextRankFavoursSentencesSimilarToMany() {
+        double[] rank = TextRank.rank(List.of("Refund the cracked blender jar.", "The blender jar arrived cracked.",
+                "A refund for the blender.", "My cat enjoys sunny windows."));
+
+        assertTrue(rank[0] > rank[2], "shares more words with the others");
+        assertTrue(rank[2] > rank[3], "shares no words at all");
+    }
+
+    private InputCompressor compressor(boolean extract, int maxTokens) {
+        return new InputCompressor(new CompressionProperties(true, List.of(),
+                new CompressionProperties.Extractive(extract, maxTokens)), tokenCounter, openAiProperties, meterRegistry);
+    }
+}
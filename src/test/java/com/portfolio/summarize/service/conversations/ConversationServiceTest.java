@@ -0,0 +1,120 @@
+package com.portfolio.summarize.service.conversations;
+
+import com.portfolio.summarize.config.ConversationProperties;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.config.TemplateProperties;
+import com.portfolio.summarize.config.TokenProperties;
+import com.portfolio.summarize.model.OpenAiRequest;
+import com.portfolio.summarize.service.OpenAiService;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import com.portfolio.summarize.service.scheduling.RequestPriority;
+import com.portfolio.summarize.service.templates.PromptTemplates;
+import com.portfolio.summarize.service.tokens.TokenCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private OpenAiService openAiService;
+
+    private final OpenAiProperties openAiProperties = new OpenAiProperties("test-api-key", null, "gpt-4", 1000, 0.7, null);
+    private final PromptTemplates templates = new PromptTemplates(new TemplateProperties(null, null));
+    private final TokenCounter tokenCounter = new TokenCounter(new TokenProperties(null, null, null, null), openAiProperties);
+
+    @Test
+    void testFollowUpSendsHistoryAndOnlyTheNewPrompt() {
+        when(openAiService.continueConversation(anyList(), any(), any()))
+                .thenReturn(Mono.just("We are sorry your order was late."), Mono.just("Sorry it was late."));
+        ConversationService service = service(new ConversationProperties(null, null, null, null, null));
+
+        Conversation conversation = service.start("apology").block(TIMEOUT);
+        service.reply(conversation, "Order 123 arrived late", null, null).block(TIMEOUT);
+        Conversation updated = service.get(conversation.id(), ClientContext.ANONYMOUS).orElseThrow();
+        service.reply(updated, "Make it shorter", null, null).block(TIMEOUT);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OpenAiRequest.Message>> messages = ArgumentCaptor.forClass(List.class);
+        verify(openAiService, times(2)).continueConversation(messages.capture(), any(), any());
+        List<OpenAiRequest.Message> followUp = messages.getAllValues().get(1);
+        assertEquals("system", followUp.get(0).role());
+        assertEquals(List.of(
+                new OpenAiRequest.Message("user", "Order 123 arrived late"),
+                new OpenAiRequest.Message("assistant", "We are sorry your order was late."),
+                new OpenAiRequest.Message("user", "Make it shorter")), followUp.subList(1, followUp.size()));
+        assertEquals(4, service.get(conversation.id(), ClientContext.ANONYMOUS).orElseThrow().turns().size());
+    }
+
+    @Test
+    void testHistoryOverTheBudgetIsFoldedIntoTheSummary() {
+        String reply = "word ".repeat(60).strip();
+        when(openAiService.continueConversation(anyList(), any(), any())).thenReturn(Mono.just(reply));
+        when(openAiService.summarizeConversation(anyString(), any()))
+                .thenReturn(Mono.deferContextual(context -> Mono.just("Summary for " + ClientContext.from(context).priority())));
+        ConversationService service = service(new ConversationProperties(null, null, 100, true, 20));
+
+        Conversation conversation = service.start(null).block(TIMEOUT);
+        service.reply(conversation, "first", null, null).block(TIMEOUT);
+        assertNull(service.get(conversation.id(), ClientContext.ANONYMOUS).orElseThrow().summary());
+        service.reply(conversation, "second", null, null).block(TIMEOUT);
+
+        ArgumentCaptor<String> transcript = ArgumentCaptor.forClass(String.class);
+        verify(openAiService).summarizeConversation(transcript.capture(), any());
+        assertEquals("User: first\n\nAssistant: " + reply + "\n\n", transcript.getValue());
+        Conversation compacted = service.get(conversation.id(), ClientContext.ANONYMOUS).orElseThrow();
+        assertEquals("Summary for " + RequestPriority.BATCH, compacted.summary());
+        assertEquals(List.of("second", reply), compacted.turns().stream().map(Conversation.Turn::content).toList());
+        assertFalse(compacted.compacting());
+        assertTrue(compacted.historyTokens() <= 100);
+    }
+
+    @Test
+    void testTruncatesWithoutSummarizingAndIsolatesTenants() {
+        when(openAiService.continueConversation(anyList(), any(), any())).thenReturn(Mono.just("word ".repeat(60).strip()));
+        ConversationService service = service(new ConversationProperties(DataSize.ofKilobytes(64), null, 100, false, 20));
+        ClientContext tenant = new ClientContext("acme", null, null);
+
+        Conversation conversation = service.start(null).contextWrite(tenant::addTo).block(TIMEOUT);
+        service.reply(conversation, "first", null, null).block(TIMEOUT);
+        service.reply(conversation, "second", null, null).block(TIMEOUT);
+
+        assertEquals(2, service.get(conversation.id(), "acme").orElseThrow().turns().size());
+        verify(openAiService, never()).summarizeConversation(anyString(), any());
+        assertTrue(service.find(conversation.id()).blockOptional(TIMEOUT).isEmpty());
+        assertFalse(service.end(conversation.id()).block(TIMEOUT));
+        assertTrue(service.end(conversation.id()).contextWrite(tenant::addTo).block(TIMEOUT));
+        assertTrue(service.get(conversation.id(), "acme").isEmpty());
+    }
+
+    private ConversationService service(ConversationProperties properties) {
+        return new ConversationService(openAiService, templates, tokenCounter, properties, openAiProperties,
+                new SimpleMeterRegistry(), Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC));
+    }
+}
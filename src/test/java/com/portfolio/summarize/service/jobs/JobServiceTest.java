@@ -0,0 +1,155 @@
+package com.portfolio.summarize.service.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.summarize.config.JobProperties;
+import com.portfolio.summarize.dto.JobRequest;
+import com.portfolio.summarize.service.OpenAiService;
+import com.portfolio.summarize.service.longdoc.LongDocumentSummarizer;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JobServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private OpenAiService openAiService;
+
+    @Mock
+    private LongDocumentSummarizer longDocumentSummarizer;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<JobService> services = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(JobService::close);
+    }
+
+    @Test
+    void testSubmittedJobRunsAndPublishesEveryStateChange() {
+        when(openAiService.summarizeText("Customer wants a refund", 100, "brief")).thenReturn(Mono.just("Refund requested"));
+        JobService service = service(Clock.systemUTC());
+
+        Job submitted = service.submit(new JobRequest("Customer wants a refund", 100, "brief", null)).block(TIMEOUT);
+
+        List<Job> states = service.watch(submitted.id()).collectList().block(TIMEOUT);
+        Job finished = states.get(states.size() - 1);
+        assertEquals(Job.State.SUCCEEDED, finished.state());
+        assertEquals("Refund requested", finished.summary());
+        assertEquals(1, finished.attempts());
+        assertEquals(finished, service.get(submitted.id(), ClientContext.ANONYMOUS).orElseThrow());
+    }
+
+    @Test
+    void testJobsAreOnlyVisibleToTheirTenant() {
+        when(openAiService.summarizeText(anyString(), any(), any())).thenReturn(Mono.just("done"));
+        JobService service = service(Clock.systemUTC());
+
+        Job submitted = service.submit(new JobRequest("text", null, null, null))
+                .contextWrite(new ClientContext("acme", null, null)::addTo)
+                .block(TIMEOUT);
+
+        StepVerifier.create(service.watch(submitted.id()).contextWrite(new ClientContext("acme", null, null)::addTo).last())
+                .expectNextMatches(job -> job.state() == Job.State.SUCCEEDED)
+                .verifyComplete();
+        StepVerifier.create(service.find(submitted.id()).contextWrite(new ClientContext("globex", null, null)::addTo))
+                .verifyComplete();
+        StepVerifier.create(service.watch(submitted.id()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testUnfinishedJobsResumeAfterRestart() {
+        when(openAiService.summarizeText(anyString(), any(), any())).thenReturn(Mono.never());
+        JobService first = service(Clock.systemUTC());
+        Job running = first.submit(new JobRequest("first", null, null, null)).block(TIMEOUT);
+        first.watch(running.id()).filter(job -> job.state() == Job.State.RUNNING).blockFirst(TIMEOUT);
+        first.close();
+
+        when(openAiService.summarizeText(anyString(), any(), any())).thenReturn(Mono.just("done"));
+        JobService second = service(Clock.systemUTC());
+
+        Job resumed = second.watch(running.id()).blockLast(TIMEOUT);
+        assertEquals(Job.State.SUCCEEDED, resumed.state());
+        assertEquals(2, resumed.attempts());
+    }
+
+    @Test
+    void testTransientFailuresAreRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        when(openAiService.summarizeText(anyString(), any(), any())).thenReturn(Mono.defer(() -> calls.incrementAndGet() == 1
+                ? Mono.error(WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE.value(), "Unavailable", null, null, null))
+                : Mono.just("done")));
+        JobService service = service(Clock.systemUTC());
+
+        Job submitted = service.submit(new JobRequest("text", null, null, null)).block(TIMEOUT);
+
+        Job finished = service.watch(submitted.id()).blockLast(TIMEOUT);
+        assertEquals(Job.State.SUCCEEDED, finished.state());
+        assertEquals(2, finished.attempts());
+    }
+
+    @Test
+    void testFinishedJobsExpireAfterRetention() {
+        when(openAiService.summarizeText(anyString(), any(), any())).thenReturn(Mono.just("done"));
+        JobService first = service(Clock.systemUTC());
+        Job submitted = first.submit(new JobRequest("text", null, null, null)).block(TIMEOUT);
+        first.watch(submitted.id()).blockLast(TIMEOUT);
+        first.close();
+
+        JobService later = service(Clock.fixed(Instant.now().plus(Duration.ofDays(2)), ZoneOffset.UTC));
+        assertTrue(later.get(submitted.id(), ClientContext.ANONYMOUS).isEmpty());
+    }
+
+    @Test
+    void testWebhooksAreRestrictedToConfiguredHosts() {
+        JobService service = service(Clock.systemUTC());
+
+        StepVerifier.create(service.submit(new JobRequest("text", null, null, "http://169.254.169.254/latest")))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        assertThrows(IllegalArgumentException.class,
+                () -> service.submit(new JobRequest("text", null, null, "file:///etc/passwd")).block(TIMEOUT));
+    }
+
+    private JobService service(Clock clock) {
+        JobProperties properties = new JobProperties(directory.toString(), 2, null, 3, Duration.ofMillis(10),
+                Duration.ofDays(1), false, null);
+        JobService service = new JobService(openAiService, longDocumentSummarizer, properties, objectMapper,
+                WebClient.create(), new SimpleMeterRegistry(), clock);
+        services.add(service);
+        return service;
+    }
+}
@@ -0,0 +1,117 @@
+package com.portfolio.summarize.service.longdoc;
+
+import com.portfolio.summarize.config.CompressionProperties;
+import com.portfolio.summarize.config.LongDocumentProperties;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.config.TokenProperties;
+import com.portfolio.summarize.dto.SummaryEvent;
+import com.portfolio.summarize.service.OpenAiService;
+import com.portfolio.summarize.service.compression.InputCompressor;
+import com.portfolio.summarize.service.tokens.TokenCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LongDocumentSummarizerTest {
+
+    @Mock
+    private OpenAiService openAiService;
+
+    private final OpenAiProperties openAiProperties = new OpenAiProperties("test-api-key", null, "gpt-4", 1000, 0.7, null);
+    private final TokenCounter tokenCounter = new TokenCounter(new TokenProperties(null, null, null, null), openAiProperties);
+    private final InputCompressor compressor = new InputCompressor(new CompressionProperties(null, null, null), tokenCounter,
+            openAiProperties, new SimpleMeterRegistry());
+
+    @Test
+    void testChunkerKeepsParagraphsAndSentencesWithinBudget() {
+        DocumentChunker chunker = new DocumentChunker(10, text -> tokenCounter.count("gpt-4", text));
+        String text = "Short paragraph.\n\nThis sentence is a little longer. And another sentence follows it.\n\n"
+                + "unbrokenwordthatisfarlongerthanthewholebudgetallowsforsure";
+
+        List<String> chunks = chunker.split(text);
+
+        assertEquals("Short paragraph.", chunks.get(0));
+        assertEquals("This sentence is a little longer.", chunks.get(1));
+        chunks.forEach(chunk -> assertTrue(tokenCounter.count("gpt-4", chunk) <= 10, chunk));
+        assertEquals(text.replaceAll("\\s", ""), String.join("", chunks).replaceAll("\\s", ""));
+    }
+
+    @Test
+    void testChunksOfTextDenserThanTheEstimateStayWithinBudget() {
+        DocumentChunker chunker = new DocumentChunker(100, text -> tokenCounter.count("gpt-4", text));
+        String cjk = "顧客は交換品のミキサーが再び割れて届いたと報告し、両方の注文の返金を求めています。".repeat(40);
+        String code = "if(a[i]!=b[j]){x+=f(a,b,i,j);}else{y^=g(x);}".repeat(20);
+
+        List<String> chunks = chunker.split(cjk + "\n\n" + code);
+
+        assertTrue(chunks.size() > 4, "chunks=" + chunks.size());
+        chunks.forEach(chunk -> assertTrue(tokenCounter.count("gpt-4", chunk) <= 100, chunk));
+        assertEquals(cjk + code, String.join("", chunks).replaceAll("\\s", ""));
+    }
+
+    @Test
+    void testChunksAreSummarizedConcurrentlyThenMergedHierarchically() {
+        LongDocumentProperties properties = new LongDocumentProperties(10, 3, 2, 50);
+        LongDocumentSummarizer summarizer = new LongDocumentSummarizer(openAiService, properties, compressor, tokenCounter, openAiProperties);
+
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        when(openAiService.summarizeSection(any(), anyInt(), anyInt(), eq(50))).thenAnswer(invocation -> Mono.defer(() -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    return Mono.just("p" + invocation.getArgument(1))
+                            .delayElement(Duration.ofMillis(20))
+                            .doOnSuccess(partial -> active.decrementAndGet());
+                }));
+        when(openAiService.mergeSummaries(anyList(), eq(50), isNull()))
+                .thenAnswer(invocation -> Mono.just("m" + invocation.<List<String>>getArgument(0).size()));
+        when(openAiService.mergeSummaries(anyList(), eq(200), eq("brief")))
+                .thenAnswer(invocation -> Mono.just("final:" + String.join(",", invocation.<List<String>>getArgument(0))));
+
+        String text = String.join("\n\n", "Paragraph number one is here.", "Paragraph number two is here.",
+                "Paragraph number three is here.", "Paragraph number four is here.", "Paragraph number five is here.");
+
+        // 5 chunks -> [m2, m2, p5] -> [m2, p5] -> final merge
+        StepVerifier.create(summarizer.summarize(text, 200, "brief"))
+                .expectNext("final:m2,p5")
+                .verifyComplete();
+        assertEquals(3, maxActive.get());
+        verify(openAiService, atLeastOnce()).mergeSummaries(anyList(), eq(50), isNull());
+    }
+
+    @Test
+    void testStreamEmitsPartialsBeforeFinalSummary() {
+        LongDocumentProperties properties = new LongDocumentProperties(10, 4, 8, 50);
+        LongDocumentSummarizer summarizer = new LongDocumentSummarizer(openAiService, properties, compressor, tokenCounter, openAiProperties);
+        when(openAiService.summarizeSection(any(), anyInt(), anyInt(), eq(50)))
+                .thenAnswer(invocation -> Mono.just("p" + invocation.getArgument(1)));
+        when(openAiService.mergeSummariesStream(anyList(), eq(100), eq("brief")))
+                .thenReturn(Flux.just("Final", " summary"));
+
+        StepVerifier.create(summarizer.summarizeStream("Paragraph number one is here.\n\nParagraph number two is here.", 100, "brief"))
+                .expectNextMatches(event -> event.type().equals(SummaryEvent.PARTIAL) && event.totalParts() == 2)
+                .expectNextMatches(event -> event.type().equals(SummaryEvent.PARTIAL))
+                .expectNext(SummaryEvent.summary("Final"), SummaryEvent.summary(" summary"))
+                .verifyComplete();
+    }
+}
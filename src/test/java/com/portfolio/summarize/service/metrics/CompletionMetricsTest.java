@@ -0,0 +1,73 @@
+package com.portfolio.summarize.service.metrics;
+
+import com.portfolio.summarize.exception.ThrottledException;
+import com.portfolio.summarize.model.OpenAiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompletionMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CompletionMetrics metrics = new CompletionMetrics(meterRegistry);
+    private final CompletionMetrics.Operation operation = new CompletionMetrics.Operation("summarize", "brief", "gpt-4");
+
+    @Test
+    void testStreamRecordsTimeToFirstTokenGapsAndTokens() {
+        Flux<String> tokens = Flux.just("a", "b", "c").delayElements(Duration.ofMillis(20));
+
+        StepVerifier.create(metrics.observeStream(operation, tokens)).expectNextCount(3).verifyComplete();
+
+        assertEquals(1, meterRegistry.get("openai.stream.ttft").tag("summary_type", "brief").timer().count());
+        assertEquals(2, meterRegistry.get("openai.stream.token.gap").timer().count());
+        assertEquals(3.0, meterRegistry.get("openai.stream.tokens").counter().count());
+        assertEquals(1, meterRegistry.get("openai.stream.tokens.per.second").summary().count());
+        assertEquals(0.0, meterRegistry.get("openai.completion.inflight").tag("endpoint", "summarize").gauge().value());
+    }
+
+    @Test
+    void testCallsAreCountedByOutcomeAndStatusClass() {
+        StepVerifier.create(metrics.observe(operation, Mono.just("ok"))).expectNext("ok").verifyComplete();
+        StepVerifier.create(metrics.observe(operation, Mono.error(WebClientResponseException.create(
+                HttpStatus.BAD_GATEWAY.value(), "Bad Gateway", null, null, null)))).expectError().verify();
+        StepVerifier.create(metrics.observe(operation, Mono.error(
+                ThrottledException.tooManyRequests("full", Duration.ofSeconds(1))))).expectError().verify();
+
+        assertEquals(1, meterRegistry.get("openai.completion").tag("outcome", "success").timer().count());
+        assertEquals(2, meterRegistry.get("openai.completion").tag("outcome", "error").timer().count());
+        assertEquals(1.0, meterRegistry.get("openai.completion.errors").tag("status", "5xx").counter().count());
+        assertEquals(1.0, meterRegistry.get("openai.completion.errors").tag("status", "throttled").counter().count());
+    }
+
+    @Test
+    void testUsageIsCountedPerTokenType() {
+        metrics.recordUsage(operation, new OpenAiResponse.Usage(120, 30, 150));
+        metrics.recordUsage(operation, new OpenAiResponse.Usage(80, 20, 100));
+
+        assertEquals(200.0, meterRegistry.get("openai.tokens").tag("type", "prompt").counter().count());
+        assertEquals(50.0, meterRegistry.get("openai.tokens").tag("type", "completion").counter().count());
+    }
+
+    @Test
+    void testCancelledAttemptsAreCountedAsAbandonedWithWastedTokens() {
+        StepVerifier.create(metrics.trackAbandoned(operation, "primary", 120, Flux.just("a", "b").concatWith(Flux.never())))
+                .expectNext("a", "b")
+                .thenCancel()
+                .verify();
+        StepVerifier.create(metrics.trackAbandoned(operation, "primary", 80, Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get("openai.upstream.abandoned").tag("reason", "cancelled").timer().count());
+        assertEquals(120.0, meterRegistry.get("openai.tokens.wasted").tag("type", "prompt").counter().count());
+        assertEquals(2.0, meterRegistry.get("openai.tokens.wasted").tag("type", "completion").counter().count());
+    }
+}
@@ -0,0 +1,85 @@
+package com.portfolio.summarize.service.ratelimit;
+
+import com.portfolio.summarize.config.RateLimitProperties;
+import com.portfolio.summarize.exception.ThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UpstreamRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testRequestsOverBudgetQueueInOrderUntilMaxWait() {
+        // 60 RPM = one request per second, bursting up to 60
+        UpstreamRateLimiter limiter = limiter(60, 100_000, Duration.ofSeconds(2));
+        for (int i = 0; i < 60; i++) {
+            StepVerifier.create(limiter.acquire(10)).expectNextCount(1).verifyComplete();
+        }
+
+        StepVerifier.withVirtualTime(() -> limiter.acquire(10))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(999))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.withVirtualTime(() -> limiter.acquire(10))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(1999))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(limiter.acquire(10))
+                .expectErrorSatisfies(error -> assertEquals(Duration.ofSeconds(3),
+                        ((ThrottledException) error).getRetryAfter()))
+                .verify();
+    }
+
+    @Test
+    void testTokenEstimateIsCorrectedFromUsage() {
+        UpstreamRateLimiter limiter = limiter(1000, 600, Duration.ZERO);
+
+        UpstreamRateLimiter.Permit permit = limiter.acquire(500).block();
+        StepVerifier.create(limiter.acquire(500)).expectError(ThrottledException.class).verify();
+
+        permit.reconcile(100);
+        StepVerifier.create(limiter.acquire(500)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void testHeadersShrinkBudgetAndRateLimitedResponsePausesAdmission() {
+        UpstreamRateLimiter limiter = limiter(1000, 100_000, Duration.ZERO);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("x-ratelimit-remaining-tokens", "50");
+        limiter.updateFromHeaders(headers);
+        StepVerifier.create(limiter.acquire(100)).expectError(ThrottledException.class).verify();
+
+        UpstreamRateLimiter paused = limiter(1000, 100_000, Duration.ofSeconds(30));
+        HttpHeaders tooMany = new HttpHeaders();
+        tooMany.set("x-ratelimit-reset-requests", "6m0s");
+        paused.onRateLimited(tooMany);
+        StepVerifier.create(paused.acquire(1)).expectError(ThrottledException.class).verify();
+    }
+
+    @Test
+    void testParsesUpstreamResetDurations() {
+        assertEquals(Duration.ofSeconds(20), UpstreamRateLimiter.parseDuration("20"));
+        assertEquals(Duration.ofMillis(6500), UpstreamRateLimiter.parseDuration("6.5s"));
+        assertEquals(Duration.ofSeconds(360), UpstreamRateLimiter.parseDuration("6m0s"));
+        assertEquals(Duration.ofMillis(20), UpstreamRateLimiter.parseDuration("20ms"));
+        assertNull(UpstreamRateLimiter.parseDuration("soon"));
+    }
+
+    private UpstreamRateLimiter limiter(int rpm, int tpm, Duration maxWait) {
+        return new UpstreamRateLimiter("test", new RateLimitProperties(true, rpm, tpm, maxWait, true),
+                new SimpleMeterRegistry(), now::get);
+    }
+}
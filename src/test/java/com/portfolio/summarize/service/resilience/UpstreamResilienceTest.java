@@ -0,0 +1,128 @@
+package com.portfolio.summarize.service.resilience;
+
+import com.portfolio.summarize.config.ResilienceProperties;
+import com.portfolio.summarize.exception.ThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamResilienceTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testTransientFailuresAreRetriedButClientErrorsAreNot() {
+        UpstreamResilience resilience = resilience(new ResilienceProperties.Hedging(false, null, null, null, null));
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> resilience.call(() -> Mono.defer(() -> attempts.incrementAndGet() < 3
+                        ? Mono.error(upstreamError(HttpStatus.BAD_GATEWAY, null))
+                        : Mono.just("ok"))))
+                .thenAwait(Duration.ofSeconds(10))
+                .expectNext("ok")
+                .verifyComplete();
+        assertEquals(3, attempts.get());
+
+        attempts.set(0);
+        StepVerifier.create(resilience.call(() -> Mono.defer(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(upstreamError(HttpStatus.BAD_REQUEST, null));
+                })))
+                .expectError(WebClientResponseException.BadRequest.class)
+                .verify();
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testBackoffIsJitteredAndHonoursRetryAfter() {
+        UpstreamResilience resilience = resilience(new ResilienceProperties.Hedging(false, null, null, null, null));
+
+        for (int i = 0; i < 100; i++) {
+            Duration delay = resilience.backoff(2, null);
+            assertTrue(delay.toMillis() >= 500 && delay.toMillis() <= 1000, delay.toString());
+        }
+        assertEquals(Duration.ofSeconds(5), resilience.backoff(1, Duration.ofSeconds(5)));
+        assertNull(resilience.backoff(1, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void testStreamsAreOnlyRetriedBeforeTheFirstElement() {
+        UpstreamResilience resilience = resilience(new ResilienceProperties.Hedging(false, null, null, null, null));
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> resilience.stream(() -> {
+                    attempts.incrementAndGet();
+                    return Flux.concat(Flux.just("a"), Flux.error(upstreamError(HttpStatus.SERVICE_UNAVAILABLE, null)));
+                }))
+                .expectNext("a")
+                .expectError(WebClientResponseException.ServiceUnavailable.class)
+                .verify();
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testSlowCallIsHedgedAndFirstValueWins() {
+        UpstreamResilience resilience = resilience(new ResilienceProperties.Hedging(true, 0.95, 0, Duration.ofMillis(100), null));
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+
+        StepVerifier.withVirtualTime(() -> resilience.call(() -> attempts.incrementAndGet() == 1
+                        ? Mono.delay(Duration.ofSeconds(5)).thenReturn("primary").doOnCancel(() -> primaryCancelled.set(true))
+                        : Mono.delay(Duration.ofMillis(50)).thenReturn("hedge")))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(150))
+                .expectNext("hedge")
+                .verifyComplete();
+        assertEquals(2, attempts.get());
+        assertTrue(primaryCancelled.get());
+    }
+
+    @Test
+    void testCircuitOpensOnFailuresAndRecoversThroughHalfOpenTrials() {
+        CircuitBreaker breaker = new CircuitBreaker("test",
+                new ResilienceProperties.Breaker(true, 10, 4, 50, Duration.ofSeconds(30), 2),
+                new SimpleMeterRegistry(), now::get);
+
+        StepVerifier.create(breaker.run(Mono.just("ok"))).expectNext("ok").verifyComplete();
+        StepVerifier.create(breaker.run(Mono.error(upstreamError(HttpStatus.BAD_REQUEST, null)))).expectError().verify();
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(breaker.run(Mono.error(upstreamError(HttpStatus.INTERNAL_SERVER_ERROR, null)))).expectError().verify();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        StepVerifier.create(breaker.run(Mono.just("ok")))
+                .expectErrorSatisfies(error -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((ThrottledException) error).getStatus()))
+                .verify();
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        StepVerifier.create(breaker.run(Mono.just("ok"))).expectNext("ok").verifyComplete();
+        StepVerifier.create(breaker.run(Mono.just("ok"))).expectNext("ok").verifyComplete();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private UpstreamResilience resilience(ResilienceProperties.Hedging hedging) {
+        return new UpstreamResilience(new ResilienceProperties(null, null, hedging), new SimpleMeterRegistry());
+    }
+
+    private static WebClientResponseException upstreamError(HttpStatus status, String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return WebClientResponseException.create(status.value(), status.getReasonPhrase(), headers, new byte[0], null);
+    }
+}
@@ -0,0 +1,122 @@
+package com.portfolio.summarize.service.routing;
+
+import com.portfolio.summarize.config.ModelRoutingProperties;
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.exception.BudgetExceededException;
+import com.portfolio.summarize.exception.ThrottledException;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelRouterTest {
+
+    private static final String TEXT = "The replacement blender arrived with a cracked jar and the customer wants a refund "
+            + "for both orders, which support agreed to issue today.";
+    private static final ClientContext ANONYMOUS = new ClientContext(null, null, null);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ModelRouter router = new ModelRouter(new ModelRoutingProperties(List.of(
+            new ModelRoutingProperties.Rule("brief", "gpt-4o-mini", List.of("summarize"), List.of("brief", "bullet_points"),
+                    null, 1000, null, true),
+            new ModelRoutingProperties.Rule("deadline", "gpt-3.5-turbo", null, null, null, null, Duration.ofSeconds(3), null),
+            new ModelRoutingProperties.Rule(null, "gpt-4o-mini", List.of("generate"), null, List.of("welcome"), null, null, null)),
+            null), new OpenAiProperties("key", "https://api.openai.com/v1", "gpt-4", 1000, 0.7, null), meterRegistry);
+
+    @Test
+    void testFirstMatchingRuleChoosesTheModel() {
+        ModelRoute brief = router.route("summarize", "BRIEF", null, 500, ANONYMOUS, false);
+        assertEquals("brief", brief.name());
+        assertEquals("gpt-4o-mini", brief.model());
+        assertTrue(brief.cascade());
+
+        assertEquals(ModelRouter.DEFAULT_ROUTE, router.route("summarize", "brief", null, 5000, ANONYMOUS, false).name());
+        assertEquals(ModelRouter.DEFAULT_ROUTE, router.route("summarize", "detailed", null, 500, ANONYMOUS, false).name());
+        assertEquals("rule-3", router.route("generate", null, "WELCOME", 50, ANONYMOUS, false).name());
+
+        // Only callers that set a tight X-Request-Timeout match a maxTimeout rule
+        ClientContext hurried = new ClientContext(null, null, System.nanoTime() + Duration.ofSeconds(2).toNanos());
+        ClientContext patient = new ClientContext(null, null, System.nanoTime() + Duration.ofSeconds(30).toNanos());
+        assertEquals("gpt-3.5-turbo", router.route("generate", null, "reply", 50, hurried, false).model());
+        assertEquals("gpt-4", router.route("generate", null, "reply", 50, patient, false).model());
+
+        // Streams cannot be checked, so a cascading rule sends them to the default model
+        ModelRoute streamed = router.route("summarize", "brief", null, 500, ANONYMOUS, true);
+        assertEquals("brief", streamed.name());
+        assertEquals("gpt-4", streamed.model());
+        assertFalse(streamed.cascade());
+    }
+
+    @Test
+    void testCascadeEscalatesAnswersFailingValidation() {
+        ModelRoute route = router.route("summarize", "bullet_points", null, 500, ANONYMOUS, false);
+
+        StepVerifier.create(router.complete(route, Mono.just("- Jar arrived cracked\n- Refund issued for both orders"),
+                        Mono.error(new AssertionError("not escalated")), "bullet_points", TEXT))
+                .expectNext("- Jar arrived cracked\n- Refund issued for both orders")
+                .verifyComplete();
+        StepVerifier.create(router.complete(route, Mono.just("The jar arrived cracked and both orders are refunded."),
+                        Mono.just("escalated"), "bullet_points", TEXT))
+                .expectNext("escalated")
+                .verifyComplete();
+        StepVerifier.create(router.complete(route, Mono.just("I'm sorry, but I can't help with that request."),
+                        Mono.just("escalated"), "brief", TEXT))
+                .expectNext("escalated")
+                .verifyComplete();
+        StepVerifier.create(router.complete(route, Mono.error(new IllegalStateException("upstream failed")),
+                        Mono.just("escalated"), "brief", TEXT))
+                .expectNext("escalated")
+                .verifyComplete();
+        // Throttling, budgets and invalid requests apply to the escalation too, so they are passed on rather than retried
+        StepVerifier.create(router.complete(route, Mono.error(new ThrottledException("busy", HttpStatus.TOO_MANY_REQUESTS,
+                        Duration.ofSeconds(1))), Mono.just("escalated"), "brief", TEXT))
+                .expectError(ThrottledException.class)
+                .verify();
+        StepVerifier.create(router.complete(route, Mono.error(new BudgetExceededException("over budget", Duration.ofHours(1))),
+                        Mono.just("escalated"), "brief", TEXT))
+                .expectError(BudgetExceededException.class)
+                .verify();
+        StepVerifier.create(router.complete(route, Mono.error(new IllegalArgumentException("prompt too large")),
+                        Mono.just("escalated"), "brief", TEXT))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        for (String reason : List.of("format", "refusal", "error")) {
+            assertEquals(1.0, meterRegistry.get("openai.route.escalations").tags("route", "brief", "reason", reason).counter().count());
+        }
+        assertEquals(1, meterRegistry.get("openai.route.latency").tags("route", "brief", "outcome", "accepted").timer().count());
+        assertEquals(3, meterRegistry.get("openai.route.latency").tags("route", "brief", "outcome", "escalated").timer().count());
+    }
+
+    @Test
+    void testValidationChecksLengthAgainstTheSummarizedText() {
+        assertEquals("length", router.failure("brief", TEXT, "Refund."));
+        assertEquals("length", router.failure("brief", "Short text to summarize.", "A summary longer than the text it summarizes."));
+        assertEquals("refusal", router.failure(null, null, "As an AI language model, I have no opinion on refunds."));
+        assertNull(router.failure("brief", TEXT, "Cracked jar; both orders refunded today."));
+        assertNull(router.failure("Bullet_Points", TEXT, "Summary:\n1. Cracked jar\n2. Both orders refunded"));
+    }
+
+    @Test
+    void testNonCascadingRouteReturnsItsAnswerAsIs() {
+        ModelRoute route = router.route("generate", null, "welcome", 50, ANONYMOUS, false);
+        Mono<String> escalation = Mono.error(new AssertionError("not escalated"));
+
+        StepVerifier.create(router.complete(route, Mono.just("Hi"), escalation, null, null))
+                .expectNext("Hi")
+                .verifyComplete();
+        assertSame(route, route.withModel("gpt-4o-mini"));
+        assertEquals(1, meterRegistry.get("openai.route.latency").tags("route", "rule-3", "model", "gpt-4o-mini").timer().count());
+    }
+}
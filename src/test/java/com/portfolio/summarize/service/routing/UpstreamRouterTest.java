@@ -0,0 +1,108 @@
+package com.portfolio.summarize.service.routing;
+
+import com.portfolio.summarize.config.RateLimitProperties;
+import com.portfolio.summarize.config.ResilienceProperties;
+import com.portfolio.summarize.config.RoutingProperties;
+import com.portfolio.summarize.model.OpenAiRequest;
+import com.portfolio.summarize.service.ratelimit.UpstreamRateLimiter;
+import com.portfolio.summarize.service.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UpstreamRouterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testEwmaPrefersFasterTargetAndDecaysPenalties() {
+        UpstreamTarget fast = target("fast", 1000, Duration.ofSeconds(30));
+        UpstreamTarget slow = target("slow", 1000, Duration.ofSeconds(30));
+        UpstreamRouter router = new UpstreamRouter(List.of(fast, slow), RoutingProperties.Strategy.EWMA_LATENCY, meterRegistry);
+
+        fast.observe(TimeUnit.MILLISECONDS.toNanos(200));
+        slow.observe(TimeUnit.SECONDS.toNanos(3));
+        for (int i = 0; i < 20; i++) {
+            assertSame(fast, router.select(10));
+        }
+
+        // Idle time decays the slow target's average until it is worth trying again
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        fast.observe(TimeUnit.MILLISECONDS.toNanos(200));
+        assertSame(slow, router.select(10));
+    }
+
+    @Test
+    void testTargetsWithQuotaArePreferred() {
+        UpstreamTarget exhausted = target("exhausted", 1, Duration.ofSeconds(30));
+        UpstreamTarget spare = target("spare", 1000, Duration.ofSeconds(30));
+        UpstreamRouter router = new UpstreamRouter(List.of(exhausted, spare), RoutingProperties.Strategy.LEAST_OUTSTANDING, meterRegistry);
+
+        exhausted.getRateLimiter().acquire(10).block();
+        for (int i = 0; i < 20; i++) {
+            assertSame(spare, router.select(10));
+        }
+    }
+
+    @Test
+    void testUnhealthyTargetIsEjectedAndReturnsAfterOpenDuration() throws InterruptedException {
+        UpstreamTarget flaky = target("flaky", 1000, Duration.ofMillis(100));
+        UpstreamTarget healthy = target("healthy", 1000, Duration.ofSeconds(30));
+        UpstreamRouter router = new UpstreamRouter(List.of(flaky, healthy), RoutingProperties.Strategy.LEAST_OUTSTANDING, meterRegistry);
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(flaky.run(Mono.error(WebClientResponseException.create(
+                            HttpStatus.BAD_GATEWAY.value(), "Bad Gateway", null, null, null))))
+                    .expectError()
+                    .verify();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, flaky.getCircuitBreaker().getState());
+        for (int i = 0; i < 20; i++) {
+            assertSame(healthy, router.select(10));
+        }
+
+        Thread.sleep(150);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, flaky.getCircuitBreaker().getState());
+        StepVerifier.create(flaky.run(Mono.just("ok"))).expectNext("ok").verifyComplete();
+        assertEquals(CircuitBreaker.State.CLOSED, flaky.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void testTargetModelOverridesTheDefaultModelOnly() {
+        UpstreamTarget local = new UpstreamTarget("local", "http://localhost:8000/v1/", "", "llama-3-8b-instruct",
+                limiter("local", 1000), breaker("local", Duration.ofSeconds(30)), TimeUnit.SECONDS.toNanos(10));
+        OpenAiRequest request = new OpenAiRequest("gpt-4", List.of(new OpenAiRequest.Message("user", "hi")), 10, 0.0, false);
+
+        assertEquals("llama-3-8b-instruct", local.adapt(request, "gpt-4").model());
+        // A model chosen by a routing rule is kept, so route metrics and usage name the model actually called
+        OpenAiRequest routed = new OpenAiRequest("gpt-4o-mini", request.messages(), 10, 0.0, false);
+        assertEquals("gpt-4o-mini", local.adapt(routed, "gpt-4").model());
+        assertEquals("http://localhost:8000/v1/chat/completions", local.getCompletionsUri().toString());
+    }
+
+    private UpstreamTarget target(String name, int requestsPerMinute, Duration openDuration) {
+        return new UpstreamTarget(name, "https://api.openai.com/v1", "key-" + name, null,
+                limiter(name, requestsPerMinute), breaker(name, openDuration), TimeUnit.SECONDS.toNanos(10), now::get);
+    }
+
+    private UpstreamRateLimiter limiter(String name, int requestsPerMinute) {
+        return new UpstreamRateLimiter(name, new RateLimitProperties(true, requestsPerMinute, 100_000, Duration.ofMinutes(1), true),
+                meterRegistry);
+    }
+
+    private CircuitBreaker breaker(String name, Duration openDuration) {
+        return new CircuitBreaker(name, new ResilienceProperties.Breaker(true, 10, 2, 50, openDuration, 1), meterRegistry);
+    }
+}
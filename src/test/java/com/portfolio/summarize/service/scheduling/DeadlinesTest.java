@@ -0,0 +1,57 @@
+package com.portfolio.summarize.service.scheduling;
+
+import com.portfolio.summarize.exception.ThrottledException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlinesTest {
+
+    @Test
+    void testPassedDeadlineFailsWithoutSubscribing() {
+        AtomicBoolean subscribed = new AtomicBoolean();
+        Mono<String> call = Mono.just("late").doOnSubscribe(subscription -> subscribed.set(true));
+
+        StepVerifier.create(Deadlines.enforce(call).contextWrite(deadlineIn(Duration.ofMillis(-1))::addTo))
+                .expectErrorSatisfies(error -> assertEquals(HttpStatus.GATEWAY_TIMEOUT, ((ThrottledException) error).getStatus()))
+                .verify();
+        assertFalse(subscribed.get());
+    }
+
+    @Test
+    void testRunningCallIsCancelledWhenTheDeadlinePasses() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> call = Mono.<String>never().doOnCancel(() -> cancelled.set(true));
+
+        StepVerifier.create(Deadlines.enforce(call).contextWrite(deadlineIn(Duration.ofMillis(50))::addTo))
+                .expectError(ThrottledException.class)
+                .verify(Duration.ofSeconds(5));
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    void testStreamIsCancelledWhenTheDeadlinePassesEvenWhileTokensFlow() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flux<Long> tokens = Flux.interval(Duration.ofMillis(10)).doOnCancel(() -> cancelled.set(true));
+
+        StepVerifier.create(Deadlines.enforce(tokens).contextWrite(deadlineIn(Duration.ofMillis(100))::addTo))
+                .thenConsumeWhile(token -> true)
+                .expectError(ThrottledException.class)
+                .verify(Duration.ofSeconds(5));
+        assertTrue(cancelled.get());
+        StepVerifier.create(Deadlines.enforce(Flux.just("a", "b"))).expectNext("a", "b").verifyComplete();
+    }
+
+    private static ClientContext deadlineIn(Duration timeout) {
+        return new ClientContext("tenant", RequestPriority.STANDARD, System.nanoTime() + timeout.toNanos());
+    }
+}
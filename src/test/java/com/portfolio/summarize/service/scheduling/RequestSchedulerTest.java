@@ -0,0 +1,171 @@
+package com.portfolio.summarize.service.scheduling;
+
+import com.portfolio.summarize.config.SchedulerProperties;
+import com.portfolio.summarize.exception.ThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VirtualTimeScheduler timer = VirtualTimeScheduler.create();
+    private final List<Disposable> timeouts = new ArrayList<>();
+    private final List<String> dispatched = new ArrayList<>();
+
+    @Test
+    void testInteractiveCallsOvertakeQueuedBulkWork() {
+        RequestScheduler scheduler = scheduler(1, 100, 100);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        block(scheduler, gate);
+
+        submit(scheduler, "bulk", "a", RequestPriority.BATCH).subscribe();
+        submit(scheduler, "report", "a", RequestPriority.STANDARD).subscribe();
+        submit(scheduler, "chat", "a", RequestPriority.INTERACTIVE).subscribe();
+        assertEquals(3.0, queued(RequestPriority.BATCH) + queued(RequestPriority.STANDARD) + queued(RequestPriority.INTERACTIVE));
+
+        gate.tryEmitEmpty();
+        assertEquals(List.of("blocker", "chat", "report", "bulk"), dispatched);
+        assertEquals(1, meterRegistry.get("openai.scheduler.wait").tag("priority", "interactive").timer().count());
+    }
+
+    @Test
+    void testTenantsShareCapacityFairly() {
+        RequestScheduler scheduler = scheduler(1, 100, 100);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        block(scheduler, gate);
+
+        submit(scheduler, "a1", "a", RequestPriority.STANDARD).subscribe();
+        submit(scheduler, "a2", "a", RequestPriority.STANDARD).subscribe();
+        submit(scheduler, "a3", "a", RequestPriority.STANDARD).subscribe();
+        submit(scheduler, "b1", "b", RequestPriority.STANDARD).subscribe();
+
+        gate.tryEmitEmpty();
+        assertEquals(List.of("blocker", "a1", "b1", "a2", "a3"), dispatched);
+    }
+
+    @Test
+    void testFullQueueShedsLowerPriorityThenRejects() {
+        RequestScheduler scheduler = scheduler(1, 1, 100);
+        block(scheduler, Sinks.empty());
+
+        AtomicReference<Throwable> bulkError = new AtomicReference<>();
+        submit(scheduler, "bulk", "a", RequestPriority.BATCH).subscribe(value -> { }, bulkError::set);
+        submit(scheduler, "chat", "b", RequestPriority.INTERACTIVE).subscribe();
+
+        assertInstanceOf(ThrottledException.class, bulkError.get());
+        StepVerifier.create(submit(scheduler, "another", "c", RequestPriority.INTERACTIVE))
+                .expectErrorSatisfies(error -> {
+                    ThrottledException throttled = assertInstanceOf(ThrottledException.class, error);
+                    assertEquals(HttpStatus.TOO_MANY_REQUESTS, throttled.getStatus());
+                    assertTrue(throttled.getRetryAfter().compareTo(Duration.ofSeconds(1)) >= 0);
+                })
+                .verify();
+        assertEquals(1.0, dropped("batch", "shed"));
+        assertEquals(1.0, dropped("interactive", "queue_full"));
+    }
+
+    @Test
+    void testExpiredAndCancelledCallsNeverReachUpstream() {
+        RequestScheduler scheduler = scheduler(1, 100, 100);
+        Sinks.Empty<Void> gate = Sinks.empty();
+        block(scheduler, gate);
+
+        long deadline = timer.now(TimeUnit.NANOSECONDS) + TimeUnit.MILLISECONDS.toNanos(100);
+        AtomicReference<Throwable> expired = new AtomicReference<>();
+        submit(scheduler, "impatient", new ClientContext("a", RequestPriority.INTERACTIVE, deadline))
+                .subscribe(value -> { }, expired::set);
+        Disposable abandoned = submit(scheduler, "abandoned", "b", RequestPriority.STANDARD).subscribe();
+
+        timer.advanceTimeBy(Duration.ofMillis(200));
+        abandoned.dispose();
+        gate.tryEmitEmpty();
+
+        assertInstanceOf(ThrottledException.class, expired.get());
+        assertEquals(List.of("blocker"), dispatched);
+        assertEquals(1.0, dropped("interactive", "deadline"));
+        assertEquals(1.0, dropped("standard", "cancelled"));
+        assertEquals(0.0, meterRegistry.get("openai.scheduler.active").gauge().value());
+    }
+
+    @Test
+    void testCancelledQueuedCallReleasesItsQueueTimeout() {
+        RequestScheduler scheduler = scheduler(1, 100, 100);
+        block(scheduler, Sinks.empty());
+
+        Disposable abandoned = submit(scheduler, "abandoned", "b", RequestPriority.STANDARD).subscribe();
+        Disposable timeout = timeouts.get(timeouts.size() - 1);
+        abandoned.dispose();
+
+        assertTrue(timeout.isDisposed());
+        assertEquals(1.0, dropped("standard", "cancelled"));
+    }
+
+    private RequestScheduler scheduler(int maxConcurrent, int maxQueued, int maxQueuedPerTenant) {
+        SchedulerProperties properties = new SchedulerProperties(true, maxConcurrent, maxQueued, maxQueuedPerTenant,
+                Duration.ofSeconds(30), null, null, Map.of());
+        return new RequestScheduler(properties, meterRegistry, () -> timer.now(TimeUnit.NANOSECONDS), new Scheduler() {
+            @Override
+            public Disposable schedule(Runnable task) {
+                return timer.schedule(task);
+            }
+
+            @Override
+            public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+                Disposable timeout = timer.schedule(task, delay, unit);
+                timeouts.add(timeout);
+                return timeout;
+            }
+
+            @Override
+            public Worker createWorker() {
+                return timer.createWorker();
+            }
+        });
+    }
+
+    private void block(RequestScheduler scheduler, Sinks.Empty<Void> gate) {
+        scheduler.schedule(() -> {
+                    dispatched.add("blocker");
+                    return gate.asMono().then(Mono.just("blocker"));
+                })
+                .subscribe();
+    }
+
+    private Mono<String> submit(RequestScheduler scheduler, String label, String tenant, RequestPriority priority) {
+        return submit(scheduler, label, new ClientContext(tenant, priority, null));
+    }
+
+    private Mono<String> submit(RequestScheduler scheduler, String label, ClientContext client) {
+        return scheduler.schedule(() -> {
+                    dispatched.add(label);
+                    return Mono.just(label);
+                })
+                .contextWrite(client::addTo);
+    }
+
+    private double queued(RequestPriority priority) {
+        return meterRegistry.get("openai.scheduler.queued").tag("priority", priority.name().toLowerCase()).gauge().value();
+    }
+
+    private double dropped(String priority, String reason) {
+        return meterRegistry.get("openai.scheduler.dropped").tags("priority", priority, "reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,79 @@
+package com.portfolio.summarize.service.stream;
+
+import com.portfolio.summarize.config.StreamingProperties;
+import com.portfolio.summarize.dto.StreamDone;
+import com.portfolio.summarize.model.OpenAiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SseStreamEncoderTest {
+
+    @Test
+    void testTokensAreJoinedWithinTheFlushIntervalOrAtTheSizeLimit() {
+        VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+        SseStreamEncoder encoder = new SseStreamEncoder(
+                new StreamingProperties(Duration.ofMillis(30), DataSize.ofBytes(8)), scheduler);
+        Sinks.Many<String> tokens = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(encoder.batch(tokens.asFlux()))
+                .then(() -> {
+                    tokens.tryEmitNext("He");
+                    tokens.tryEmitNext("llo");
+                })
+                .expectNoEvent(Duration.ZERO)
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(30)))
+                .expectNext("Hello")
+                .then(() -> {
+                    tokens.tryEmitNext(" wide");
+                    tokens.tryEmitNext(" world");
+                })
+                .expectNext(" wide world")
+                .then(() -> {
+                    tokens.tryEmitNext("!");
+                    tokens.tryEmitComplete();
+                })
+                .expectNext("!")
+                .verifyComplete();
+    }
+
+    @Test
+    void testEventsAreNumberedAndEndWithUsage() {
+        SseStreamEncoder encoder = new SseStreamEncoder(new StreamingProperties(Duration.ZERO, null));
+        Flux<String> tokens = Flux.deferContextual(context -> {
+            context.get(StreamUsage.class).set(new OpenAiResponse.Usage(9, 2, 11));
+            return Flux.just("line one\r\n line two", "!");
+        });
+
+        List<ServerSentEvent<Object>> events = encoder.encode(tokens, "failed").collectList().block();
+
+        assertEquals(List.of("1", "2", "3"), events.stream().map(ServerSentEvent::id).toList());
+        assertEquals(" line one\n  line two", events.get(0).data());
+        assertNull(events.get(0).event());
+        assertEquals(SseStreamEncoder.DONE, events.get(2).event());
+        assertEquals(new StreamDone(9, 2, 11), events.get(2).data());
+    }
+
+    @Test
+    void testFailureEndsTheStreamWithAnErrorEvent() {
+        SseStreamEncoder encoder = new SseStreamEncoder(new StreamingProperties(null, null));
+
+        StepVerifier.create(encoder.encode(Flux.concat(Flux.just("partial"), Flux.error(new RuntimeException("boom"))), "failed"))
+                .assertNext(event -> assertEquals(" partial", event.data()))
+                .assertNext(event -> {
+                    assertEquals(SseStreamEncoder.ERROR, event.event());
+                    assertEquals("failed", event.data());
+                })
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,93 @@
+package com.portfolio.summarize.service.stream;
+
+import com.portfolio.summarize.model.OpenAiResponse;
+import com.portfolio.summarize.model.StreamResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StreamChunkDecoderTest {
+
+    @Test
+    void testDecodesEscapesAcrossArbitraryBufferBoundaries() {
+        String body = chunk("{\\\"quoted\\\"}") + chunk("line\\nbreak") + chunk("caf\\u00e9 \\ud83d\\ude00")
+                + "data: [DONE]\n\n";
+
+        for (int split = 1; split < body.length(); split += 7) {
+            StepVerifier.create(StreamChunkDecoder.decode(buffers(body, split)).map(StreamChunkDecoder::contentOf))
+                    .expectNext("{\"quoted\"}", "line\nbreak", "café 😀")
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void testJoinsMultiLineDataAndIgnoresCommentsAndOtherFields() {
+        String body = ": keep-alive\r\n"
+                + "event: message\r\n"
+                + "id: 7\r\n"
+                + "data: {\"choices\":[{\"index\":0,\r\n"
+                + "data: \"delta\":{\"content\":\"hi\"}}]}\r\n"
+                + "\r\n"
+                + "data:{\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}]}\n\n"
+                + "data: {\"choices\":[],\"usage\":{\"prompt_tokens\":9,\"completion_tokens\":2,\"total_tokens\":11}}";
+
+        StepVerifier.create(StreamChunkDecoder.decode(buffers(body, 5)))
+                .assertNext(chunk -> assertEquals("hi", StreamChunkDecoder.contentOf(chunk)))
+                .assertNext(chunk -> {
+                    assertNull(StreamChunkDecoder.contentOf(chunk));
+                    assertEquals("stop", chunk.choices().get(0).finishReason());
+                })
+                .assertNext(chunk -> {
+                    assertNull(StreamChunkDecoder.contentOf(chunk));
+                    assertEquals(new OpenAiResponse.Usage(9, 2, 11), chunk.usage());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testRepeatedStreamFieldsAreReused() throws Exception {
+        StreamChunkParser parser = new StreamChunkParser();
+        byte[] first = json("a").getBytes(StandardCharsets.UTF_8);
+        byte[] second = json("b").getBytes(StandardCharsets.UTF_8);
+
+        StreamResponse one = parser.parse(first, 0, first.length);
+        StreamResponse two = parser.parse(second, 0, second.length);
+
+        assertSame(one.id(), two.id());
+        assertSame(one.model(), two.model());
+        assertEquals(1700000000L, two.created());
+        assertEquals("b", StreamChunkDecoder.contentOf(two));
+    }
+
+    private static String chunk(String escapedContent) {
+        return "data: " + json(escapedContent) + "\n\n";
+    }
+
+    private static String json(String escapedContent) {
+        return "{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion.chunk\",\"created\":1700000000,"
+                + "\"model\":\"gpt-4\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"" + escapedContent
+                + "\"},\"finish_reason\":null}]}";
+    }
+
+    private static Flux<DataBuffer> buffers(String body, int size) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += size) {
+            int length = Math.min(size, bytes.length - i);
+            byte[] slice = new byte[length];
+            System.arraycopy(bytes, i, slice, 0, length);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(slice));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
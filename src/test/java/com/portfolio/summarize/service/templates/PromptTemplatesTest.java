@@ -0,0 +1,73 @@
+package com.portfolio.summarize.service.templates;
+
+import com.portfolio.summarize.config.TemplateProperties;
+import com.portfolio.summarize.model.OpenAiRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptTemplatesTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testTemplateTextRendersSlots() {
+        TemplateText text = TemplateText.compile("Part {{ part }} of {{total}}:\n\n{{text}}");
+
+        assertEquals("Part 2 of 3:\n\nbody", text.render(Map.of("part", "2", "total", "3", "text", "body")));
+        assertEquals(List.of("part", "total", "text"), text.variables());
+        assertThrows(IllegalArgumentException.class, () -> text.render(Map.of("part", "2")));
+        assertThrows(IllegalArgumentException.class, () -> TemplateText.compile("Hello {{name"));
+        assertTrue(TemplateText.compile("No slots here").isStatic());
+    }
+
+    @Test
+    void testBuiltInTemplatesPutInstructionsInTheSystemMessage() {
+        PromptTemplates templates = new PromptTemplates(new TemplateProperties(null, null));
+
+        List<OpenAiRequest.Message> messages = templates.getOrDefault(PromptTemplates.MESSAGES, "apology")
+                .render(Map.of("prompt", "Order 123 arrived late"));
+
+        assertEquals("system", messages.get(0).role());
+        assertEquals(new OpenAiRequest.Message("user", "Order 123 arrived late"), messages.get(1));
+        assertEquals(PromptTemplates.DEFAULT, templates.getOrDefault(PromptTemplates.MESSAGES, "customer_response").name());
+        assertTrue(templates.all(PromptTemplates.SUMMARIES).keySet().containsAll(List.of("brief", "bullet_points", "detailed", "key_points")));
+    }
+
+    @Test
+    void testDirectoryOverridesAreReloadedWhenChanged() throws IOException {
+        Path apology = directory.resolve("messages").resolve("apology.yml");
+        Files.createDirectories(apology.getParent());
+        Files.writeString(apology, "system: Apologize briefly.\nuser: \"{{prompt}}\"\n");
+        PromptTemplates templates = new PromptTemplates(new TemplateProperties(directory.toString(), Duration.ZERO));
+
+        assertEquals("Apologize briefly.", system(templates, "apology"));
+
+        Files.writeString(apology, "system: Apologize at length.\nuser: \"{{prompt}}\"\n");
+        Files.setLastModifiedTime(apology, FileTime.from(Instant.now().plusSeconds(10)));
+        templates.reloadIfChanged();
+        assertEquals("Apologize at length.", system(templates, "apology"));
+
+        Files.writeString(apology, "system: Broken {{slot\nuser: \"{{prompt}}\"\n");
+        Files.setLastModifiedTime(apology, FileTime.from(Instant.now().plusSeconds(20)));
+        templates.reloadIfChanged();
+        assertEquals("Apologize at length.", system(templates, "apology"));
+    }
+
+    private static String system(PromptTemplates templates, String name) {
+        return templates.getOrDefault(PromptTemplates.MESSAGES, name).system().render(Map.of());
+    }
+}
@@ -0,0 +1,52 @@
+package com.portfolio.summarize.service.tokens;
+
+import com.portfolio.summarize.config.OpenAiProperties;
+import com.portfolio.summarize.config.TokenProperties;
+import com.portfolio.summarize.model.OpenAiRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenCounterTest {
+
+    private final OpenAiProperties openAiProperties = new OpenAiProperties("test-api-key", null, "gpt-4", 1000, 0.7, null);
+
+    @Test
+    void testCountsMatchTheModelEncoding() {
+        TokenCounter counter = new TokenCounter(new TokenProperties(null, null, null, null), openAiProperties);
+
+        assertEquals(2, counter.count("gpt-4", "hello world"));
+        assertEquals(0, counter.count("gpt-4", ""));
+        // Unknown models fall back to cl100k_base
+        assertEquals(2, counter.count("my-fine-tune", "hello world"));
+        assertEquals(3 + 4 + 2 + 4 + 2, counter.countPrompt("gpt-4", List.of(
+                new OpenAiRequest.Message("system", "hello world"),
+                new OpenAiRequest.Message("user", "hello world"))));
+    }
+
+    @Test
+    void testCountsAreCloseToTheCharacterEstimateForProse() {
+        TokenCounter counter = new TokenCounter(new TokenProperties(null, null, null, null), openAiProperties);
+        String text = "The quarterly report shows revenue up 23% with software sales leading at 35% growth. ".repeat(50);
+
+        int tokens = counter.count("gpt-4", text);
+
+        assertTrue(tokens > TokenEstimator.estimate(text) / 2 && tokens < TokenEstimator.estimate(text) * 2, "tokens=" + tokens);
+    }
+
+    @Test
+    void testContextWindowUsesLongestPrefix() {
+        TokenCounter counter = new TokenCounter(new TokenProperties(Map.of("ft:gpt-4o", 64_000), 4096, null, null),
+                openAiProperties);
+
+        assertEquals(8_192, counter.contextWindow("gpt-4-0613"));
+        assertEquals(32_768, counter.contextWindow("gpt-4-32k-0613"));
+        assertEquals(128_000, counter.contextWindow("gpt-4o-mini"));
+        assertEquals(64_000, counter.contextWindow("ft:gpt-4o:acme"));
+        assertEquals(4_096, counter.contextWindow("llama-3"));
+    }
+}
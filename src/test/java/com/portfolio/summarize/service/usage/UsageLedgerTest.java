@@ -0,0 +1,100 @@
+package com.portfolio.summarize.service.usage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.summarize.config.UsageProperties;
+import com.portfolio.summarize.exception.BudgetExceededException;
+import com.portfolio.summarize.service.scheduling.ClientContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UsageLedgerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final Instant NOON = Instant.parse("2024-01-01T12:30:00Z");
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void testConcurrentRecordsAreAllRolledUpAndReportedPerStep() throws InterruptedException {
+        UsageLedger ledger = ledger(NOON, Map.of());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    ledger.record("acme", "generate", "gpt-4", 3, 2);
+                }
+            });
+        }
+        ledger.rollup();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        ledger.record("acme", "summarize", "gpt-4", 100, 10);
+        ledger.record("other", "generate", "gpt-4", 7, 7);
+
+        UsageReport report = report(ledger, "acme", NOON.minus(Duration.ofHours(12)), NOON.plus(Duration.ofHours(1)), Duration.ofHours(2));
+
+        assertEquals(List.of(
+                new UsageBucket(Instant.parse("2024-01-01T12:00:00Z"), "acme", "generate", "gpt-4", 240_000, 160_000, 80_000),
+                new UsageBucket(Instant.parse("2024-01-01T12:00:00Z"), "acme", "summarize", "gpt-4", 100, 10, 1)), report.buckets());
+        assertEquals(400_110, report.budget().usedTokens());
+        ledger.close();
+    }
+
+    @Test
+    void testUsageAndBudgetsSurviveARestartUntilThePeriodEnds() {
+        Map<String, UsageProperties.Budget> budgets = Map.of("acme", new UsageProperties.Budget(50L, 100L));
+        UsageLedger first = ledger(NOON, budgets);
+        first.record("acme", "generate", "gpt-4", 60, 10);
+        StepVerifier.create(admit(first, "acme")).verifyComplete();
+        first.record("acme", "generate", "gpt-4", 20, 10);
+        first.close();
+
+        UsageLedger restarted = ledger(NOON.plus(Duration.ofHours(1)), budgets);
+        StepVerifier.create(admit(restarted, "acme"))
+                .expectErrorSatisfies(error -> assertEquals(Duration.ofMinutes(630),
+                        ((BudgetExceededException) error).getRetryAfter()))
+                .verify(TIMEOUT);
+        StepVerifier.create(admit(restarted, "other")).verifyComplete();
+        assertEquals(List.of(new UsageBucket(Instant.parse("2024-01-01T12:00:00Z"), "acme", "generate", "gpt-4", 80, 20, 2)),
+                report(restarted, "acme", null, null, null).buckets());
+        restarted.close();
+
+        UsageLedger nextDay = ledger(NOON.plus(Duration.ofDays(1)), budgets);
+        StepVerifier.create(admit(nextDay, "acme")).verifyComplete();
+        assertEquals(0, report(nextDay, "acme", null, null, null).budget().usedTokens());
+        nextDay.close();
+    }
+
+    private UsageLedger ledger(Instant now, Map<String, UsageProperties.Budget> budgets) {
+        return new UsageLedger(new UsageProperties(directory.toString(), null, null, null, null, null, budgets),
+                objectMapper, new SimpleMeterRegistry(), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static Mono<Void> admit(UsageLedger ledger, String tenant) {
+        return ledger.admit().contextWrite(new ClientContext(tenant, null, null)::addTo);
+    }
+
+    private static UsageReport report(UsageLedger ledger, String tenant, Instant from, Instant to, Duration step) {
+        return ledger.report(from, to, step).contextWrite(new ClientContext(tenant, null, null)::addTo).block(TIMEOUT);
+    }
+}